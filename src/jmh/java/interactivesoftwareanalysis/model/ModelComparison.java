@@ -0,0 +1,145 @@
+package interactivesoftwareanalysis.model;
+
+import com.google.common.eventbus.EventBus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <p>Compares the memory and the latency of the {@link JenaDictionaryRDFModel} with the {@link JenaRDFModel}.
+ * Both models import the same file system items and packages, after that the typical queries of the application
+ * are measured. The heap is measured after garbage collections, which JMH does not report, so this is a program
+ * instead of a benchmark.</p>
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec
+ * -Dbenchmark.main=interactivesoftwareanalysis.model.ModelComparison -Dbenchmark=<number of files>}.</p>
+ */
+public class ModelComparison {
+
+    private static final String NAME_SPACE = "http://interactivesoftwareanalysis/";
+    private static final int DEFAULT_FILE_COUNT = 200000;
+    private static final int PACKAGE_COUNT = 20000;
+    private static final int TAGGED_COUNT = 100;
+    private static final int GET_TAGS_COUNT = 10000;
+    private static final int ROUNDS = 5;
+
+    private static final String FILE_QUERY = "SELECT DISTINCT ?file ?path WHERE {?file isa:path ?path. "
+            + "{{?file rdf:type isa:file.} UNION {?file rdf:type isa:directory.}}}";
+    private static final String TAG_QUERY = "SELECT ?tagName WHERE {?resource isa:tag ?tag. ?tag isa:tagName ?tagName}";
+    private static final String ASK_QUERY = "ASK {?package isa:packageSection 'libs'}";
+
+    public static void main(String[] args) throws ResourceNotFoundException {
+        int fileCount = args.length > 0 && args[0].matches("[0-9]+") ? Integer.parseInt(args[0]) : DEFAULT_FILE_COUNT;
+        List<Function<EventBus, Model>> models = Arrays.asList(JenaRDFModel::new, JenaDictionaryRDFModel::new);
+
+        System.out.printf("%-24s %8s %10s %10s %10s %12s %10s %8s%n", "model", "heap MB", "import ms",
+                "files ms", "tags ms", "getTags ms", "ask ms", "rows");
+        for (Function<EventBus, Model> modelFactory : models) {
+            measure(modelFactory, fileCount);
+        }
+    }
+
+    /**
+     * Import the items into a new model and print its memory and the latencies of the queries
+     * @param modelFactory creates the model
+     * @param fileCount the number of file system items to import
+     * @throws ResourceNotFoundException if an imported item is missing in the model
+     */
+    private static void measure(Function<EventBus, Model> modelFactory, int fileCount)
+            throws ResourceNotFoundException {
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        Model model = modelFactory.apply(new EventBus());
+        importItems(model, fileCount);
+        long importTime = System.nanoTime() - start;
+        long heap = usedHeap() - heapBefore;
+
+        for (int i = 0; i < TAGGED_COUNT; i++) {
+            model.getResource(fileUri(i)).addTag("tag" + (i % 3), "description");
+        }
+
+        // the last round is reported, the rounds before warm up the query engine
+        long fileQueryTime = 0, tagQueryTime = 0, getTagsTime = 0, askTime = 0;
+        int[] rows = new int[1];
+        for (int round = 0; round < ROUNDS; round++) {
+            rows[0] = 0;
+            start = System.nanoTime();
+            model.executeSelectQuery(FILE_QUERY, result -> rows[0]++);
+            fileQueryTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int tags = model.executeSelectQuery(TAG_QUERY).size();
+            tagQueryTime = System.nanoTime() - start;
+            check(tags == TAGGED_COUNT, "tags found: " + tags);
+
+            start = System.nanoTime();
+            for (int i = 0; i < GET_TAGS_COUNT; i++) {
+                model.getResource(fileUri(i)).getTags();
+            }
+            getTagsTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            check(model.executeAskQuery(ASK_QUERY), "no package in section libs");
+            askTime = System.nanoTime() - start;
+        }
+        check(rows[0] == fileCount, "files found: " + rows[0]);
+
+        System.out.printf("%-24s %8.0f %10.0f %10.1f %10.2f %12.1f %10.3f %8d%n", model.getClass().getSimpleName(),
+                heap / 1e6, importTime / 1e6, fileQueryTime / 1e6, tagQueryTime / 1e6, getTagsTime / 1e6,
+                askTime / 1e6, rows[0]);
+    }
+
+    /**
+     * Import file system items, spread over the documentation directories of packages, and the packages
+     * @param model the model to import into
+     * @param fileCount the number of file system items, every tenth is a directory
+     */
+    private static void importItems(Model model, int fileCount) {
+        try (ModelBatch batch = model.newBatch()) {
+            for (int i = 0; i < fileCount; i++) {
+                String path = path(i);
+                String uri = fileUri(i);
+                batch.addResource(uri, NAME_SPACE + (i % 10 == 0 ? "directory" : "file"), path);
+                batch.addAttribute(uri, NAME_SPACE + "path", path);
+            }
+            for (int i = 0; i < PACKAGE_COUNT; i++) {
+                String uri = NAME_SPACE + "package" + i;
+                batch.addResource(uri, NAME_SPACE + "package", "package" + i);
+                batch.addAttribute(uri, NAME_SPACE + "packageSection", i % 7 == 0 ? "libs" : "admin");
+                batch.addAttribute(uri, NAME_SPACE + "packagePriority", "optional");
+            }
+        }
+    }
+
+    private static String path(int file) {
+        return "/usr/share/doc/package" + (file % 5000) + "/file" + file;
+    }
+
+    private static String fileUri(int file) {
+        return NAME_SPACE + "filesystemitem" + path(file).hashCode();
+    }
+
+    /**
+     * Retrieve the used heap after some garbage collections
+     * @return the used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import interactivesoftwareanalysis.modules.data.DataItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Compares the name, text and regex filters with their implementations before the patterns were prepared once
+ * and the items kept case folded keys. Every benchmark filters all items and returns the number of matches.</p>
+ *
+ * <p>The filters are not prepared, so they search the strings directly instead of looking up the index of a model.
+ * The items keep their keys between the invocations, like the data of a view, that is filtered while typing.</p>
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilterBenchmark {
+
+    private static final String NAME_PATTERN = "FILE1";
+    private static final String TEXT_PATTERN = "lib7";
+    private static final String REGEX_PATTERN = "Pkg4[0-9]/";
+
+    /** The number of items, half of them have two more strings, like the columns of a table */
+    @Param("200000") private int itemCount;
+
+    private List<DataItem> items;
+
+    @Setup public void setUp() {
+        Random random = new Random(1);
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            DataItem item = new DataItem("/usr/Share/Pkg" + random.nextInt(500) + "/File" + i + ".so", null);
+            if (i % 2 == 0) {
+                item.getStrings().put("package", "Lib" + random.nextInt(300));
+                item.getStrings().put("Version", "1." + random.nextInt(20));
+            }
+            items.add(item);
+        }
+    }
+
+    @Benchmark public int nameFilterBefore() {
+        return count(new NameFilterBefore(NAME_PATTERN));
+    }
+
+    @Benchmark public int nameFilter() {
+        return count(new NameFilter(NAME_PATTERN, null));
+    }
+
+    @Benchmark public int textFilterBefore() {
+        return count(new TextFilterBefore(TEXT_PATTERN));
+    }
+
+    @Benchmark public int textFilter() {
+        return count(new TextFilter(TEXT_PATTERN, null));
+    }
+
+    @Benchmark public int regexFilterBefore() {
+        return count(new RegexFilterBefore(REGEX_PATTERN));
+    }
+
+    @Benchmark public int regexFilter() {
+        return count(new RegexFilter(REGEX_PATTERN));
+    }
+
+    /**
+     * Count the items, that a filter matches
+     * @param filter the filter
+     * @return the number of matching items
+     */
+    private int count(Filter filter) {
+        int matches = 0;
+        for (DataItem item : items) {
+            if (filter.filter(item)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The name filter, as it lower cased the pattern and the name of every item
+     */
+    private static class NameFilterBefore extends DecideFilterBase {
+
+        private NameFilterBefore(String pattern) {
+            super(pattern);
+        }
+
+        @Override public boolean filter(DataItem dataItem) {
+            return dataItem.getString().toLowerCase().contains(pattern.toLowerCase());
+        }
+    }
+
+    /**
+     * The text filter, as it lower cased the pattern and all strings of every item
+     */
+    private static class TextFilterBefore extends DecideFilterBase {
+
+        private TextFilterBefore(String pattern) {
+            super(pattern);
+        }
+
+        @Override public boolean filter(DataItem dataItem) {
+            if (dataItem.getString().toLowerCase().contains(pattern.toLowerCase())) {
+                return true;
+            }else{
+                for (String s : dataItem.getStrings().values()) {
+                    if (s.toLowerCase().contains(pattern.toLowerCase())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The regex filter, as it compiled the expression for every item. It used the internal regexp class of the JDK,
+     * which javac does not offer to compile against, so the expression is compiled with java.util.regex here.
+     */
+    private static class RegexFilterBefore extends DecideFilterBase {
+
+        private RegexFilterBefore(String pattern) {
+            super(pattern);
+        }
+
+        @Override public boolean filter(DataItem dataItem) {
+            return Pattern.compile(pattern).matcher(dataItem.getString()).find();
+        }
+    }
+}
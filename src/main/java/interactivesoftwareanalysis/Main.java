@@ -3,6 +3,9 @@ package interactivesoftwareanalysis;
 import com.gluonhq.ignite.DIContext;
 import com.gluonhq.ignite.guice.GuiceContext;
 import interactivesoftwareanalysis.dependencyinjection.GuiceModule;
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.ModelBusyException;
+import interactivesoftwareanalysis.model.ProjectModel;
 import interactivesoftwareanalysis.userinterface.UIManager;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -15,11 +18,13 @@ import java.util.Collections;
  */
 public class Main extends Application {
 
+    private DIContext context;
+
     @Override public void start(Stage primaryStage) throws Exception {
 
         // Initialize the DI context, so dependency injection can be used
         GuiceModule module = new GuiceModule();
-        DIContext context = new GuiceContext(this, () -> Collections.singletonList(module));
+        context = new GuiceContext(this, () -> Collections.singletonList(module));
         module.addDIContext(context);
         context.init();
 
@@ -29,6 +34,19 @@ public class Main extends Application {
         uiManager.initialize(primaryStage);
     }
 
+    @Override public void stop() throws Exception {
+        // release an open project, so its files are in a clean state
+        Model model = context.getInstance(Model.class);
+        if (model instanceof ProjectModel) {
+            try {
+                ((ProjectModel) model).closeProject();
+            } catch (ModelBusyException e) {
+                // the running import is not committed, the project recovers from its journal, when it is opened again
+                e.printStackTrace();
+            }
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
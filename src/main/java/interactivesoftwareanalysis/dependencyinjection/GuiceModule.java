@@ -4,23 +4,48 @@ import com.gluonhq.ignite.DIContext;
 import com.google.common.eventbus.EventBus;
 import com.google.inject.AbstractModule;
 import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.JenaDictionaryRDFModel;
 import interactivesoftwareanalysis.model.JenaRDFModel;
+import interactivesoftwareanalysis.model.JenaTransactionalRDFModel;
 import interactivesoftwareanalysis.modules.data.DataSourceManager;
 import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.ModuleManager;
 import interactivesoftwareanalysis.userinterface.UIManager;
 
 import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * This module defines the dependency injection bindings in this project.
- * There are only a few bound classes and interfaces, so they all fit into one module at this point.
+ * <p>This module defines the dependency injection bindings in this project.
+ * There are only a few bound classes and interfaces, so they all fit into one module at this point.</p>
+ *
+ * <p>The model implementation can be chosen with the system property {@value MODEL_PROPERTY}:
+ * <ul>
+ *     <li>transactional (default): {@link JenaTransactionalRDFModel}, readers work on snapshots and never wait for imports.
+ *     Only this implementation can open projects on disk, so the other ones disable the project menu.</li>
+ *     <li>locking: {@link JenaRDFModel}, readers and writers share one lock</li>
+ *     <li>dictionary: {@link JenaDictionaryRDFModel}, like locking, but with a compact, dictionary encoded storage</li>
+ * </ul>
+ * </p>
  */
 public class GuiceModule extends AbstractModule {
+    /** The system property to choose the model implementation with */
+    public static final String MODEL_PROPERTY = "interactivesoftwareanalysis.model";
+
+    private static final String DEFAULT_MODEL = "transactional";
+    private static final Map<String, Class<? extends Model>> modelImplementations = new HashMap<>();
+
+    static {
+        modelImplementations.put("transactional", JenaTransactionalRDFModel.class);
+        modelImplementations.put("locking", JenaRDFModel.class);
+        modelImplementations.put("dictionary", JenaDictionaryRDFModel.class);
+    }
+
     private DIContext diContext;
 
     @Override protected void configure() {
-        bind(Model.class).to(JenaRDFModel.class).in(Singleton.class);
+        bind(Model.class).to(getModelImplementation()).in(Singleton.class);
         bind(UIManager.class).in(Singleton.class);
         bind(ModuleManager.class).in(Singleton.class);
         bind(EventBus.class).in(Singleton.class);
@@ -29,6 +54,20 @@ public class GuiceModule extends AbstractModule {
         bind(DIContext.class).toInstance(diContext);
     }
 
+    /**
+     * Retrieve the model implementation chosen by the system property {@value MODEL_PROPERTY}
+     * @return the model implementation class. Unknown names fall back to the default implementation.
+     */
+    private Class<? extends Model> getModelImplementation() {
+        String name = System.getProperty(MODEL_PROPERTY, DEFAULT_MODEL);
+        Class<? extends Model> implementation = modelImplementations.get(name);
+        if (implementation == null) {
+            System.err.println("Unknown model implementation " + name + ", using " + DEFAULT_MODEL);
+            implementation = modelImplementations.get(DEFAULT_MODEL);
+        }
+        return implementation;
+    }
+
     /**
      * Add the dependency injection context to said context, so that the
      * context can inject itself. Injected instances can use this to create other injected instances at runtime.
@@ -0,0 +1,103 @@
+package interactivesoftwareanalysis.model;
+
+import interactivesoftwareanalysis.model.events.ModelChangedEvent;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the subjects and predicates of changed statements, so multiple changes
+ * can be coalesced into a single {@link ModelChangedEvent}.
+ * When more than {@value MAX_SUBJECTS} subjects changed, the change set becomes complete
+ * and stops collecting, because receivers would rebuild their data anyway.
+ */
+class ChangeSet {
+
+    /** The maximum number of subjects that are collected before the change set becomes complete */
+    private static final int MAX_SUBJECTS = 10000;
+
+    private Set<String> subjects = new HashSet<>();
+    private Set<String> predicates = new HashSet<>();
+    private boolean empty = true;
+
+    /**
+     * Add a changed statement
+     * @param subject the subject of the statement
+     * @param predicate the predicate of the statement
+     */
+    void add(org.apache.jena.rdf.model.Resource subject, org.apache.jena.rdf.model.Resource predicate) {
+        add(subject.isURIResource() ? subject.getURI() : null, predicate.getURI());
+    }
+
+    /**
+     * Add a changed statement
+     * @param subjectUri the uri of the subject or null, if the subject is a blank node
+     * @param predicateUri the uri of the predicate
+     */
+    void add(String subjectUri, String predicateUri) {
+        empty = false;
+        if (isComplete()) {
+            return;
+        }
+        if (subjectUri != null) {
+            subjects.add(subjectUri);
+        }
+        predicates.add(predicateUri);
+        if (subjects.size() > MAX_SUBJECTS) {
+            markComplete();
+        }
+    }
+
+    /**
+     * Add all changes of another change set
+     * @param changeSet the change set to add
+     */
+    void addAll(ChangeSet changeSet) {
+        if (changeSet.empty) {
+            return;
+        }
+        empty = false;
+        if (changeSet.isComplete()) {
+            markComplete();
+        } else if (!isComplete()) {
+            subjects.addAll(changeSet.subjects);
+            predicates.addAll(changeSet.predicates);
+            if (subjects.size() > MAX_SUBJECTS) {
+                markComplete();
+            }
+        }
+    }
+
+    /**
+     * Mark this change set as complete, which means that anything in the model may have changed
+     */
+    void markComplete() {
+        empty = false;
+        subjects = null;
+        predicates = null;
+    }
+
+    /**
+     * Decide, whether anything may have changed
+     * @return true, iff this change set is complete
+     */
+    boolean isComplete() {
+        return subjects == null;
+    }
+
+    /**
+     * Decide, whether no changes were added
+     * @return true, iff no changes were added
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Create a model changed event that describes the changes in this change set
+     * @return a new event
+     */
+    ModelChangedEvent toEvent() {
+        return isComplete() ? new ModelChangedEvent() : new ModelChangedEvent(subjects, predicates);
+    }
+}
@@ -0,0 +1,166 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.graph.impl.GraphBase;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.NullIterator;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>A Jena graph that stores triples as dictionary encoded ints instead of node objects.</p>
+ *
+ * <p>Every node is stored once in a {@link NodeDictionary}. The triples are kept in three
+ * {@link TripleIndex}es (SPO, POS and OSP), so every pattern with at least one concrete
+ * node is answered by a range in one index. As this is a regular Jena graph, SPARQL queries
+ * are evaluated on it by ARQ as usual.</p>
+ *
+ * <p>The graph is not thread safe. Access has to be synchronized, e.g. by the lock of the model.</p>
+ */
+class DictionaryGraph extends GraphBase {
+
+    /** The id used for a wildcard in a pattern */
+    private static final int ANY = -1;
+
+    /** The id used for a concrete node, that is not in the dictionary, so nothing can match */
+    private static final int UNKNOWN = -2;
+
+    private final NodeDictionary dictionary = new NodeDictionary();
+    private final TripleIndex spo = new TripleIndex();
+    private final TripleIndex pos = new TripleIndex();
+    private final TripleIndex osp = new TripleIndex();
+    private int size = 0;
+
+    @Override public void performAdd(Triple triple) {
+        int subject = dictionary.getOrCreateId(triple.getSubject());
+        int predicate = dictionary.getOrCreateId(triple.getPredicate());
+        int object = dictionary.getOrCreateId(triple.getObject());
+        if (spo.add(subject, predicate, object)) {
+            pos.add(predicate, object, subject);
+            osp.add(object, subject, predicate);
+            size++;
+        }
+    }
+
+    @Override public void performDelete(Triple triple) {
+        int subject = dictionary.getId(triple.getSubject());
+        int predicate = dictionary.getId(triple.getPredicate());
+        int object = dictionary.getId(triple.getObject());
+        if (subject < 0 || predicate < 0 || object < 0) {
+            return;
+        }
+        if (spo.remove(subject, predicate, object)) {
+            pos.remove(predicate, object, subject);
+            osp.remove(object, subject, predicate);
+            size--;
+        }
+    }
+
+    @Override public void clear() {
+        dictionary.clear();
+        spo.clear();
+        pos.clear();
+        osp.clear();
+        size = 0;
+        getEventManager().notifyEvent(this, GraphEvents.removeAll);
+    }
+
+    @Override protected int graphBaseSize() {
+        return size;
+    }
+
+    @Override protected boolean graphBaseContains(Triple triple) {
+        if (!triple.isConcrete()) {
+            return graphBaseFind(triple).hasNext();
+        }
+        int subject = dictionary.getId(triple.getSubject());
+        int predicate = dictionary.getId(triple.getPredicate());
+        int object = dictionary.getId(triple.getObject());
+        return subject >= 0 && predicate >= 0 && object >= 0 && spo.contains(subject, predicate, object);
+    }
+
+    @Override protected ExtendedIterator<Triple> graphBaseFind(Triple pattern) {
+        int subject = lookup(pattern.getMatchSubject());
+        int predicate = lookup(pattern.getMatchPredicate());
+        int object = lookup(pattern.getMatchObject());
+        if (subject == UNKNOWN || predicate == UNKNOWN || object == UNKNOWN) {
+            return NullIterator.instance();
+        }
+
+        // choose the index, where the concrete nodes form the longest prefix
+        if (subject >= 0 && (predicate >= 0 || object < 0)) {
+            return new TripleIterator(spo.find(subject, predicate, object), Order.SPO);
+        } else if (subject >= 0) {
+            return new TripleIterator(osp.find(object, subject, predicate), Order.OSP);
+        } else if (predicate >= 0) {
+            return new TripleIterator(pos.find(predicate, object, subject), Order.POS);
+        } else if (object >= 0) {
+            return new TripleIterator(osp.find(object, subject, predicate), Order.OSP);
+        } else {
+            return new TripleIterator(spo.find(ANY, ANY, ANY), Order.SPO);
+        }
+    }
+
+    /**
+     * Look up the id of a pattern node
+     * @param node a concrete node or null for a wildcard
+     * @return the id of the node, ANY for a wildcard or UNKNOWN if the node is not in the dictionary
+     */
+    private int lookup(Node node) {
+        if (node == null) {
+            return ANY;
+        }
+        int id = dictionary.getId(node);
+        return id >= 0 ? id : UNKNOWN;
+    }
+
+    /**
+     * The order of the components in an index
+     */
+    private enum Order {SPO, POS, OSP}
+
+    /**
+     * An iterator that decodes the triples found by an index cursor
+     */
+    private class TripleIterator extends NiceIterator<Triple> {
+        private final TripleIndex.Cursor cursor;
+        private final Order order;
+        private boolean hasNext;
+        private boolean advanced = false;
+
+        TripleIterator(TripleIndex.Cursor cursor, Order order) {
+            this.cursor = cursor;
+            this.order = order;
+        }
+
+        @Override public boolean hasNext() {
+            if (!advanced) {
+                hasNext = cursor.next();
+                advanced = true;
+            }
+            return hasNext;
+        }
+
+        @Override public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            switch (order) {
+                case SPO:
+                    return triple(cursor.first, cursor.second, cursor.third);
+                case POS:
+                    return triple(cursor.third, cursor.first, cursor.second);
+                default:
+                    return triple(cursor.second, cursor.third, cursor.first);
+            }
+        }
+
+        private Triple triple(int subject, int predicate, int object) {
+            return new Triple(dictionary.getNode(subject), dictionary.getNode(predicate), dictionary.getNode(object));
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.GraphListener;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>A base class for indexes that are kept up to date by listening to the changes of a graph.</p>
+ *
+ * <p>Graphs report changes in many different ways, e.g. triple by triple, as a list or as a whole graph.
+ * All of them are passed to {@link #added(Iterator)} and {@link #deleted(Iterator)}. Graphs that are cleared
+ * or remove a pattern without reporting the single triples are handled by {@link #clear()} and
+ * {@link #removed(Triple)}.</p>
+ *
+ * <p>The changes are reported by the thread that modifies the graph, after the graph was modified.
+ * Models with transactions defer the changes of a write transaction with {@link #deferChanges()}, so readers
+ * don't find uncommitted changes in the index. The deferred changes are applied, when the transaction is
+ * committed, or discarded, when it is aborted.</p>
+ */
+abstract class GraphIndex implements GraphListener {
+
+    protected Graph graph = null;
+
+    /** The changes of the running write transaction in their order, or null, if changes are applied at once */
+    private List<DeferredChange> deferredChanges = null;
+
+    /**
+     * Listen to a graph instead of the previous one and index its content.
+     * This has to be called, while no other thread modifies the graph.
+     * @param graph the graph to index
+     * @param rebuild true, if the graph may already contain triples and has to be scanned
+     */
+    void attach(Graph graph, boolean rebuild) {
+        if (this.graph != null) {
+            this.graph.getEventManager().unregister(this);
+        }
+        this.graph = graph;
+        graph.getEventManager().register(this);
+        clear();
+        if (rebuild) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Keep the following changes, until they are applied or discarded.
+     * This is called by the writing thread, when it begins a write transaction.
+     */
+    void deferChanges() {
+        deferredChanges = new ArrayList<>();
+    }
+
+    /**
+     * Apply the deferred changes in their order and apply further changes at once.
+     * This is called by the writing thread after the transaction was committed, in a read transaction,
+     * so the index can check the committed graph.
+     */
+    void applyDeferredChanges() {
+        List<DeferredChange> changes = deferredChanges;
+        deferredChanges = null;
+        if (changes != null) {
+            changes.forEach(DeferredChange::apply);
+        }
+    }
+
+    /**
+     * Forget the deferred changes, as the transaction was aborted, and apply further changes at once
+     */
+    void discardDeferredChanges() {
+        deferredChanges = null;
+    }
+
+    /**
+     * Update the index for triples that were added to the graph
+     * @param triples the added triples. They may have been in the graph before.
+     */
+    protected abstract void added(Iterator<Triple> triples);
+
+    /**
+     * Update the index for triples that were deleted from the graph
+     * @param triples the deleted triples
+     */
+    protected abstract void deleted(Iterator<Triple> triples);
+
+    /**
+     * Update the index for all triples matching a pattern, that were deleted from the graph
+     * @param pattern the pattern with Node.ANY as wildcard
+     */
+    protected abstract void removed(Triple pattern);
+
+    /**
+     * Remove everything from the index
+     */
+    protected abstract void clear();
+
+    /**
+     * Index the whole graph
+     */
+    protected abstract void rebuild();
+
+    @Override public void notifyAddTriple(Graph g, Triple triple) {
+        changed(Collections.singletonList(triple).iterator(), true);
+    }
+
+    @Override public void notifyAddArray(Graph g, Triple[] triples) {
+        changed(Arrays.asList(triples).iterator(), true);
+    }
+
+    @Override public void notifyAddList(Graph g, List<Triple> triples) {
+        changed(triples.iterator(), true);
+    }
+
+    @Override public void notifyAddIterator(Graph g, Iterator<Triple> triples) {
+        changed(triples, true);
+    }
+
+    @Override public void notifyAddGraph(Graph g, Graph added) {
+        ExtendedIterator<Triple> iterator = added.find(Node.ANY, Node.ANY, Node.ANY);
+        try {
+            changed(iterator, true);
+        } finally {
+            iterator.close();
+        }
+    }
+
+    @Override public void notifyDeleteTriple(Graph g, Triple triple) {
+        changed(Collections.singletonList(triple).iterator(), false);
+    }
+
+    @Override public void notifyDeleteList(Graph g, List<Triple> triples) {
+        changed(triples.iterator(), false);
+    }
+
+    @Override public void notifyDeleteArray(Graph g, Triple[] triples) {
+        changed(Arrays.asList(triples).iterator(), false);
+    }
+
+    @Override public void notifyDeleteIterator(Graph g, Iterator<Triple> triples) {
+        changed(triples, false);
+    }
+
+    @Override public void notifyDeleteGraph(Graph g, Graph removed) {
+        ExtendedIterator<Triple> iterator = removed.find(Node.ANY, Node.ANY, Node.ANY);
+        try {
+            changed(iterator, false);
+        } finally {
+            iterator.close();
+        }
+    }
+
+    @Override public void notifyEvent(Graph source, Object value) {
+        if (value == GraphEvents.removeAll) {
+            if (deferredChanges != null) {
+                deferredChanges.add(new DeferredChange(DeferredChange.CLEARED, null, null));
+            } else {
+                clear();
+            }
+        } else if (value instanceof GraphEvents && "remove".equals(((GraphEvents) value).getTitle())) {
+            // some graphs remove the triples of a pattern without reporting every single triple
+            Triple pattern = (Triple) ((GraphEvents) value).getContent();
+            if (deferredChanges != null) {
+                deferredChanges.add(new DeferredChange(DeferredChange.REMOVED, null, pattern));
+            } else {
+                removed(pattern);
+            }
+        }
+    }
+
+    /**
+     * Pass added or deleted triples to the index or defer them
+     * @param triples the triples, which may only be iterated now
+     * @param added true, if the triples were added, false, if they were deleted
+     */
+    private void changed(Iterator<Triple> triples, boolean added) {
+        if (deferredChanges == null) {
+            if (added) {
+                added(triples);
+            } else {
+                deleted(triples);
+            }
+            return;
+        }
+        // consecutive changes of the same kind are collected in one list, as many graphs report single triples
+        int kind = added ? DeferredChange.ADDED : DeferredChange.DELETED;
+        DeferredChange last = deferredChanges.isEmpty() ? null : deferredChanges.get(deferredChanges.size() - 1);
+        if (last == null || last.kind != kind) {
+            last = new DeferredChange(kind, new ArrayList<>(), null);
+            deferredChanges.add(last);
+        }
+        triples.forEachRemaining(last.triples::add);
+    }
+
+    /**
+     * A change of the graph, that is applied to the index later
+     */
+    private class DeferredChange {
+        private static final int ADDED = 0;
+        private static final int DELETED = 1;
+        private static final int REMOVED = 2;
+        private static final int CLEARED = 3;
+
+        private final int kind;
+        private final List<Triple> triples;
+        private final Triple pattern;
+
+        private DeferredChange(int kind, List<Triple> triples, Triple pattern) {
+            this.kind = kind;
+            this.triples = triples;
+            this.pattern = pattern;
+        }
+
+        private void apply() {
+            switch (kind) {
+                case ADDED:
+                    added(triples.iterator());
+                    break;
+                case DELETED:
+                    deleted(triples.iterator());
+                    break;
+                case REMOVED:
+                    removed(pattern);
+                    break;
+                default:
+                    clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package interactivesoftwareanalysis.model;
+
+import com.google.common.eventbus.EventBus;
+import org.apache.jena.rdf.model.ModelFactory;
+
+import javax.inject.Inject;
+
+/**
+ * <p>A model implementation that stores its data in a {@link DictionaryGraph}.</p>
+ *
+ * <p>The models of this application contain many repeated uris and literals. The dictionary graph
+ * stores every node once and the triples as ints, which needs considerably less memory than the
+ * default Jena graph for large models. Queries work exactly as with the {@link JenaRDFModel}.</p>
+ */
+public class JenaDictionaryRDFModel extends JenaRDFModel {
+
+    /**
+     * Create a new, empty model.
+     * @param eventBus the event bus to post change event on
+     */
+    @Inject public JenaDictionaryRDFModel(EventBus eventBus) {
+        super(eventBus, ModelFactory.createModelForGraph(new DictionaryGraph()));
+        getInternalModel().setNsPrefix("isa", "http://interactivesoftwareanalysis/");
+    }
+
+    @Override protected org.apache.jena.rdf.model.Model createInternalModel() {
+        org.apache.jena.rdf.model.Model model = ModelFactory.createModelForGraph(new DictionaryGraph());
+        model.setNsPrefix("isa", "http://interactivesoftwareanalysis/");
+        return model;
+    }
+}
@@ -0,0 +1,128 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.rdf.model.Statement;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch implementation for the {@link JenaRDFModel}.
+ * Statements are created independently of the internal model and added in chunks
+ * of {@value CHUNK_SIZE} statements, each under one write lock.
+ */
+public class JenaModelBatch implements ModelBatch {
+
+    /** The number of statements that are collected before they are committed to the model */
+    private static final int CHUNK_SIZE = 50000;
+
+    private static final Property HUMAN_READABLE_NAME = ResourceFactory.createProperty("http://interactivesoftwareanalysis/humanReadableName");
+    private static final Property TYPE = ResourceFactory.createProperty("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+
+    private final JenaRDFModel model;
+    private final long startTime = System.nanoTime();
+    private List<Statement> statements = new ArrayList<>(CHUNK_SIZE);
+    private long statementCount = 0;
+    private final ChangeSet changes = new ChangeSet();
+    private long endTime = -1;
+
+    /**
+     * Create a new batch for a model
+     * @param model the model to commit the statements to
+     */
+    JenaModelBatch(JenaRDFModel model) {
+        this.model = model;
+        model.batchStarted();
+    }
+
+    @Override public void addResource(String resourceURI, String typeURI, String humanReadableName) {
+        if (humanReadableName == null || humanReadableName.isEmpty()) {
+            humanReadableName = resourceURI;
+        }
+        org.apache.jena.rdf.model.Resource resource = ResourceFactory.createResource(resourceURI);
+        add(ResourceFactory.createStatement(resource, TYPE, ResourceFactory.createResource(typeURI)));
+        add(ResourceFactory.createStatement(resource, HUMAN_READABLE_NAME, ResourceFactory.createPlainLiteral(humanReadableName)));
+    }
+
+    @Override public void addAttribute(String resourceUri, String attributeTypeUri, String value) {
+        RDFNode literal = value != null ? ResourceFactory.createPlainLiteral(value) : ResourceFactory.createResource();
+        add(ResourceFactory.createStatement(ResourceFactory.createResource(resourceUri), ResourceFactory.createProperty(attributeTypeUri), literal));
+    }
+
+    @Override public void addAttribute(String resourceUri, String attributeTypeUri, long value) {
+        add(ResourceFactory.createStatement(ResourceFactory.createResource(resourceUri), ResourceFactory.createProperty(attributeTypeUri),
+                ResourceFactory.createTypedLiteral(Long.toString(value), XSDDatatype.XSDlong)));
+    }
+
+    @Override public void addAttribute(String resourceUri, String attributeTypeUri, Instant value) {
+        // the ISO-8601 format of instants is a valid xsd:dateTime in UTC
+        add(ResourceFactory.createStatement(ResourceFactory.createResource(resourceUri), ResourceFactory.createProperty(attributeTypeUri),
+                ResourceFactory.createTypedLiteral(value.toString(), XSDDatatype.XSDdateTime)));
+    }
+
+    @Override public void addResourceAttribute(String resourceUri, String attributeTypeUri, String valueUri) {
+        add(ResourceFactory.createStatement(ResourceFactory.createResource(resourceUri),
+                ResourceFactory.createProperty(attributeTypeUri), ResourceFactory.createResource(valueUri)));
+    }
+
+    @Override public void commit() {
+        if (!statements.isEmpty()) {
+            model.addStatements(statements);
+            statements = new ArrayList<>(CHUNK_SIZE);
+        }
+    }
+
+    @Override public long getStatementCount() {
+        return statementCount;
+    }
+
+    @Override public double getStatementsPerSecond() {
+        long end = endTime >= 0 ? endTime : System.nanoTime();
+        double seconds = (end - startTime) / 1e9;
+        return seconds > 0 ? statementCount / seconds : 0;
+    }
+
+    @Override public void close() {
+        if (endTime >= 0) {
+            return;
+        }
+        boolean successful = false;
+        try {
+            commit();
+            successful = true;
+        } finally {
+            endTime = System.nanoTime();
+            model.batchFinished(successful);
+        }
+        model.fireModelChangedEvent(changes);
+    }
+
+    @Override public void abort() {
+        if (endTime >= 0) {
+            return;
+        }
+        statements = new ArrayList<>();
+        endTime = System.nanoTime();
+        model.batchFinished(false);
+        if (!model.isBatchAtomic()) {
+            model.fireModelChangedEvent(changes);
+        }
+    }
+
+    /**
+     * Add a statement to the current chunk and commit the chunk, if it is full
+     * @param statement the statement to add
+     */
+    private void add(Statement statement) {
+        statements.add(statement);
+        statementCount++;
+        changes.add(statement.getSubject(), statement.getPredicate());
+        if (statements.size() >= CHUNK_SIZE) {
+            commit();
+        }
+    }
+}
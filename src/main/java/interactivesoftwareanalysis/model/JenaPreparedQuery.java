@@ -0,0 +1,73 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QuerySolutionMap;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResourceFactory;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A prepared query implementation for the {@link JenaRDFModel}.
+ * Bindings are passed to the query execution as initial bindings, so the query is not parsed again.
+ */
+public class JenaPreparedQuery implements PreparedQuery {
+
+    private final JenaRDFModel model;
+    private final Query query;
+    private final QuerySolutionMap bindings;
+
+    /**
+     * Create a new prepared query without bindings
+     * @param model the model to execute the query on
+     * @param query the parsed query
+     */
+    JenaPreparedQuery(JenaRDFModel model, Query query) {
+        this(model, query, new QuerySolutionMap());
+    }
+
+    private JenaPreparedQuery(JenaRDFModel model, Query query, QuerySolutionMap bindings) {
+        this.model = model;
+        this.query = query;
+        this.bindings = bindings;
+    }
+
+    @Override public PreparedQuery bind(String variable, String resourceUri) {
+        return withBinding(variable, ResourceFactory.createResource(resourceUri));
+    }
+
+    @Override public PreparedQuery bindLiteral(String variable, String value) {
+        return withBinding(variable, ResourceFactory.createPlainLiteral(value));
+    }
+
+    @Override public boolean executeAsk() {
+        return model.executeAskQuery(query, bindings);
+    }
+
+    @Override public Set<String> executeAsk(String variable, Collection<String> resourceUris) {
+        return model.executeAskQuery(query, bindings, variable, resourceUris);
+    }
+
+    @Override public void executeSelect(Consumer<QueryRow> rowConsumer) {
+        model.executeSelectQuery(query, bindings, rowConsumer);
+    }
+
+    @Override public String toString() {
+        return query.toString() + bindings.toString();
+    }
+
+    /**
+     * Copy this prepared query and add a binding to the copy
+     * @param variable the variable to bind
+     * @param node the value to bind the variable to
+     * @return a new prepared query with the existing bindings and the new one
+     */
+    private PreparedQuery withBinding(String variable, RDFNode node) {
+        QuerySolutionMap newBindings = new QuerySolutionMap();
+        newBindings.addAll(bindings);
+        newBindings.add(variable, node);
+        return new JenaPreparedQuery(model, query, newBindings);
+    }
+}
@@ -0,0 +1,58 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A reusable query row implementation for the {@link JenaRDFModel}.
+ * It wraps the current binding of a result set and converts nodes to strings only when they are requested.
+ */
+public class JenaQueryRow implements QueryRow {
+
+    private final List<String> variables;
+    private final Var[] vars;
+    private Binding binding;
+
+    /**
+     * Create a new row for the given result variables
+     * @param variables the result variables of the query
+     */
+    JenaQueryRow(List<String> variables) {
+        this.variables = Collections.unmodifiableList(variables);
+        this.vars = variables.stream().map(Var::alloc).toArray(Var[]::new);
+    }
+
+    /**
+     * Set the binding this row currently represents
+     * @param binding the current binding of the result set
+     */
+    void setBinding(Binding binding) {
+        this.binding = binding;
+    }
+
+    @Override public List<String> getVariables() {
+        return variables;
+    }
+
+    @Override public int size() {
+        return vars.length;
+    }
+
+    @Override public String get(int index) {
+        Node node = binding.get(vars[index]);
+        return node != null ? JenaRDFModel.toValue(node) : null;
+    }
+
+    @Override public String get(String variable) {
+        int index = variables.indexOf(variable);
+        return index >= 0 ? get(index) : null;
+    }
+
+    @Override public String toString() {
+        return binding != null ? binding.toString() : "";
+    }
+}
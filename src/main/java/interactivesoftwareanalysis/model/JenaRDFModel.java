@@ -1,34 +1,99 @@
 package interactivesoftwareanalysis.model;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.eventbus.EventBus;
-import interactivesoftwareanalysis.model.events.ModelChangedEvent;
 import lombok.Getter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.query.*;
 import org.apache.jena.rdf.model.*;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
 import org.apache.jena.shared.Lock;
+import org.apache.jena.shared.LockMRSW;
+import org.apache.jena.sparql.ARQException;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.OpVars;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.syntax.ElementData;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.syntaxtransform.QueryTransformOps;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.vocabulary.RDF;
 
 import javax.inject.Inject;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * <p>A model implementation that uses a Jena model as an internal representation.</p>
  *
- * <p>ModelChangedEvents are posted on the event bus, when the model changes.</p>
+ * <p>ModelChangedEvents are posted on the event bus, when the model changes.
+ * They carry the changed subjects and predicates, changes in batch mode and in batches are coalesced.</p>
  *
  * <p>Some prefixes are automatically added to queries: isa and rdf</p>
  */
 public class JenaRDFModel implements Model {
 
     private static final String knownPrefixes = "PREFIX isa: <http://interactivesoftwareanalysis/> PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>";
-    @Getter private org.apache.jena.rdf.model.Model internalModel;
+
+    /** The maximum number of parsed queries that are kept in the query cache */
+    private static final int QUERY_CACHE_SIZE = 256;
+
+    /** Up to this number of resources, an ask query for many resources binds them in a VALUES block instead of selecting all matches */
+    private static final int VALUES_BLOCK_SIZE = 10000;
+
+    /** The number of statements between two progress updates while saving */
+    private static final int PROGRESS_INTERVAL = 10000;
+
+    private static final Node TAG = NodeFactory.createURI(Tag.TAG_PROPERTY);
+    private static final Node TAG_NAME = NodeFactory.createURI(Tag.TAG_NAME_PROPERTY);
+    private static final Node TAG_DETAIL = NodeFactory.createURI(Tag.TAG_DETAIL_PROPERTY);
+
+    @Getter private volatile org.apache.jena.rdf.model.Model internalModel;
+
+    /** All uri subjects of the internal model, so the resources can be listed without scanning every statement */
+    private volatile SubjectIndex subjectIndex = new SubjectIndex();
+
+    /** The tags of all resources, so they don't have to be read from the graph for every resource */
+    private volatile TagIndex tagIndex = new TagIndex();
+
+    /** The trigrams of all literal values, so names and paths can be searched without comparing every value */
+    private volatile TrigramIndex trigramIndex = new TrigramIndex();
+
+    /** Guards the internal model. It belongs to this model and not to the internal model, which is replaced on load. */
+    private final Lock lock = new LockMRSW();
+
+    /** Parsed queries by query string, so repeatedly executed queries are only parsed once */
+    private final Cache<String, Query> queryCache = CacheBuilder.newBuilder()
+            .maximumSize(QUERY_CACHE_SIZE)
+            .recordStats()
+            .build();
 
     private boolean batchMode = false;
+    /** Changes made while batch mode is active, they are fired as one event when batch mode is deactivated */
+    private ChangeSet pendingChanges = new ChangeSet();
     private EventBus eventBus;
 
     /**
@@ -36,60 +101,338 @@ public class JenaRDFModel implements Model {
      * @param eventBus the event bus to post change event on
      */
     @Inject public JenaRDFModel(EventBus eventBus) {
-        this.eventBus = eventBus;
-        internalModel = ModelFactory.createDefaultModel();
+        this(eventBus, ModelFactory.createDefaultModel());
         internalModel.setNsPrefix("isa", "http://interactivesoftwareanalysis/");
     }
 
+    /**
+     * Create a model that uses the given Jena model as internal representation.
+     * Subclasses can use this for different storage implementations.
+     * @param eventBus the event bus to post change event on
+     * @param internalModel the empty Jena model to store the data in
+     */
+    protected JenaRDFModel(EventBus eventBus, org.apache.jena.rdf.model.Model internalModel) {
+        this.eventBus = eventBus;
+        this.internalModel = internalModel;
+        subjectIndex.attach(internalModel.getGraph(), false);
+        tagIndex.attach(internalModel.getGraph(), false);
+        trigramIndex.attach(internalModel.getGraph(), false);
+    }
+
     @Override public List<Map<String, String>> executeSelectQuery(String query) {
-        internalModel.enterCriticalSection(Lock.READ);
-        ResultSet resultSet = executeSelectQuery(QueryFactory.create(knownPrefixes + " " + query.trim()));
         List<Map<String, String>> results = new ArrayList<>();
-        for (QuerySolution solution : (Iterable<QuerySolution>) () -> resultSet){
+        executeSelectQuery(query, row -> {
             Map<String, String> result = new HashMap<>();
-            for (String variable : resultSet.getResultVars()) {
-                result.put(variable, solution.get(variable).toString());
+            for (int i = 0; i < row.size(); i++) {
+                result.put(row.getVariables().get(i), row.get(i));
             }
             results.add(result);
-        }
-        internalModel.leaveCriticalSection();
+        });
         return results;
     }
 
+    @Override public void executeSelectQuery(String query, Consumer<QueryRow> rowConsumer) {
+        executeSelectQuery(parseQuery(query), null, rowConsumer);
+    }
+
     @Override public boolean executeAskQuery(String query) {
-        internalModel.enterCriticalSection(Lock.READ);
-        boolean result = executeAskQuery(QueryFactory.create(knownPrefixes + " " + query.trim()));
-        internalModel.leaveCriticalSection();
-        return result;
+        return executeAskQuery(parseQuery(query), null);
+    }
+
+    @Override public PreparedQuery prepareQuery(String query) {
+        return new JenaPreparedQuery(this, parseQuery(query));
+    }
+
+    @Override public String getQueryPattern(String query, Function<String, String> renameVariable) {
+        try {
+            Query parsedQuery = parseQuery(query);
+            if (!parsedQuery.isAskType()) {
+                return null;
+            }
+            return QueryTransformOps.transform(parsedQuery, new RenamedVariables(renameVariable)).getQueryPattern().toString();
+        } catch (ARQException e) {
+            // e.g. a syntax error or a renamed variable, that is assigned with AS
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve statistics about the query cache, e.g. the number of cache hits and misses
+     * @return the current query cache statistics
+     */
+    public CacheStats getQueryCacheStats() {
+        return queryCache.stats();
     }
 
     @Override public void load(InputStream stream) {
-        internalModel.enterCriticalSection(Lock.WRITE);
-        internalModel.removeAll();
-        internalModel.read(stream, "");
-        internalModel.leaveCriticalSection();
-        fireModelChangedEvent();
+        try {
+            load(stream, ModelFormat.RDF_XML);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     @Override public void save(OutputStream stream) {
-        internalModel.enterCriticalSection(Lock.READ);
-        internalModel.write(stream);
-        internalModel.leaveCriticalSection();
+        enterRead();
+        try {
+            internalModel.write(stream);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override public void load(InputStream stream, ModelFormat format) throws IOException {
+        // parse the file without holding a lock, only replacing the content blocks the model
+        org.apache.jena.rdf.model.Model newContent = createInternalModel();
+        RDFDataMgr.read(newContent, format.wrap(stream), format.getLang());
+        replaceContent(newContent);
+        ChangeSet changes = new ChangeSet();
+        changes.markComplete();
+        fireModelChangedEvent(changes);
+    }
+
+    @Override public void save(OutputStream stream, ModelFormat format, Consumer<Double> onProgress) throws IOException {
+        OutputStream out = format.wrap(stream);
+        enterRead();
+        try {
+            if (StreamRDFWriter.registered(format.getLang())) {
+                Graph graph = internalModel.getGraph();
+                double total = graph.size();
+                long written = 0;
+                StreamRDF writer = StreamRDFWriter.getWriterStream(out, format.getLang());
+                writer.start();
+                internalModel.getNsPrefixMap().forEach(writer::prefix);
+                ExtendedIterator<Triple> iterator = graph.find(Node.ANY, Node.ANY, Node.ANY);
+                try {
+                    while (iterator.hasNext()) {
+                        writer.triple(iterator.next());
+                        if (++written % PROGRESS_INTERVAL == 0) {
+                            onProgress.accept(written / total);
+                        }
+                    }
+                } finally {
+                    iterator.close();
+                }
+                writer.finish();
+            } else {
+                RDFDataMgr.write(out, internalModel, format.getLang());
+            }
+        } finally {
+            leave();
+        }
+        format.finish(out);
+        onProgress.accept(1.0);
     }
 
     @Override public List<Resource> getResources() {
+        return getResources(subjectIndex.getSubjects(), Integer.MAX_VALUE);
+    }
+
+    @Override public List<Resource> getResources(String typeUri) {
         List<Resource> resourceList = new ArrayList<>();
-        List<Map<String, String>> results = executeSelectQuery("SELECT DISTINCT ?s WHERE {?s ?p ?o.}");
-        results.forEach(querySolution -> {
-            String uri = querySolution.get("?s");
-            resourceList.add(new JenaResource(uri, this, internalModel.createResource(uri)));
-        });
+        enterRead();
+        try {
+            // the graphs index the statements by object, so this only visits the statements of this type
+            ExtendedIterator<Triple> iterator = internalModel.getGraph().find(Node.ANY, RDF.type.asNode(), NodeFactory.createURI(typeUri));
+            try {
+                while (iterator.hasNext()) {
+                    Node subject = iterator.next().getSubject();
+                    if (subject.isURI()) {
+                        resourceList.add(new JenaResource(subject.getURI(), this, internalModel.createResource(subject.getURI())));
+                    }
+                }
+            } finally {
+                iterator.close();
+            }
+        } finally {
+            leave();
+        }
         return resourceList;
     }
 
+    @Override public List<Resource> getResources(String afterUri, int limit) {
+        return getResources(subjectIndex.getSubjects(afterUri, limit), limit);
+    }
+
+    @Override public Map<String, List<String>> getAttributeValues(Collection<String> resourceUris, String attributeTypeUri) {
+        Node property = NodeFactory.createURI(attributeTypeUri);
+        Map<String, List<String>> values = new HashMap<>();
+        enterRead();
+        try {
+            for (String uri : resourceUris) {
+                List<String> resourceValues = readValues(NodeFactory.createURI(uri), property);
+                if (!resourceValues.isEmpty()) {
+                    values.put(uri, resourceValues);
+                }
+            }
+        } finally {
+            leave();
+        }
+        return values;
+    }
+
+    /**
+     * Retrieve the attribute values of a single resource
+     * @param uri the uri of the resource
+     * @param attributeTypeUri the attribute types uri or null for the attributes of all types
+     * @return a list of the literals or uris
+     */
+    List<String> getAttributeValues(String uri, String attributeTypeUri) {
+        Node property = attributeTypeUri != null ? NodeFactory.createURI(attributeTypeUri) : Node.ANY;
+        enterRead();
+        try {
+            return readValues(NodeFactory.createURI(uri), property);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override public Map<String, List<Tag>> getTags(Collection<String> resourceUris) {
+        return tagIndex.getTags(resourceUris);
+    }
+
+    @Override public TaggedResources getTaggedResources(String tagName) {
+        return tagIndex.getTaggedResources(tagName);
+    }
+
+    @Override public TextMatches findValuesContaining(String text, int maxMatches) {
+        // the index is built in a read section on first use
+        enterRead();
+        try {
+            return trigramIndex.findContaining(text, maxMatches);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override public TextMatches findSimilarValues(String text, double minScore) {
+        enterRead();
+        try {
+            return trigramIndex.findSimilar(text, minScore);
+        } finally {
+            leave();
+        }
+    }
+
+    @Override public int addTags(Collection<String> resourceUris, String tagName, String tagDetail) {
+        Node name = NodeFactory.createLiteral(tagName);
+        Node detail = NodeFactory.createLiteral(tagDetail != null ? tagDetail : "");
+        List<Triple> triples = new ArrayList<>();
+        ChangeSet changes = new ChangeSet();
+        enterWrite();
+        boolean successful = false;
+        try {
+            Set<String> subjects = subjectIndex.getSubjects();
+            for (String uri : resourceUris) {
+                if (subjects.contains(uri)) {
+                    Node tag = NodeFactory.createBlankNode();
+                    triples.add(Triple.create(NodeFactory.createURI(uri), TAG, tag));
+                    triples.add(Triple.create(tag, TAG_NAME, name));
+                    triples.add(Triple.create(tag, TAG_DETAIL, detail));
+                    changes.add(uri, Tag.TAG_PROPERTY);
+                }
+            }
+            // one list keeps the indexes from reading the tags of a resource again for every statement
+            GraphUtil.add(internalModel.getGraph(), triples);
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        fireModelChangedEvent(changes);
+        return triples.size() / 3;
+    }
+
+    @Override public int removeTags(Collection<String> resourceUris, String tagName) {
+        Node name = tagName != null ? NodeFactory.createLiteral(tagName) : null;
+        Set<Triple> links = new HashSet<>();
+        List<Triple> triples = new ArrayList<>();
+        ChangeSet changes = new ChangeSet();
+        enterWrite();
+        boolean successful = false;
+        try {
+            Graph graph = internalModel.getGraph();
+            for (String uri : resourceUris) {
+                ExtendedIterator<Triple> iterator = graph.find(NodeFactory.createURI(uri), TAG, Node.ANY);
+                try {
+                    while (iterator.hasNext()) {
+                        Triple link = iterator.next();
+                        if (name == null || graph.contains(link.getObject(), TAG_NAME, name)) {
+                            links.add(link);
+                            changes.add(uri, Tag.TAG_PROPERTY);
+                        }
+                    }
+                } finally {
+                    iterator.close();
+                }
+            }
+            triples.addAll(links);
+            for (Triple link : links) {
+                Node tag = link.getObject();
+                if (tag.isBlank() && isOnlyLink(graph, link, links)) {
+                    triples.addAll(graph.find(tag, Node.ANY, Node.ANY).toList());
+                }
+            }
+            GraphUtil.delete(graph, triples);
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        fireModelChangedEvent(changes);
+        return links.size();
+    }
+
+    @Override public int removeTag(String tagName) {
+        return removeTags(tagIndex.getResources(tagName), tagName);
+    }
+
+    @Override public int removeOrphanedTags() {
+        List<Triple> triples = new ArrayList<>();
+        ChangeSet changes = new ChangeSet();
+        enterWrite();
+        boolean successful = false;
+        try {
+            Graph graph = internalModel.getGraph();
+            Set<Node> tags = new HashSet<>();
+            for (Node property : Arrays.asList(TAG_NAME, TAG_DETAIL)) {
+                ExtendedIterator<Triple> iterator = graph.find(Node.ANY, property, Node.ANY);
+                try {
+                    iterator.forEachRemaining(triple -> tags.add(triple.getSubject()));
+                } finally {
+                    iterator.close();
+                }
+            }
+            for (Node tag : tags) {
+                if (tag.isBlank() && !graph.contains(Node.ANY, Node.ANY, tag)) {
+                    ExtendedIterator<Triple> iterator = graph.find(tag, Node.ANY, Node.ANY);
+                    try {
+                        iterator.forEachRemaining(triple -> {
+                            triples.add(triple);
+                            changes.add(null, triple.getPredicate().getURI());
+                        });
+                    } finally {
+                        iterator.close();
+                    }
+                }
+            }
+            GraphUtil.delete(graph, triples);
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        fireModelChangedEvent(changes);
+        return triples.size();
+    }
+
     @Override public Resource getResource(String uri) throws ResourceNotFoundException {
         org.apache.jena.rdf.model.Resource resource = internalModel.createResource(uri);
-        if (internalModel.contains(resource, null)) {
+        boolean contained;
+        enterRead();
+        try {
+            contained = internalModel.contains(resource, null);
+        } finally {
+            leave();
+        }
+        if (contained) {
             return new JenaResource(uri, this, resource);
         } else {
             throw new ResourceNotFoundException("Resource " + uri + " was not in the model");
@@ -97,48 +440,92 @@ public class JenaRDFModel implements Model {
     }
 
     @Override public Resource createResource(String resourceURI, String typeURI, String humanReadableName) {
-        internalModel.enterCriticalSection(Lock.WRITE);
-        org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceURI, internalModel.createResource(typeURI));
-        Property property = internalModel.createProperty("http://interactivesoftwareanalysis/humanReadableName");
-        if (humanReadableName == null || humanReadableName.isEmpty()) {
-            humanReadableName = resourceURI;
-        }
-        resource.addProperty(property, humanReadableName);
-        internalModel.leaveCriticalSection();
-        fireModelChangedEvent();
+        org.apache.jena.rdf.model.Resource resource;
+        enterWrite();
+        boolean successful = false;
+        try {
+            resource = internalModel.createResource(resourceURI, internalModel.createResource(typeURI));
+            Property property = internalModel.createProperty("http://interactivesoftwareanalysis/humanReadableName");
+            if (humanReadableName == null || humanReadableName.isEmpty()) {
+                humanReadableName = resourceURI;
+            }
+            resource.addProperty(property, humanReadableName);
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        ChangeSet changes = new ChangeSet();
+        changes.add(resourceURI, RDF.type.getURI());
+        changes.add(resourceURI, "http://interactivesoftwareanalysis/humanReadableName");
+        fireModelChangedEvent(changes);
         return new JenaResource(resourceURI, this, resource);
     }
 
     @Override
     public Attribute addAttribute(String resourceUri, String attributeTypeUri, String value) throws ResourceNotFoundException {
-        internalModel.enterCriticalSection(Lock.WRITE);
-        Attribute attribute = new JenaAttribute(this, value, getResource(resourceUri));
-        org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceUri);
-        Property property = internalModel.createProperty(attributeTypeUri);
-        RDFNode literal = value != null ? internalModel.createLiteral(value) : internalModel.createResource();
-        internalModel.add(internalModel.createStatement(resource, property, literal));
-        internalModel.leaveCriticalSection();
-        fireModelChangedEvent();
+        Attribute attribute;
+        enterWrite();
+        boolean successful = false;
+        try {
+            Resource modelResource;
+            try {
+                modelResource = getResource(resourceUri);
+            } catch (ResourceNotFoundException e) {
+                // nothing was changed, so a transaction, that this write is part of, does not fail
+                successful = true;
+                throw e;
+            }
+            attribute = new JenaAttribute(this, value, modelResource);
+            org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceUri);
+            Property property = internalModel.createProperty(attributeTypeUri);
+            RDFNode literal = value != null ? internalModel.createLiteral(value) : internalModel.createResource();
+            internalModel.add(internalModel.createStatement(resource, property, literal));
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        fireModelChangedEvent(resourceUri, attributeTypeUri);
         return attribute;
     }
 
     @Override public Attribute addResourceAttribute(String resourceUri, String attributeTypeUri, String valueUri) throws ResourceNotFoundException {
-        internalModel.enterCriticalSection(Lock.WRITE);
-        Attribute attribute = new JenaAttribute(this, valueUri, getResource(resourceUri));
-        org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceUri);
-        Property property = internalModel.createProperty(attributeTypeUri);
-        org.apache.jena.rdf.model.Resource valueResource = internalModel.createResource(valueUri);
-        internalModel.add(internalModel.createStatement(resource, property, valueResource));
-        internalModel.leaveCriticalSection();
-        fireModelChangedEvent();
+        Attribute attribute;
+        enterWrite();
+        boolean successful = false;
+        try {
+            Resource modelResource;
+            try {
+                modelResource = getResource(resourceUri);
+            } catch (ResourceNotFoundException e) {
+                // nothing was changed, so a transaction, that this write is part of, does not fail
+                successful = true;
+                throw e;
+            }
+            attribute = new JenaAttribute(this, valueUri, modelResource);
+            org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceUri);
+            Property property = internalModel.createProperty(attributeTypeUri);
+            org.apache.jena.rdf.model.Resource valueResource = internalModel.createResource(valueUri);
+            internalModel.add(internalModel.createStatement(resource, property, valueResource));
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        fireModelChangedEvent(resourceUri, attributeTypeUri);
         return attribute;
     }
 
     @Override public void setBatchMode(boolean batchMode) {
-        boolean oldBatchMode = this.batchMode;
-        this.batchMode = batchMode;
-        if (oldBatchMode && !batchMode) {
-            eventBus.post(new ModelChangedEvent());
+        ChangeSet changes = null;
+        synchronized (this) {
+            boolean oldBatchMode = this.batchMode;
+            this.batchMode = batchMode;
+            if (oldBatchMode && !batchMode) {
+                changes = pendingChanges;
+                pendingChanges = new ChangeSet();
+            }
+        }
+        if (changes != null && !changes.isEmpty()) {
+            eventBus.post(changes.toEvent());
         }
     }
 
@@ -146,55 +533,444 @@ public class JenaRDFModel implements Model {
         return batchMode;
     }
 
+    @Override public ModelBatch newBatch() {
+        return new JenaModelBatch(this);
+    }
+
     @Override public void insert(String data) {
         org.apache.jena.rdf.model.Model newModel = ModelFactory.createDefaultModel();
         InputStream inputStream = new ByteArrayInputStream((knownPrefixes + " " + data).getBytes());
         newModel.read(inputStream, "", "TTL");
-        internalModel.add(newModel);
-        fireModelChangedEvent();
+        enterWrite();
+        boolean successful = false;
+        try {
+            internalModel.add(newModel);
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+        ChangeSet changes = new ChangeSet();
+        newModel.listStatements().forEachRemaining(statement -> changes.add(statement.getSubject(), statement.getPredicate()));
+        fireModelChangedEvent(changes);
     }
 
     @Override public void removeStatements(String resourceURI, String propertyURI) {
-        internalModel.enterCriticalSection(Lock.WRITE);
-        org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceURI);
-        Property property = internalModel.createProperty(propertyURI);
-        StmtIterator statementIterator = internalModel.listStatements(resource, property, (RDFNode) null);
-        List<Statement> statements = new ArrayList<>();
-        while (statementIterator.hasNext()) {
-            statements.add(statementIterator.next());
+        enterWrite();
+        boolean successful = false;
+        try {
+            org.apache.jena.rdf.model.Resource resource = internalModel.createResource(resourceURI);
+            Property property = internalModel.createProperty(propertyURI);
+            internalModel.removeAll(resource, property, null);
+            successful = true;
+        } finally {
+            leave(successful);
         }
-        statements.forEach(Statement::remove);
-        internalModel.leaveCriticalSection();
-        fireModelChangedEvent();
+        fireModelChangedEvent(resourceURI, propertyURI);
     }
 
     /**
-     * Execute a select query from a query object and return the result
+     * Execute a select query from a query object and stream the result rows
      * @param query the query object containing the select query
-     * @return a result set with results from the query
+     * @param initialBinding variable bindings to execute the query with or null
+     * @param rowConsumer a consumer that is called once for every result row
      */
-    private ResultSet executeSelectQuery(Query query) {
-        QueryExecution queryExecution = QueryExecutionFactory.create(query, internalModel);
-        return queryExecution.execSelect();
+    void executeSelectQuery(Query query, QuerySolution initialBinding, Consumer<QueryRow> rowConsumer) {
+        enterRead();
+        try (QueryExecution queryExecution = QueryExecutionFactory.create(query, internalModel, initialBinding)) {
+            ResultSet resultSet = queryExecution.execSelect();
+            JenaQueryRow row = new JenaQueryRow(resultSet.getResultVars());
+            while (resultSet.hasNext()) {
+                row.setBinding(resultSet.nextBinding());
+                rowConsumer.accept(row);
+            }
+        } finally {
+            leave();
+        }
     }
 
     /**
      * Execute an ask query from a query object and return the result
      * @param query the query object containing the ask query
+     * @param initialBinding variable bindings to execute the query with or null
      * @return the query result
      */
-    private boolean executeAskQuery(Query query) {
-        QueryExecution queryExecution = QueryExecutionFactory.create(query, internalModel);
-        return queryExecution.execAsk();
+    boolean executeAskQuery(Query query, QuerySolution initialBinding) {
+        enterRead();
+        try (QueryExecution queryExecution = QueryExecutionFactory.create(query, internalModel, initialBinding)) {
+            return queryExecution.execAsk();
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * Execute an ask query for many resources at once and return the resources, for which it is true.
+     * If the query pattern binds the variable in every solution, binding it beforehand is the same as joining
+     * the solutions with the resources. Then the pattern is evaluated as one select query for all resources,
+     * or with the resources in VALUES blocks, if there are only a few of them.
+     * Otherwise, e.g. if the variable is only used in a filter or an optional pattern, the ask query is executed
+     * for every resource, but in one read section.
+     * @param query the query object containing the ask query
+     * @param initialBinding variable bindings to execute the query with or null
+     * @param variable the variable to bind the resources to
+     * @param resourceUris the uris of the resources
+     * @return the uris of the resources, for which the query is true
+     */
+    Set<String> executeAskQuery(Query query, QuerySolution initialBinding, String variable, Collection<String> resourceUris) {
+        Var var = Var.alloc(variable);
+        Set<String> matching = new HashSet<>();
+        if (!OpVars.fixedVars(Algebra.compile(query)).contains(var)) {
+            enterRead();
+            try {
+                for (String uri : resourceUris) {
+                    QuerySolutionMap binding = new QuerySolutionMap();
+                    if (initialBinding != null) {
+                        binding.addAll(initialBinding);
+                    }
+                    binding.add(variable, ResourceFactory.createResource(uri));
+                    if (executeAskQuery(query, binding)) {
+                        matching.add(uri);
+                    }
+                }
+            } finally {
+                leave();
+            }
+        } else if (resourceUris.size() > VALUES_BLOCK_SIZE) {
+            Set<String> candidates = resourceUris instanceof Set ? (Set<String>) resourceUris : new HashSet<>(resourceUris);
+            executeSelectQuery(toSelectQuery(query, var, null), initialBinding, row -> {
+                String uri = row.get(0);
+                if (candidates.contains(uri)) {
+                    matching.add(uri);
+                }
+            });
+        } else {
+            executeSelectQuery(toSelectQuery(query, var, resourceUris), initialBinding, row -> matching.add(row.get(0)));
+        }
+        return matching;
+    }
+
+    /**
+     * Turn the pattern of a query into a select query for the distinct values of a variable
+     * @param query the query whose pattern is used
+     * @param var the variable to select
+     * @param resourceUris the resources to bind the variable to in a VALUES block or null to leave it unbound
+     * @return a new select query
+     */
+    private static Query toSelectQuery(Query query, Var var, Collection<String> resourceUris) {
+        Query selectQuery = new Query();
+        selectQuery.setQuerySelectType();
+        selectQuery.setPrefixMapping(query.getPrefixMapping());
+        selectQuery.setDistinct(true);
+        selectQuery.addResultVar(var);
+        ElementGroup pattern = new ElementGroup();
+        if (resourceUris != null) {
+            ElementData values = new ElementData();
+            values.add(var);
+            resourceUris.forEach(uri -> values.add(BindingFactory.binding(var, NodeFactory.createURI(uri))));
+            pattern.addElement(values);
+        }
+        // the values are added to the same group, so filters in the group see them
+        if (query.getQueryPattern() instanceof ElementGroup) {
+            ((ElementGroup) query.getQueryPattern()).getElements().forEach(pattern::addElement);
+        } else {
+            pattern.addElement(query.getQueryPattern());
+        }
+        selectQuery.setQueryPattern(pattern);
+        return selectQuery;
+    }
+
+    /**
+     * Parse a query string with the known prefixes or retrieve the parsed query from the query cache
+     * @param query the query string without prefix declarations for the known prefixes
+     * @return the parsed query
+     */
+    private Query parseQuery(String query) {
+        String queryString = query.trim();
+        Query parsedQuery = queryCache.getIfPresent(queryString);
+        if (parsedQuery == null) {
+            parsedQuery = QueryFactory.create(knownPrefixes + " " + queryString);
+            // initialize the result variables now, so the cached query is not modified by concurrent executions
+            parsedQuery.setResultVars();
+            queryCache.put(queryString, parsedQuery);
+        }
+        return parsedQuery;
+    }
+
+    /**
+     * Create an empty Jena model of the kind this model stores its data in, e.g. to read a file into
+     * @return the new Jena model
+     */
+    protected org.apache.jena.rdf.model.Model createInternalModel() {
+        org.apache.jena.rdf.model.Model model = ModelFactory.createDefaultModel();
+        model.setNsPrefix("isa", "http://interactivesoftwareanalysis/");
+        return model;
+    }
+
+    /**
+     * Replace the content of the internal model with the content of another model.
+     * The new model is indexed first and then replaces the internal model, so readers are only blocked for the exchange.
+     * @param newContent the new content, that was already read completely into a model from {@link #createInternalModel()}.
+     *                   It becomes the internal model and must not be used otherwise anymore.
+     */
+    protected void replaceContent(org.apache.jena.rdf.model.Model newContent) {
+        SubjectIndex newSubjectIndex = new SubjectIndex();
+        TagIndex newTagIndex = new TagIndex();
+        TrigramIndex newTrigramIndex = new TrigramIndex();
+        newSubjectIndex.attach(newContent.getGraph(), true);
+        newTagIndex.attach(newContent.getGraph(), true);
+        newTrigramIndex.attach(newContent.getGraph(), true);
+        enterWrite();
+        try {
+            internalModel = newContent;
+            subjectIndex = newSubjectIndex;
+            tagIndex = newTagIndex;
+            trigramIndex = newTrigramIndex;
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * Decide, whether a tag is only linked to resources by links, that are removed
+     * @param graph the graph containing the tag
+     * @param link one link to the tag
+     * @param removedLinks all links, that are removed
+     * @return true, if the tag is not linked anymore after the links were removed
+     */
+    private boolean isOnlyLink(Graph graph, Triple link, Set<Triple> removedLinks) {
+        ExtendedIterator<Triple> iterator = graph.find(Node.ANY, Node.ANY, link.getObject());
+        try {
+            while (iterator.hasNext()) {
+                if (!removedLinks.contains(iterator.next())) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Read the values of a property directly from the graph, without a query.
+     * The values are converted to strings the same way query results are.
+     * Has to be called in a critical section.
+     * @param subject the subject node
+     * @param property the property node or Node.ANY
+     * @return a list of the values
+     */
+    private List<String> readValues(Node subject, Node property) {
+        List<String> values = new ArrayList<>();
+        ExtendedIterator<Triple> iterator = internalModel.getGraph().find(subject, property, Node.ANY);
+        try {
+            iterator.forEachRemaining(triple -> values.add(toValue(triple.getObject())));
+        } finally {
+            iterator.close();
+        }
+        return values;
+    }
+
+    /**
+     * Convert a node to the string, that is used as its value
+     * @param node the node
+     * @return the lexical form of a literal, e.g. 42 for a typed number, or the uri of a resource
+     */
+    static String toValue(Node node) {
+        return node.isLiteral() ? node.getLiteralLexicalForm() : node.toString(false);
+    }
+
+    /**
+     * Create resource objects for indexed subjects
+     * @param subjects the subject uris in the order they are returned
+     * @param limit the maximum number of resources to return
+     * @return a list of resources
+     */
+    private List<Resource> getResources(Collection<String> subjects, int limit) {
+        List<Resource> resourceList = new ArrayList<>();
+        enterRead();
+        try {
+            for (String uri : subjects) {
+                if (resourceList.size() >= limit) {
+                    break;
+                }
+                resourceList.add(new JenaResource(uri, this, internalModel.createResource(uri)));
+            }
+        } finally {
+            leave();
+        }
+        return resourceList;
+    }
+
+    /**
+     * Replace the internal model, e.g. when subclasses switch to a different storage.
+     * No thread may access the old internal model anymore, when this is called.
+     * The new model is indexed in a read section, so it has to be accessible for the current thread.
+     * @param internalModel the new Jena model to store the data in
+     */
+    protected void setInternalModel(org.apache.jena.rdf.model.Model internalModel) {
+        this.internalModel = internalModel;
+        enterRead();
+        try {
+            subjectIndex.attach(internalModel.getGraph(), true);
+            tagIndex.attach(internalModel.getGraph(), true);
+            trigramIndex.attach(internalModel.getGraph(), true);
+        } finally {
+            leave();
+        }
+    }
+
+    /**
+     * Let the indexes defer the following changes of the current thread until they are applied or discarded.
+     * Models with transactions call this, when a write transaction begins.
+     */
+    protected void deferIndexChanges() {
+        subjectIndex.deferChanges();
+        tagIndex.deferChanges();
+        trigramIndex.deferChanges();
+    }
+
+    /**
+     * Apply the deferred changes to the indexes, after the transaction was committed.
+     * The committed graph has to be readable for the current thread.
+     */
+    protected void applyIndexChanges() {
+        subjectIndex.applyDeferredChanges();
+        tagIndex.applyDeferredChanges();
+        trigramIndex.applyDeferredChanges();
+    }
+
+    /**
+     * Discard the deferred changes of the indexes, after the transaction was aborted
+     */
+    protected void discardIndexChanges() {
+        subjectIndex.discardDeferredChanges();
+        tagIndex.discardDeferredChanges();
+        trigramIndex.discardDeferredChanges();
+    }
+
+    /**
+     * Enter a critical section for reading from the internal model.
+     * Every call has to be followed by a call to {@link #leave()}, ideally in a finally block.
+     */
+    protected void enterRead() {
+        lock.enterCriticalSection(Lock.READ);
+    }
+
+    /**
+     * Enter a critical section for writing to the internal model.
+     * Every call has to be followed by a call to {@link #leave()}, ideally in a finally block.
+     */
+    protected void enterWrite() {
+        lock.enterCriticalSection(Lock.WRITE);
+    }
+
+    /**
+     * Leave the critical section entered last by this thread
+     */
+    protected void leave() {
+        leave(true);
+    }
+
+    /**
+     * Leave the critical section entered last by this thread.
+     * Models with transactions discard all changes of the outermost section, when any section of it failed.
+     * The locked model keeps the changes, that were made before the failure.
+     * @param successful false, if the section is left because of an error
+     */
+    protected void leave(boolean successful) {
+        lock.leaveCriticalSection();
+    }
+
+    /**
+     * Called when a batch for this model is created.
+     * Implementations can use this to span one critical section over the whole batch.
+     * By default, every chunk of the batch is committed in its own critical section.
+     */
+    protected void batchStarted() {
+    }
+
+    /**
+     * Called when a batch for this model is closed, after its last chunk has been committed, or when it is aborted
+     * @param successful false, if the batch was aborted or its last chunk could not be committed
+     */
+    protected void batchFinished(boolean successful) {
     }
 
     /**
-     * Post a model changed event on the event bus if batch mode is off
+     * Decide, whether an aborted batch leaves no statements in the model
+     * @return true, if the batch runs in one transaction, false, if its committed chunks stay in the model
      */
-    private void fireModelChangedEvent() {
-        if (!isBatchMode()) {
-            eventBus.post(new ModelChangedEvent());
+    protected boolean isBatchAtomic() {
+        return false;
+    }
+
+    /**
+     * Add statements to the internal model under one write lock.
+     * No model changed event is fired.
+     * @param statements the statements to add
+     */
+    void addStatements(List<Statement> statements) {
+        enterWrite();
+        boolean successful = false;
+        try {
+            internalModel.add(statements);
+            successful = true;
+        } finally {
+            leave(successful);
         }
     }
 
+    /**
+     * Post a model changed event for a single changed subject and predicate
+     * @param subjectUri the uri of the changed subject
+     * @param predicateUri the uri of the changed predicate
+     */
+    private void fireModelChangedEvent(String subjectUri, String predicateUri) {
+        ChangeSet changes = new ChangeSet();
+        changes.add(subjectUri, predicateUri);
+        fireModelChangedEvent(changes);
+    }
+
+    /**
+     * Post a model changed event describing the given changes on the event bus if batch mode is off.
+     * Otherwise, the changes are kept until batch mode is deactivated.
+     * @param changes the changes to post an event for
+     */
+    void fireModelChangedEvent(ChangeSet changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (isBatchMode()) {
+                pendingChanges.addAll(changes);
+                return;
+            }
+        }
+        eventBus.post(changes.toEvent());
+    }
+
+    /**
+     * Maps every variable to a renamed variable. Jena substitutes variables with a map,
+     * but the variables of a query are only known while it is transformed, so the map is computed on lookup.
+     */
+    private static class RenamedVariables extends AbstractMap<Var, Node> {
+
+        private final Function<String, String> renameVariable;
+
+        RenamedVariables(Function<String, String> renameVariable) {
+            this.renameVariable = renameVariable;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return key instanceof Var;
+        }
+
+        @Override public Node get(Object key) {
+            return key instanceof Var ? Var.alloc(renameVariable.apply(((Var) key).getVarName())) : null;
+        }
+
+        @Override public Set<Entry<Var, Node>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
 }
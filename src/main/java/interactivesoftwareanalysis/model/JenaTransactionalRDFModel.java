@@ -0,0 +1,371 @@
+package interactivesoftwareanalysis.model;
+
+import com.google.common.eventbus.EventBus;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.tdb.TDBFactory;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>A model implementation that stores its data in a transactional Jena dataset instead of a locked Jena model.</p>
+ *
+ * <p>Every read runs in a read transaction on a snapshot of the model, so readers never wait for a writer
+ * and never see half finished changes. There is only one writer at a time. A {@link ModelBatch} runs in
+ * one write transaction, so an import becomes visible at once, when its batch is closed, and leaves nothing
+ * behind, when its batch is aborted. The indexes of the model are updated, after a write transaction was
+ * committed, so readers may not find the changes in the indexes for a moment after they were committed.</p>
+ *
+ * <p>Transactions are bound to the thread. Nested reads and writes of the same thread join the outermost
+ * transaction. A read transaction can not be upgraded to a write transaction. When a nested write fails,
+ * the whole transaction is aborted.</p>
+ *
+ * <p>Without an open project, the dataset is kept in memory. Opening a project switches to a TDB dataset in
+ * the project directory. TDB keeps the data in memory mapped files, so the model can be larger than the heap
+ * and is available immediately when the project is opened again. The dataset is not exchanged, while a write
+ * transaction is running, as readers would have to wait for the write until the exchange is done.</p>
+ */
+public class JenaTransactionalRDFModel extends JenaRDFModel implements ProjectModel {
+
+    /** The longest time, readers are blocked at once, while the dataset exchange waits for running reads, in ms */
+    private static final long EXCHANGE_LOCK_TIMEOUT = 10;
+
+    private volatile Dataset dataset;
+    private volatile Path projectDirectory = null;
+    private final ThreadLocal<TransactionState> transactionState = ThreadLocal.withInitial(TransactionState::new);
+
+    /** Transactions hold the read lock, exchanging the dataset needs the write lock */
+    private final ReadWriteLock datasetLock = new ReentrantReadWriteLock();
+
+    /** The number of write transactions, that are running or waiting to begin */
+    private final AtomicInteger writeTransactions = new AtomicInteger();
+
+    /**
+     * Create a new, empty model that is kept in memory.
+     * @param eventBus the event bus to post change event on
+     */
+    @Inject public JenaTransactionalRDFModel(EventBus eventBus) {
+        this(eventBus, DatasetFactory.createTxnMem());
+    }
+
+    /**
+     * Create a model that stores its data in the default graph of a transactional dataset.
+     * @param eventBus the event bus to post change event on
+     * @param dataset the dataset to store the data in. It has to support transactions.
+     */
+    protected JenaTransactionalRDFModel(EventBus eventBus, Dataset dataset) {
+        super(eventBus, defaultModel(dataset));
+        this.dataset = dataset;
+        initialize(dataset);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws ModelBusyException if a write transaction, e.g. an import, is running
+     */
+    @Override public void openProject(Path directory) throws ProjectException {
+        checkNotWriting();
+        Dataset projectDataset;
+        try {
+            Files.createDirectories(directory);
+            projectDataset = TDBFactory.createDataset(directory.toString());
+            initialize(projectDataset);
+        } catch (Exception e) {
+            throw new ProjectException("Could not open project " + directory, e);
+        }
+        exchangeDataset(projectDataset, directory);
+        fireCompleteChange();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws ModelBusyException if a write transaction, e.g. an import, is running
+     */
+    @Override public void closeProject() {
+        if (projectDirectory != null) {
+            exchangeDataset(DatasetFactory.createTxnMem(), null);
+            fireCompleteChange();
+        }
+    }
+
+    @Override public Path getProjectDirectory() {
+        return projectDirectory;
+    }
+
+    @Override protected void enterRead() {
+        enter(ReadWrite.READ);
+    }
+
+    @Override protected void enterWrite() {
+        enter(ReadWrite.WRITE);
+    }
+
+    @Override protected void leave(boolean successful) {
+        TransactionState state = transactionState.get();
+        if (state.depth == 0) {
+            throw new IllegalStateException("There is no transaction to leave");
+        }
+        state.depth--;
+        state.failed |= !successful;
+        if (state.depth == 0) {
+            boolean committed = false;
+            try {
+                if (state.mode == ReadWrite.WRITE) {
+                    if (state.failed) {
+                        state.dataset.abort();
+                    } else {
+                        state.dataset.commit();
+                        committed = true;
+                    }
+                }
+            } finally {
+                state.dataset.end();
+                try {
+                    if (state.mode == ReadWrite.WRITE) {
+                        finishIndexChanges(state.dataset, committed);
+                    }
+                } finally {
+                    if (state.mode == ReadWrite.WRITE) {
+                        writeTransactions.decrementAndGet();
+                    }
+                    state.mode = null;
+                    state.dataset = null;
+                    state.failed = false;
+                    datasetLock.readLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws ModelBusyException if no project is open and a write transaction, e.g. an import, is running
+     */
+    @Override public void load(InputStream stream, ModelFormat format) throws IOException {
+        if (projectDirectory != null) {
+            // the content of the project is replaced in one write transaction, readers see the old snapshot meanwhile
+            super.load(stream, format);
+            return;
+        }
+        // reading the file takes a while, so a running import is not waited for at the end
+        checkNotWriting();
+        // read directly into a new in memory dataset and swap it in, once it is complete
+        Dataset newDataset = DatasetFactory.createTxnMem();
+        initialize(newDataset);
+        newDataset.begin(ReadWrite.WRITE);
+        try {
+            RDFDataMgr.read(newDataset.getDefaultModel(), format.wrap(stream), format.getLang());
+            newDataset.commit();
+        } finally {
+            newDataset.end();
+        }
+        exchangeDataset(newDataset, null);
+        fireCompleteChange();
+    }
+
+    /**
+     * Replace the content of the dataset in one write transaction, readers see the old snapshot meanwhile.
+     * The dataset stays the same, so the content of an open project is replaced on disk.
+     * @param newContent the new content, that was already read completely
+     */
+    @Override protected void replaceContent(org.apache.jena.rdf.model.Model newContent) {
+        enterWrite();
+        boolean successful = false;
+        try {
+            getInternalModel().removeAll();
+            getInternalModel().add(newContent);
+            successful = true;
+        } finally {
+            leave(successful);
+        }
+    }
+
+    @Override protected void batchStarted() {
+        enterWrite();
+    }
+
+    @Override protected void batchFinished(boolean successful) {
+        leave(successful);
+    }
+
+    @Override protected boolean isBatchAtomic() {
+        return true;
+    }
+
+    /**
+     * Begin a transaction or join the transaction the current thread is already in
+     * @param mode the transaction mode
+     */
+    private void enter(ReadWrite mode) {
+        TransactionState state = transactionState.get();
+        if (state.depth == 0) {
+            if (mode == ReadWrite.WRITE) {
+                // counted before taking the lock, so an exchange of the dataset waiting for it gives up
+                writeTransactions.incrementAndGet();
+            }
+            datasetLock.readLock().lock();
+            try {
+                dataset.begin(mode);
+            } catch (RuntimeException e) {
+                datasetLock.readLock().unlock();
+                if (mode == ReadWrite.WRITE) {
+                    writeTransactions.decrementAndGet();
+                }
+                throw e;
+            }
+            state.mode = mode;
+            state.dataset = dataset;
+            if (mode == ReadWrite.WRITE) {
+                // readers must not find the uncommitted changes in the indexes
+                deferIndexChanges();
+            }
+        } else if (mode == ReadWrite.WRITE && state.mode == ReadWrite.READ) {
+            throw new IllegalStateException("A read transaction can not be upgraded to a write transaction");
+        }
+        state.depth++;
+    }
+
+    /**
+     * Apply the deferred index changes of a committed write transaction or discard them
+     * @param transactionDataset the dataset of the transaction, which has already ended
+     * @param committed true, if the transaction was committed, false, if it was aborted
+     */
+    private void finishIndexChanges(Dataset transactionDataset, boolean committed) {
+        if (!committed) {
+            discardIndexChanges();
+            return;
+        }
+        // the indexes check the committed graph, while they apply the changes
+        transactionDataset.begin(ReadWrite.READ);
+        try {
+            applyIndexChanges();
+        } finally {
+            transactionDataset.end();
+        }
+    }
+
+    /**
+     * Make sure, that no write transaction is running, before the dataset is exchanged
+     * @throws ModelBusyException if a write transaction is running
+     */
+    private void checkNotWriting() {
+        if (writeTransactions.get() > 0) {
+            throw new ModelBusyException("The dataset can not be exchanged while a write transaction is running");
+        }
+    }
+
+    /**
+     * Replace the dataset, after all running read transactions are finished, and release the old one.
+     * @param newDataset the new dataset
+     * @param newProjectDirectory the directory of the new dataset or null, if it is kept in memory
+     * @throws ModelBusyException if a write transaction is running. The new dataset is released then.
+     */
+    private void exchangeDataset(Dataset newDataset, Path newProjectDirectory) {
+        if (transactionState.get().depth > 0) {
+            throw new IllegalStateException("The dataset can not be exchanged inside of a transaction");
+        }
+        Dataset oldDataset;
+        boolean oldIsProject;
+        try {
+            lockExchange();
+        } catch (ModelBusyException e) {
+            release(newDataset, newProjectDirectory != null);
+            throw e;
+        }
+        try {
+            oldDataset = dataset;
+            oldIsProject = projectDirectory != null;
+            dataset = newDataset;
+            projectDirectory = newProjectDirectory;
+            setInternalModel(defaultModel(newDataset));
+        } finally {
+            datasetLock.writeLock().unlock();
+        }
+        release(oldDataset, oldIsProject);
+    }
+
+    /**
+     * Take the write lock of the dataset. Waiting for the write lock blocks new readers, so it is only waited for
+     * a short time at once and not at all, while a write transaction is running.
+     * @throws ModelBusyException if a write transaction is running
+     */
+    private void lockExchange() {
+        try {
+            checkNotWriting();
+            while (!datasetLock.writeLock().tryLock(EXCHANGE_LOCK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                checkNotWriting();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelBusyException("Interrupted while waiting to exchange the dataset", e);
+        }
+    }
+
+    /**
+     * Release a dataset, that is not used anymore
+     * @param dataset the dataset
+     * @param isProject true, if it is the TDB dataset of a project
+     */
+    private static void release(Dataset dataset, boolean isProject) {
+        if (isProject) {
+            TDBFactory.release(dataset);
+        } else {
+            dataset.close();
+        }
+    }
+
+    /**
+     * Fire a model changed event, that tells that the whole content of the model changed
+     */
+    private void fireCompleteChange() {
+        ChangeSet changes = new ChangeSet();
+        changes.markComplete();
+        fireModelChangedEvent(changes);
+    }
+
+    /**
+     * Create a model for the default graph of a dataset, that can be used across transactions.
+     * Every access is passed to the dataset, which resolves it in the transaction of the current thread.
+     * @param dataset the dataset
+     * @return a model of the datasets default graph
+     */
+    private static org.apache.jena.rdf.model.Model defaultModel(Dataset dataset) {
+        return ModelFactory.createModelForGraph(GraphView.createDefaultGraph(dataset.asDatasetGraph()));
+    }
+
+    /**
+     * Add the prefixes to a new dataset
+     * @param dataset the dataset to initialize
+     */
+    private static void initialize(Dataset dataset) {
+        dataset.begin(ReadWrite.WRITE);
+        try {
+            dataset.getDefaultModel().setNsPrefix("isa", "http://interactivesoftwareanalysis/");
+            dataset.commit();
+        } finally {
+            dataset.end();
+        }
+    }
+
+    /**
+     * The transaction nesting depth, mode, dataset and whether a nested write failed of one thread
+     */
+    private static class TransactionState {
+        private int depth = 0;
+        private ReadWrite mode = null;
+        private Dataset dataset = null;
+        private boolean failed = false;
+    }
+}
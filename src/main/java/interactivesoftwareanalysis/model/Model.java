@@ -1,9 +1,13 @@
 package interactivesoftwareanalysis.model;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * A model represents all data that is available for display, analysis or processing.
@@ -24,6 +28,16 @@ public interface Model {
      */
     List<Map<String, String>> executeSelectQuery(String query);
 
+    /**
+     * Execute a SPARQL select query and pass each result row to a consumer, without
+     * collecting the whole result in memory.
+     * The row object passed to the consumer is reused for every row, so it must not be stored.
+     * The consumer must not modify the model, as the model is locked for reading while the results are streamed.
+     * @param query the full SPARQL select query
+     * @param rowConsumer a consumer that is called once for every result row
+     */
+    void executeSelectQuery(String query, Consumer<QueryRow> rowConsumer);
+
     /**
      * Execute a SPARQL ask query and return the result
      * @param query the full SPARQL ask query
@@ -31,6 +45,14 @@ public interface Model {
      */
     boolean executeAskQuery(String query);
 
+    /**
+     * Parse a SPARQL query once, so it can be executed many times with different variable bindings.
+     * See {@link PreparedQuery} for further details.
+     * @param query the full SPARQL query
+     * @return a prepared query without variable bindings
+     */
+    PreparedQuery prepareQuery(String query);
+
     /**
      * Loads a model from a file (rdf/xml).
      * @param stream stream to load the model from
@@ -43,12 +65,143 @@ public interface Model {
      */
     void save(OutputStream stream);
 
+    /**
+     * Loads a model from a file in the given format, replacing the current content.
+     * The file is parsed into a separate model first, so the model is only blocked while the new content is swapped in.
+     * @param stream stream to load the model from. It is not closed.
+     * @param format the format of the file
+     * @throws IOException if the file could not be read
+     */
+    void load(InputStream stream, ModelFormat format) throws IOException;
+
+    /**
+     * Saves a model to a file in the given format.
+     * @param stream stream to save the model to. It is not closed.
+     * @param format the format of the file
+     * @param onProgress called with the progress between 0 and 1 while saving
+     * @throws IOException if the file could not be written
+     */
+    void save(OutputStream stream, ModelFormat format, Consumer<Double> onProgress) throws IOException;
+
     /**
      * Get all resources in this model.
+     * Blank nodes, like the nodes of tags, are not resources on their own and not included.
      * @return a list of resource objects this model contains
      */
     List<Resource> getResources();
 
+    /**
+     * Get all resources of a type, i.e. all resources with an rdf:type attribute with the given type uri.
+     * This only takes time proportional to the number of resources of this type.
+     * @param typeUri the full uri of the type, e.g. http://interactivesoftwareanalysis/file
+     * @return a list of resource objects with this type
+     */
+    List<Resource> getResources(String typeUri);
+
+    /**
+     * Get one page of all resources in this model, sorted by uri.
+     * To get the next page, pass the uri of the last resource of the previous page.
+     * The resources are sorted once, when the first page is requested after the model changed.
+     * @param afterUri only resources with an uri after this uri are returned. Null to start with the first resource.
+     * @param limit the maximum number of resources to return
+     * @return a list of at most limit resource objects
+     */
+    List<Resource> getResources(String afterUri, int limit);
+
+    /**
+     * Retrieve the values of an attribute type for many resources at once.
+     * This is much faster than calling {@link Resource#getAttributeValues(String)} for every resource.
+     * @param resourceUris the uris of the resources
+     * @param attributeTypeUri the attribute types uri to look for
+     * @return the literals or uris of the attributes by resource uri. Resources without such attributes are not contained.
+     */
+    Map<String, List<String>> getAttributeValues(Collection<String> resourceUris, String attributeTypeUri);
+
+    /**
+     * Retrieve the tags of many resources at once.
+     * This is much faster than calling {@link Resource#getTags()} for every resource.
+     * @param resourceUris the uris of the resources
+     * @return the tags of the resources by uri, sorted by name. Resources without tags are not contained.
+     */
+    Map<String, List<Tag>> getTags(Collection<String> resourceUris);
+
+    /**
+     * Retrieve a snapshot of all resources, that are tagged with a tag name.
+     * See {@link TaggedResources} for further details.
+     * @param tagName the exact tag name
+     * @return the tagged resources
+     */
+    TaggedResources getTaggedResources(String tagName);
+
+    /**
+     * Retrieve the graph pattern of an ask query, to embed it into another query, e.g. in a FILTER EXISTS clause.
+     * The variables of the query are renamed, so they don't clash with the variables of the other query.
+     * @param query the ask query, prefixes are added like for {@link #executeAskQuery(String)}
+     * @param renameVariable maps the name of every variable in the query to its new name
+     * @return the graph pattern in SPARQL syntax with full uris or null, if the query is no valid ask query
+     *         or its variables can't be renamed, e.g. because they are assigned in a subquery
+     */
+    String getQueryPattern(String query, Function<String, String> renameVariable);
+
+    /**
+     * Find the literal values in the model, like names, paths and attribute values, that contain a text, ignoring case.
+     * The values are looked up in a trigram index, that is built on first use.
+     * See {@link TextMatches} for further details.
+     * @param text the text to search for
+     * @param maxMatches the maximum number of matching values, that are worth looking up
+     * @return a snapshot of the matching values or null, if the text is too short or too common to use the index
+     *         or there are more matches. All values have to be searched directly in that case.
+     */
+    TextMatches findValuesContaining(String text, int maxMatches);
+
+    /**
+     * Find the literal values in the model, that are similar to a text, ignoring case.
+     * A value is similar, if it contains many of the trigrams of the text, so typos in the text are tolerated.
+     * The score of a value is the fraction of the distinct trigrams of the text, that it contains.
+     * @param text the text to search for
+     * @param minScore the minimum score of a match between 0 and 1
+     * @return a snapshot of the matching values with their scores or null, if the text is shorter than three chars
+     */
+    TextMatches findSimilarValues(String text, double minScore);
+
+    /**
+     * Tag many resources at once with the same tag.
+     * Every resource gets its own tag with the given name and detail. The statements are written
+     * in a single step and only one change event is fired, so this is much faster than calling
+     * {@link Resource#addTag(String, String)} for every resource.
+     * @param resourceUris the uris of the resources to tag. Uris of resources, that are not in the model, are skipped.
+     * @param tagName the tag name for the new tags
+     * @param tagDetail a description or reason for adding the tags
+     * @return the number of tagged resources
+     */
+    int addTags(Collection<String> resourceUris, String tagName, String tagDetail);
+
+    /**
+     * Remove tags from many resources at once.
+     * The tags are removed completely, including their names and details.
+     * The statements are removed in a single step and only one change event is fired.
+     * @param resourceUris the uris of the resources to untag
+     * @param tagName the name of the tags to remove or null to remove all tags of the resources
+     * @return the number of removed tags
+     */
+    int removeTags(Collection<String> resourceUris, String tagName);
+
+    /**
+     * Remove a tag from all resources, that are tagged with it.
+     * Only the tagged resources are visited, so this does not depend on the size of the model.
+     * @param tagName the exact name of the tag to remove
+     * @return the number of removed tags
+     */
+    int removeTag(String tagName);
+
+    /**
+     * Remove the names and details of tags, that no resource is tagged with anymore.
+     * Models created by older versions only removed the link between a resource and its tags
+     * and kept the rest of the tags in the model.
+     * @return the number of removed statements
+     */
+    int removeOrphanedTags();
+
     /**
      * Get a resource with a specific uri.
      * @param uri the uri of the resource, including namespace.
@@ -89,7 +242,8 @@ public interface Model {
     /**
      * Set the batch mode.
      * The batch mode disables model change events, that are otherwise fired after every model change.
-     * Deactivating the batch mode enables that again and immediately fires a change event.
+     * Deactivating the batch mode enables that again and immediately fires one change event
+     * that describes all changes made while the batch mode was active.
      * This should be activated before adding or modifying many resources and deactivated afterwards.
      * @param batchMode true to activate the batch mode, false to deactivate it.
      */
@@ -101,6 +255,14 @@ public interface Model {
      */
     boolean isBatchMode();
 
+    /**
+     * Create a new batch for adding a lot of resources and attributes at once.
+     * This is much faster than adding them one by one and only fires one model change event,
+     * when the batch is closed. See {@link ModelBatch} for further details.
+     * @return a new, empty batch that has to be closed after use
+     */
+    ModelBatch newBatch();
+
     /**
      * Insert resources and attributes into the model.
      * Resources and attributes are described using a Turtle string.
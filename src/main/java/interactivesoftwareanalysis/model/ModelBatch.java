@@ -0,0 +1,101 @@
+package interactivesoftwareanalysis.model;
+
+import java.time.Instant;
+
+/**
+ * <p>A batch collects resources and attributes and writes them into a {@link Model} in large chunks.
+ * This is meant for import submodules that add a lot of statements at once. Compared to
+ * {@link Model#createResource(String, String, String)} and {@link Resource#addAttribute(String, String)},
+ * a batch does not resolve resources or lock the model for every single statement.</p>
+ *
+ * <p>Statements are committed to the model whenever the chunk size is reached and when the batch is closed.
+ * Closing the batch fires a single model change event for all statements in the batch.
+ * A batch is meant to be used by one thread only.</p>
+ *
+ * <p>When an import fails, the batch should be aborted instead of closed, so the failed import is not committed.</p>
+ *
+ * <p>Example:
+ * <code>
+ *     try (ModelBatch batch = model.newBatch()) {
+ *         batch.addResource(uri, typeUri, name);
+ *         batch.addAttribute(uri, attributeTypeUri, value);
+ *     }
+ * </code></p>
+ */
+public interface ModelBatch extends AutoCloseable {
+
+    /**
+     * Add a resource to this batch.
+     * @param resourceURI the uri of the new resource
+     * @param typeURI the type uri of the resource
+     * @param humanReadableName a human readable name for displaying the resource.
+     *                          If it is null or empty, the resource uri is used instead.
+     */
+    void addResource(String resourceURI, String typeURI, String humanReadableName);
+
+    /**
+     * Add a literal attribute to this batch.
+     * The resource does not have to exist in the model, so it can be added in the same batch.
+     * @param resourceUri the resources uri
+     * @param attributeTypeUri the uri of the attribute type to add
+     * @param value the attribute value
+     */
+    void addAttribute(String resourceUri, String attributeTypeUri, String value);
+
+    /**
+     * Add a number attribute to this batch. It is stored as xsd:long literal, so queries can compare it numerically.
+     * @param resourceUri the resources uri
+     * @param attributeTypeUri the uri of the attribute type to add
+     * @param value the attribute value
+     */
+    void addAttribute(String resourceUri, String attributeTypeUri, long value);
+
+    /**
+     * Add a time attribute to this batch. It is stored as xsd:dateTime literal, so queries can compare it as time.
+     * @param resourceUri the resources uri
+     * @param attributeTypeUri the uri of the attribute type to add
+     * @param value the attribute value
+     */
+    void addAttribute(String resourceUri, String attributeTypeUri, Instant value);
+
+    /**
+     * Add a resource attribute to this batch.
+     * The resource does not have to exist in the model, so it can be added in the same batch.
+     * @param resourceUri the resources uri
+     * @param attributeTypeUri the uri of the attribute type to add
+     * @param valueUri the attribute value uri
+     */
+    void addResourceAttribute(String resourceUri, String attributeTypeUri, String valueUri);
+
+    /**
+     * Write all statements collected so far into the model.
+     * This does not fire a model change event. The event is fired, when the batch is closed.
+     */
+    void commit();
+
+    /**
+     * Retrieve the number of statements added to this batch so far.
+     * @return the number of added statements, committed or not
+     */
+    long getStatementCount();
+
+    /**
+     * Retrieve the throughput of this batch, measured from its creation until it was closed,
+     * or until now, if it is still open.
+     * @return the number of statements per second
+     */
+    double getStatementsPerSecond();
+
+    /**
+     * Commit the remaining statements and fire a model change event, if any statements were added.
+     */
+    @Override void close();
+
+    /**
+     * Discard the statements of this batch, e.g. because the import failed.
+     * Models, that run a batch in one transaction, discard all statements of the batch. Other models only
+     * discard the statements, that were not committed yet, and fire a model change event for the committed ones.
+     * Closing the batch afterwards does nothing.
+     */
+    void abort();
+}
@@ -0,0 +1,25 @@
+package interactivesoftwareanalysis.model;
+
+/**
+ * An exception that is thrown when the content of a model can not be exchanged, because a write,
+ * e.g. an import, is running
+ */
+public class ModelBusyException extends RuntimeException {
+
+    public ModelBusyException(String message) {
+        super(message);
+    }
+
+    public ModelBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ModelBusyException(Throwable cause) {
+        super(cause);
+    }
+
+    public ModelBusyException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+}
@@ -0,0 +1,99 @@
+package interactivesoftwareanalysis.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The file formats a {@link Model} can be saved in and loaded from.
+ */
+@RequiredArgsConstructor public enum ModelFormat {
+
+    /** A compact binary format (RDF Thrift), compressed with gzip. This is the default format. */
+    BINARY("rdft", RDFLanguages.THRIFT, true),
+
+    /** RDF/XML for exchanging models with other tools */
+    RDF_XML("xml", Lang.RDFXML, false);
+
+    /** The size of the buffer used for compressing and decompressing */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The file name extension of this format, without the dot */
+    @Getter private final String extension;
+    @Getter(AccessLevel.PACKAGE) private final Lang lang;
+    private final boolean compressed;
+
+    /**
+     * Determine the format of a file to load by its file name extension. Models saved before the binary format
+     * existed are RDF/XML with any file name.
+     * @param fileName the file name
+     * @return the format with a matching extension, or RDF/XML, if no format matches
+     */
+    public static ModelFormat fromFileName(String fileName) {
+        return fromFileName(fileName, RDF_XML);
+    }
+
+    /**
+     * Determine the format of a file by its file name extension
+     * @param fileName the file name
+     * @param defaultFormat the format to use, if no format matches
+     * @return the format with a matching extension, or the default format, if no format matches
+     */
+    public static ModelFormat fromFileName(String fileName, ModelFormat defaultFormat) {
+        for (ModelFormat format : values()) {
+            if (format.matches(fileName)) {
+                return format;
+            }
+        }
+        return defaultFormat;
+    }
+
+    /**
+     * Check, whether a file name has the extension of this format
+     * @param fileName the file name
+     * @return true, if the file name ends with the extension of this format
+     */
+    public boolean matches(String fileName) {
+        return fileName.toLowerCase().endsWith("." + extension);
+    }
+
+    /**
+     * Wrap a stream to read a file of this format from, e.g. to decompress it
+     * @param stream the stream of the file
+     * @return a stream to read the model from
+     * @throws IOException if the stream could not be wrapped
+     */
+    InputStream wrap(InputStream stream) throws IOException {
+        return compressed ? new GZIPInputStream(stream, BUFFER_SIZE) : stream;
+    }
+
+    /**
+     * Wrap a stream to write a file of this format to, e.g. to compress it
+     * @param stream the stream of the file
+     * @return a stream to write the model to. {@link #finish(OutputStream)} has to be called after writing.
+     * @throws IOException if the stream could not be wrapped
+     */
+    OutputStream wrap(OutputStream stream) throws IOException {
+        return compressed ? new GZIPOutputStream(stream, BUFFER_SIZE) : stream;
+    }
+
+    /**
+     * Write all remaining data of a wrapped stream without closing the underlying stream
+     * @param stream a stream returned by {@link #wrap(OutputStream)}
+     * @throws IOException if the data could not be written
+     */
+    void finish(OutputStream stream) throws IOException {
+        if (stream instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) stream).finish();
+        }
+        stream.flush();
+    }
+}
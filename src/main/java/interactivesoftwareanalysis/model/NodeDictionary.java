@@ -0,0 +1,178 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+
+import java.util.Arrays;
+
+/**
+ * <p>Assigns dense int ids to Jena nodes, starting at 0.
+ * Equal nodes get the same id, so every uri and literal is stored only once.
+ * The ids are looked up in an open addressing hash table of ints, so no boxed integers or map entries are needed.
+ * Nodes are never removed from the dictionary, until it is cleared.</p>
+ *
+ * <p>Uris and plain string literals, which make up almost all nodes in this application, are stored as their
+ * string only and turned into nodes again when they are retrieved. Other nodes are stored as they are.</p>
+ */
+class NodeDictionary {
+
+    private static final int NO_ID = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte URI = 0;
+    private static final byte STRING_LITERAL = 1;
+    private static final byte OTHER = 2;
+
+    /** The uri, the lexical form or the node itself, depending on the kind */
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] table = newTable(INITIAL_CAPACITY * 2);
+    private int size = 0;
+
+    /**
+     * Retrieve the id of a node
+     * @param node the node to look up
+     * @return the id of the node or -1, if the node is not in the dictionary
+     */
+    int getId(Node node) {
+        return table[findSlot(kind(node), value(node), table)];
+    }
+
+    /**
+     * Retrieve the id of a node and add the node, if it is not in the dictionary yet
+     * @param node the node to look up or add
+     * @return the id of the node
+     */
+    int getOrCreateId(Node node) {
+        byte kind = kind(node);
+        Object value = value(node);
+        int slot = findSlot(kind, value, table);
+        if (table[slot] != NO_ID) {
+            return table[slot];
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            kinds = Arrays.copyOf(kinds, kinds.length * 2);
+        }
+        int id = size++;
+        values[id] = value;
+        kinds[id] = kind;
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Retrieve the node with an id
+     * @param id the id of the node
+     * @return the node with this id
+     */
+    Node getNode(int id) {
+        switch (kinds[id]) {
+            case URI:
+                return NodeFactory.createURI((String) values[id]);
+            case STRING_LITERAL:
+                return NodeFactory.createLiteral((String) values[id]);
+            default:
+                return (Node) values[id];
+        }
+    }
+
+    /**
+     * Retrieve the number of nodes in this dictionary.
+     * All ids are smaller than this number.
+     * @return the number of nodes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Remove all nodes from the dictionary
+     */
+    void clear() {
+        values = new Object[INITIAL_CAPACITY];
+        kinds = new byte[INITIAL_CAPACITY];
+        table = newTable(INITIAL_CAPACITY * 2);
+        size = 0;
+    }
+
+    /**
+     * Find the slot in a table that contains the id of a node, or the empty slot where it would be inserted
+     * @param kind the kind of the node
+     * @param value the stored value of the node
+     * @param table the table to search in
+     * @return the index of the slot
+     */
+    private int findSlot(byte kind, Object value, int[] table) {
+        int mask = table.length - 1;
+        int slot = hash(kind, value) & mask;
+        while (table[slot] != NO_ID && (kinds[table[slot]] != kind || !values[table[slot]].equals(value))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Move all ids into a new table
+     * @param capacity the capacity of the new table, a power of two
+     */
+    private void rehash(int capacity) {
+        int[] newTable = newTable(capacity);
+        for (int id = 0; id < size; id++) {
+            newTable[findSlot(kinds[id], values[id], newTable)] = id;
+        }
+        table = newTable;
+    }
+
+    /**
+     * Decide, how a node is stored
+     * @param node the node
+     * @return the kind of the node
+     */
+    private static byte kind(Node node) {
+        if (node.isURI()) {
+            return URI;
+        } else if (node.isLiteral() && node.getLiteralLanguage().isEmpty() && XSDDatatype.XSDstring.equals(node.getLiteralDatatype())) {
+            return STRING_LITERAL;
+        } else {
+            return OTHER;
+        }
+    }
+
+    /**
+     * Retrieve the value that is stored for a node
+     * @param node the node
+     * @return the uri, the lexical form or the node itself
+     */
+    private static Object value(Node node) {
+        switch (kind(node)) {
+            case URI:
+                return node.getURI();
+            case STRING_LITERAL:
+                return node.getLiteralLexicalForm();
+            default:
+                return node;
+        }
+    }
+
+    /**
+     * Spread the hash code of a stored value, so the lower bits used as table index are well distributed
+     * @param kind the kind of the node
+     * @param value the stored value of the node
+     * @return the spread hash code
+     */
+    private static int hash(byte kind, Object value) {
+        int hash = (value.hashCode() * 31 + kind) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, NO_ID);
+        return table;
+    }
+}
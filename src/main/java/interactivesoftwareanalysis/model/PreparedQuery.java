@@ -0,0 +1,60 @@
+package interactivesoftwareanalysis.model;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * <p>A SPARQL query that has been parsed once and can be executed many times with different variable bindings.
+ * This is meant for queries that are executed for many resources, for example in filters.</p>
+ *
+ * <p>Prepared queries are immutable. Binding a variable returns a new prepared query, so one instance
+ * can be shared between threads.</p>
+ *
+ * <p>Example:
+ * <code>
+ *     PreparedQuery query = model.prepareQuery("ASK { ?uri isa:tag ?tag. }");
+ *     boolean tagged = query.bind("uri", resource.getUri()).executeAsk();
+ * </code></p>
+ */
+public interface PreparedQuery {
+
+    /**
+     * Bind a variable to a resource
+     * @param variable the variable name without the leading '?'
+     * @param resourceUri the full uri of the resource
+     * @return a new prepared query with the additional binding
+     */
+    PreparedQuery bind(String variable, String resourceUri);
+
+    /**
+     * Bind a variable to a literal
+     * @param variable the variable name without the leading '?'
+     * @param value the literal value
+     * @return a new prepared query with the additional binding
+     */
+    PreparedQuery bindLiteral(String variable, String value);
+
+    /**
+     * Execute this query as ask query with the current bindings
+     * @return true, iff the statements in the ask query are true.
+     */
+    boolean executeAsk();
+
+    /**
+     * Execute this query as ask query for many resources at once.
+     * The result is the same as binding the variable to every resource and executing the ask query,
+     * but the query is only executed once or a few times for all resources.
+     * @param variable the variable name without the leading '?'
+     * @param resourceUris the full uris of the resources to bind the variable to
+     * @return the uris of the resources, for which the ask query is true
+     */
+    Set<String> executeAsk(String variable, Collection<String> resourceUris);
+
+    /**
+     * Execute this query as select query with the current bindings and stream the result rows.
+     * See {@link Model#executeSelectQuery(String, Consumer)} for details about the streaming.
+     * @param rowConsumer a consumer that is called once for every result row
+     */
+    void executeSelect(Consumer<QueryRow> rowConsumer);
+}
@@ -0,0 +1,24 @@
+package interactivesoftwareanalysis.model;
+
+/**
+ * An exception that is thrown when a project of a {@link ProjectModel} could not be opened
+ */
+public class ProjectException extends Exception {
+
+    public ProjectException(String message) {
+        super(message);
+    }
+
+    public ProjectException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ProjectException(Throwable cause) {
+        super(cause);
+    }
+
+    public ProjectException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
+}
@@ -0,0 +1,36 @@
+package interactivesoftwareanalysis.model;
+
+import java.nio.file.Path;
+
+/**
+ * <p>A model that can keep its content in a project directory on disk instead of the heap.</p>
+ *
+ * <p>Without an open project, the model is kept in memory. When a project is opened, the model
+ * content is replaced by the content stored in the project directory and all further changes
+ * are written there. Reopening a project later restores the model without loading a model file.</p>
+ */
+public interface ProjectModel extends Model {
+
+    /**
+     * Open a project directory and use the model stored there.
+     * An empty or non existing directory creates a new project.
+     * A project that is already open is closed first.
+     * @param directory the project directory
+     * @throws ProjectException when the project could not be opened
+     * @throws ModelBusyException when the model is written, e.g. by an import, at the moment
+     */
+    void openProject(Path directory) throws ProjectException;
+
+    /**
+     * Close the open project and continue with a new, empty model in memory.
+     * Does nothing, if no project is open.
+     * @throws ModelBusyException when the model is written, e.g. by an import, at the moment
+     */
+    void closeProject();
+
+    /**
+     * Retrieve the directory of the open project
+     * @return the project directory or null, if no project is open
+     */
+    Path getProjectDirectory();
+}
@@ -0,0 +1,40 @@
+package interactivesoftwareanalysis.model;
+
+import java.util.List;
+
+/**
+ * <p>One row of a SPARQL select query result.</p>
+ *
+ * <p>Row objects are reused while streaming a result, so a row is only valid inside the
+ * callback it was passed to. Copy the values, if they are needed afterwards.</p>
+ *
+ * @see Model#executeSelectQuery(String, java.util.function.Consumer)
+ */
+public interface QueryRow {
+
+    /**
+     * Retrieve the result variables of the query in the order of the select clause
+     * @return a list of variable names without the leading '?'
+     */
+    List<String> getVariables();
+
+    /**
+     * Retrieve the number of columns in this row
+     * @return the number of result variables
+     */
+    int size();
+
+    /**
+     * Retrieve a value by its position in the select clause
+     * @param index the position of the variable, starting at 0
+     * @return the value as string or null, if the variable is not bound in this row
+     */
+    String get(int index);
+
+    /**
+     * Retrieve a value by its variable name
+     * @param variable the variable name without the leading '?'
+     * @return the value as string or null, if the variable is not bound in this row or does not exist
+     */
+    String get(String variable);
+}
@@ -21,6 +21,22 @@ public interface Resource {
      */
     List<Attribute> getAttributes(String attributeTypeUri);
 
+    /**
+     * Retrieve the value of a single valued attribute of this resource.
+     * If the resource has multiple attributes of the type, any of them is returned.
+     * @param attributeTypeUri the attribute types uri to look for
+     * @return the literal or uri of the attribute or null, if the resource does not have such an attribute
+     */
+    String getAttributeValue(String attributeTypeUri);
+
+    /**
+     * Retrieve the values of all attributes of this resource, that have the given attribute type.
+     * Unlike {@link #getAttributes(String)}, no attribute objects are created.
+     * @param attributeTypeUri the attribute types uri to look for
+     * @return a list of the literals or uris or an empty list, if no attributes match
+     */
+    List<String> getAttributeValues(String attributeTypeUri);
+
     /**
      * Add a literal attribute to this resource
      * @param attributeTypeUri the uri of the attribute type (or 'property name') to add
@@ -0,0 +1,131 @@
+package interactivesoftwareanalysis.model;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>An index of all uri subjects of a graph.</p>
+ *
+ * <p>The index listens to the changes of the graph, so it is always up to date, no matter
+ * how the graph is modified. Listing all subjects is proportional to the number of subjects
+ * instead of the number of triples. For listing them in pages, a sorted copy of the subjects
+ * is created on demand and kept until the subjects change, so imports don't pay for sorting.</p>
+ *
+ * <p>Blank node subjects, like the nodes of tags, are not indexed, as they are not resources on their own.
+ * The index can be read while the graph is modified.</p>
+ */
+class SubjectIndex extends GraphIndex {
+
+    private final Set<String> subjects = ConcurrentHashMap.newKeySet();
+
+    /** Counts the changes of the subjects, to know when the sorted copy is outdated */
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile SortedSubjects sortedSubjects = null;
+
+    /** Statements are mostly added subject by subject, so repeated subjects are skipped quickly */
+    private Node lastAddedSubject = null;
+
+    /**
+     * Retrieve the indexed subjects
+     * @return a live view of the subject uris in no particular order
+     */
+    Set<String> getSubjects() {
+        return Collections.unmodifiableSet(subjects);
+    }
+
+    /**
+     * Retrieve the indexed subjects, sorted by uri, that come after a given uri
+     * @param afterUri the uri to start after or null to start with the first subject
+     * @param limit the maximum number of subjects to return
+     * @return a list of at most limit subject uris
+     */
+    List<String> getSubjects(String afterUri, int limit) {
+        SortedSubjects current = sortedSubjects;
+        long modification = modifications.get();
+        if (current == null || current.modification != modification) {
+            String[] uris = subjects.toArray(new String[0]);
+            Arrays.sort(uris);
+            current = new SortedSubjects(modification, uris);
+            sortedSubjects = current;
+        }
+        String[] sorted = current.uris;
+        int start = 0;
+        if (afterUri != null) {
+            int position = Arrays.binarySearch(sorted, afterUri);
+            start = position >= 0 ? position + 1 : -position - 1;
+        }
+        return Arrays.asList(sorted).subList(start, (int) Math.min(sorted.length, (long) start + limit));
+    }
+
+    @Override protected void added(Iterator<Triple> triples) {
+        triples.forEachRemaining(triple -> added(triple.getSubject()));
+    }
+
+    @Override protected void deleted(Iterator<Triple> triples) {
+        triples.forEachRemaining(triple -> deleted(triple.getSubject()));
+    }
+
+    @Override protected void removed(Triple pattern) {
+        if (pattern.getSubject().isConcrete()) {
+            deleted(pattern.getSubject());
+        } else {
+            clear();
+            rebuild();
+        }
+    }
+
+    private void added(Node subject) {
+        if (subject.isURI() && !subject.equals(lastAddedSubject)) {
+            if (subjects.add(subject.getURI())) {
+                modifications.incrementAndGet();
+            }
+            lastAddedSubject = subject;
+        }
+    }
+
+    private void deleted(Node subject) {
+        // the subject stays in the index, as long as there are statements about it
+        if (subject.isURI() && !graph.contains(subject, Node.ANY, Node.ANY)) {
+            if (subjects.remove(subject.getURI())) {
+                modifications.incrementAndGet();
+            }
+            if (subject.equals(lastAddedSubject)) {
+                lastAddedSubject = null;
+            }
+        }
+    }
+
+    @Override protected void clear() {
+        subjects.clear();
+        modifications.incrementAndGet();
+        lastAddedSubject = null;
+    }
+
+    @Override protected void rebuild() {
+        lastAddedSubject = null;
+        ExtendedIterator<Triple> iterator = graph.find(Node.ANY, Node.ANY, Node.ANY);
+        try {
+            iterator.forEachRemaining(triple -> added(triple.getSubject()));
+        } finally {
+            iterator.close();
+        }
+    }
+
+    /**
+     * A sorted copy of the subjects and the modification it was created at
+     */
+    @RequiredArgsConstructor private static class SortedSubjects {
+        private final long modification;
+        private final String[] uris;
+    }
+}
@@ -2,10 +2,26 @@ package interactivesoftwareanalysis.model;
 
 import lombok.Data;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * A tag a {@link Resource} can be tagged with.
  */
 @Data public class Tag {
+    /** The property that connects a resource with a tag */
+    public static final String TAG_PROPERTY = "http://interactivesoftwareanalysis/tag";
+
+    /** The property that contains the name of a tag */
+    public static final String TAG_NAME_PROPERTY = "http://interactivesoftwareanalysis/tagName";
+
+    /** The property that contains the detail of a tag */
+    public static final String TAG_DETAIL_PROPERTY = "http://interactivesoftwareanalysis/tagDetail";
+
+    /** All properties used to describe tags */
+    public static final List<String> PROPERTIES = Collections.unmodifiableList(Arrays.asList(TAG_PROPERTY, TAG_NAME_PROPERTY, TAG_DETAIL_PROPERTY));
+
     private final String name;
     private final String detail;
 }
@@ -0,0 +1,257 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>An index of the tags of all resources in a graph.</p>
+ *
+ * <p>Every tagged resource gets a dense int id. The index keeps the tags of every id and a bitset
+ * of ids for every tag name, so the tags of many resources are resolved without reading the graph
+ * and the resources with a tag are available as one bitset. Ids are assigned in the order resources
+ * are tagged and not reused, until the index is cleared, so the bitsets stay small.</p>
+ *
+ * <p>Tags are stored as blank nodes, that are linked to the resource and have a name and a detail.
+ * Whenever one of these statements changes, the tags of the affected resources are read from the graph again.</p>
+ */
+class TagIndex extends GraphIndex {
+
+    private static final Node TAG = NodeFactory.createURI(Tag.TAG_PROPERTY);
+    private static final Node TAG_NAME = NodeFactory.createURI(Tag.TAG_NAME_PROPERTY);
+    private static final Node TAG_DETAIL = NodeFactory.createURI(Tag.TAG_DETAIL_PROPERTY);
+
+    /** The ids by resource uri. Snapshots keep using the map, so it is replaced instead of cleared. */
+    private volatile Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> urisById = new ArrayList<>();
+    private final List<List<Tag>> tagsById = new ArrayList<>();
+    private final Map<String, BitSet> resourcesByTag = new HashMap<>();
+
+    /** Counts the changes of the index, to know when snapshots are outdated */
+    private volatile long modification = 0;
+
+    /**
+     * Retrieve the tags of many resources at once
+     * @param resourceUris the uris of the resources
+     * @return the tags by resource uri. Resources without tags are not contained.
+     */
+    synchronized Map<String, List<Tag>> getTags(Collection<String> resourceUris) {
+        Map<String, List<Tag>> tags = new HashMap<>();
+        for (String uri : resourceUris) {
+            Integer id = ids.get(uri);
+            if (id != null && !tagsById.get(id).isEmpty()) {
+                tags.put(uri, tagsById.get(id));
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Retrieve the resources that are tagged with a tag name
+     * @param tagName the exact tag name
+     * @return a snapshot of the tagged resources
+     */
+    synchronized TaggedResources getTaggedResources(String tagName) {
+        BitSet resources = resourcesByTag.get(tagName);
+        return new TaggedResources(this, modification, ids, resources != null ? (BitSet) resources.clone() : new BitSet());
+    }
+
+    /**
+     * Retrieve the uris of the resources that are tagged with a tag name.
+     * This only visits the tagged resources.
+     * @param tagName the exact tag name
+     * @return a list of the resource uris
+     */
+    synchronized List<String> getResources(String tagName) {
+        BitSet resources = resourcesByTag.get(tagName);
+        if (resources == null) {
+            return Collections.emptyList();
+        }
+        List<String> uris = new ArrayList<>(resources.cardinality());
+        resources.stream().forEach(id -> uris.add(urisById.get(id)));
+        return uris;
+    }
+
+    long getModification() {
+        return modification;
+    }
+
+    @Override protected void added(Iterator<Triple> triples) {
+        update(affectedResources(triples));
+    }
+
+    @Override protected void deleted(Iterator<Triple> triples) {
+        update(affectedResources(triples));
+    }
+
+    @Override protected void removed(Triple pattern) {
+        if (pattern.getSubject().isConcrete()) {
+            // the subject is either a tagged resource or a tag
+            Set<Node> resources = new LinkedHashSet<>();
+            resources.add(pattern.getSubject());
+            addTaggedResources(pattern.getSubject(), resources);
+            update(resources);
+        } else {
+            clear();
+            rebuild();
+        }
+    }
+
+    @Override protected synchronized void clear() {
+        ids = new ConcurrentHashMap<>();
+        urisById.clear();
+        tagsById.clear();
+        resourcesByTag.clear();
+        modification++;
+    }
+
+    @Override protected void rebuild() {
+        Set<Node> resources = new LinkedHashSet<>();
+        ExtendedIterator<Triple> iterator = graph.find(Node.ANY, TAG, Node.ANY);
+        try {
+            iterator.forEachRemaining(triple -> resources.add(triple.getSubject()));
+        } finally {
+            iterator.close();
+        }
+        update(resources);
+    }
+
+    /**
+     * Find the resources whose tags are affected by changed triples
+     * @param triples the changed triples
+     * @return the affected resources, may contain blank nodes
+     */
+    private Set<Node> affectedResources(Iterator<Triple> triples) {
+        Set<Node> resources = null;
+        while (triples.hasNext()) {
+            Triple triple = triples.next();
+            Node predicate = triple.getPredicate();
+            if (predicate.equals(TAG) || predicate.equals(TAG_NAME) || predicate.equals(TAG_DETAIL)) {
+                if (resources == null) {
+                    resources = new LinkedHashSet<>();
+                }
+                if (predicate.equals(TAG)) {
+                    resources.add(triple.getSubject());
+                } else {
+                    addTaggedResources(triple.getSubject(), resources);
+                }
+            }
+        }
+        return resources != null ? resources : Collections.emptySet();
+    }
+
+    /**
+     * Add the resources, that are tagged with a tag node
+     * @param tag the tag node
+     * @param resources the set to add the resources to
+     */
+    private void addTaggedResources(Node tag, Set<Node> resources) {
+        ExtendedIterator<Triple> iterator = graph.find(Node.ANY, TAG, tag);
+        try {
+            iterator.forEachRemaining(triple -> resources.add(triple.getSubject()));
+        } finally {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Read the tags of resources from the graph again and update the index
+     * @param resources the resources to update. Nodes that are no uris are ignored.
+     */
+    private synchronized void update(Set<Node> resources) {
+        for (Node resource : resources) {
+            if (resource.isURI()) {
+                setTags(resource.getURI(), readTags(resource));
+            }
+        }
+    }
+
+    /**
+     * Read the tags of a resource from the graph.
+     * Only tags stored as blank nodes with a name are read.
+     * @param resource the resource node
+     * @return an unmodifiable list of the tags, sorted by name
+     */
+    private List<Tag> readTags(Node resource) {
+        List<Tag> tags = new ArrayList<>();
+        ExtendedIterator<Triple> iterator = graph.find(resource, TAG, Node.ANY);
+        try {
+            while (iterator.hasNext()) {
+                Node tag = iterator.next().getObject();
+                String name = tag.isBlank() ? readLiteral(tag, TAG_NAME) : null;
+                if (name != null) {
+                    String detail = readLiteral(tag, TAG_DETAIL);
+                    tags.add(new Tag(name, detail != null ? detail : ""));
+                }
+            }
+        } finally {
+            iterator.close();
+        }
+        if (tags.isEmpty()) {
+            return Collections.emptyList();
+        }
+        tags.sort((o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName()));
+        return Collections.unmodifiableList(tags);
+    }
+
+    /**
+     * Read a literal property value
+     * @param subject the subject node
+     * @param property the property node
+     * @return the lexical form of the first literal value or null, if there is none
+     */
+    private String readLiteral(Node subject, Node property) {
+        ExtendedIterator<Triple> iterator = graph.find(subject, property, Node.ANY);
+        try {
+            while (iterator.hasNext()) {
+                Node value = iterator.next().getObject();
+                if (value.isLiteral()) {
+                    return value.getLiteralLexicalForm();
+                }
+            }
+            return null;
+        } finally {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Store the tags of a resource and update the bitsets of the tag names
+     * @param uri the uri of the resource
+     * @param tags the current tags of the resource
+     */
+    private void setTags(String uri, List<Tag> tags) {
+        Integer id = ids.get(uri);
+        List<Tag> oldTags = id != null ? tagsById.get(id) : Collections.emptyList();
+        if (oldTags.equals(tags)) {
+            return;
+        }
+        if (id == null) {
+            id = tagsById.size();
+            urisById.add(uri);
+            tagsById.add(tags);
+            ids.put(uri, id);
+        }
+        for (Tag tag : oldTags) {
+            resourcesByTag.get(tag.getName()).clear(id);
+        }
+        for (Tag tag : tags) {
+            resourcesByTag.computeIfAbsent(tag.getName(), name -> new BitSet()).set(id);
+        }
+        tagsById.set(id, tags);
+        modification++;
+    }
+}
@@ -0,0 +1,59 @@
+package interactivesoftwareanalysis.model;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * <p>A snapshot of the resources that are tagged with one tag name.</p>
+ *
+ * <p>The resources are stored as a bitset of the ids the tag index assigned to tagged resources,
+ * so testing a resource is a lookup of its id and a bit. The snapshot does not change, when resources
+ * are tagged or untagged later. Use {@link #isOutdated()} to find out, if a new snapshot should be retrieved from the model.</p>
+ */
+public class TaggedResources {
+
+    private final TagIndex index;
+    private final long modification;
+    private final Map<String, Integer> ids;
+    private final BitSet resources;
+
+    /**
+     * Create a new snapshot
+     * @param index the index that created the snapshot
+     * @param modification the modification of the index at the time of the snapshot
+     * @param ids the ids of the tagged resources by uri. Ids are only added, never changed.
+     * @param resources the ids of the resources that are tagged. The bitset must not be changed anymore.
+     */
+    TaggedResources(TagIndex index, long modification, Map<String, Integer> ids, BitSet resources) {
+        this.index = index;
+        this.modification = modification;
+        this.ids = ids;
+        this.resources = resources;
+    }
+
+    /**
+     * Decide, whether a resource is tagged
+     * @param resourceUri the uri of the resource
+     * @return true, iff the resource was tagged with the tag, when the snapshot was taken
+     */
+    public boolean contains(String resourceUri) {
+        Integer id = ids.get(resourceUri);
+        return id != null && resources.get(id);
+    }
+
+    /**
+     * Retrieve the number of tagged resources
+     * @return the number of resources in this snapshot
+     */
+    public int size() {
+        return resources.cardinality();
+    }
+
+    /**
+     * Decide, whether tags were added or removed since this snapshot was taken
+     * @return true, if a new snapshot might contain different resources
+     */
+    public boolean isOutdated() {
+        return index.getModification() != modification;
+    }
+}
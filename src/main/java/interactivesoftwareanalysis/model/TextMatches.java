@@ -0,0 +1,102 @@
+package interactivesoftwareanalysis.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>A snapshot of the literal values in a model, that match a text search.</p>
+ *
+ * <p>The values are the strings that queries return for literals. A value, that was not in the model,
+ * when the snapshot was taken, is not indexed and has to be searched directly. For indexed values,
+ * the snapshot decides the search with a lookup. Values added to the model later are never indexed
+ * in this snapshot, so the snapshot does not change. Values removed from the model stay indexed, until the index
+ * assigns new ids, as whether a value matches does not depend on the model.</p>
+ */
+public class TextMatches {
+
+    /** The stamp of values, that are not indexed */
+    public static final long NOT_INDEXED = -1;
+
+    private final Map<String, Integer> ids;
+    private final long generation;
+    private final int idLimit;
+    private final Map<String, Double> scores;
+
+    /**
+     * Create a new snapshot
+     * @param ids the ids of the indexed values. Values are only added with new ids, until the generation changes.
+     * @param generation the generation of the ids. It changes, whenever ids are assigned again.
+     * @param idLimit the first id, that was not assigned, when the snapshot was taken
+     * @param scores the scores of the matching values. The map must not be changed anymore.
+     */
+    TextMatches(Map<String, Integer> ids, long generation, int idLimit, Map<String, Double> scores) {
+        this.ids = ids;
+        this.generation = generation;
+        this.idLimit = idLimit;
+        this.scores = scores;
+    }
+
+    /**
+     * Decide, whether a value was indexed, when the snapshot was taken
+     * @param value the value
+     * @return true, iff the snapshot decides, whether the value matches
+     */
+    public boolean isIndexed(String value) {
+        return isIndexed(stamp(Collections.singleton(value)));
+    }
+
+    /**
+     * Stamp values with their position in the index. As long as the index keeps its ids, the stamp can be
+     * remembered with the values, to decide, whether they are indexed, without looking them up again.
+     * @param values the values
+     * @return the stamp of the values or {@value NOT_INDEXED}, if one of them is not indexed
+     */
+    public long stamp(Collection<String> values) {
+        int maxId = 0;
+        for (String value : values) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                return NOT_INDEXED;
+            }
+            maxId = Math.max(maxId, id);
+        }
+        return (generation << 32) | maxId;
+    }
+
+    /**
+     * Decide, whether stamped values were indexed, when the snapshot was taken
+     * @param stamp the stamp of the values, that was created by this or another snapshot of the same index
+     * @return true, iff the snapshot decides, whether the values match
+     */
+    public boolean isIndexed(long stamp) {
+        return stamp != NOT_INDEXED && stamp >>> 32 == generation && (int) stamp < idLimit;
+    }
+
+    /**
+     * Decide, whether an indexed value matches the search
+     * @param value the value
+     * @return true, iff the value matched, when the snapshot was taken
+     */
+    public boolean contains(String value) {
+        return scores.containsKey(value);
+    }
+
+    /**
+     * Retrieve the score of an indexed value. Substring searches score every match with 1.
+     * @param value the value
+     * @return the score between 0 and 1 or 0, if the value does not match
+     */
+    public double getScore(String value) {
+        Double score = scores.get(value);
+        return score != null ? score : 0;
+    }
+
+    /**
+     * Retrieve the number of matching values
+     * @return the number of distinct values, that match the search
+     */
+    public int size() {
+        return scores.size();
+    }
+}
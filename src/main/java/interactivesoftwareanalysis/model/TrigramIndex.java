@@ -0,0 +1,429 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.datatypes.xsd.impl.RDFLangString;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>A trigram index of all text literals in a graph, for searching names, paths and attribute values.
+ * Typed literals, like sizes and times, are not indexed, as searching them for text is not useful.</p>
+ *
+ * <p>Every distinct value gets an int id. For every trigram of the case folded values, the index keeps the ids
+ * of the values containing it. A substring search intersects the ids of the trigrams of the text and only
+ * compares the remaining candidates. A similarity search counts, how many trigrams of the text every value contains,
+ * so it tolerates typos.</p>
+ *
+ * <p>The index is built on first use, as it takes a while for large models and many models are never searched.
+ * Afterwards, it is kept up to date by the changes of the graph. Values, that are removed from the graph, keep their ids,
+ * so snapshots and stamps of values stay valid. When more than half of the values were removed, new ids are assigned
+ * to the remaining ones and the generation of the ids changes. The ids of a trigram are kept as delta encoded
+ * variable length integers, as most of them are close to each other in frequent trigrams.</p>
+ */
+class TrigramIndex extends GraphIndex {
+
+    /** When there are at most this many candidates left, they are compared directly instead of intersecting more trigrams */
+    private static final int COMPARE_CANDIDATES = 256;
+
+    /** The index is not used, when the rarest trigram of a text occurs in more than this fraction of the values */
+    private static final double MAX_CANDIDATE_FRACTION = 0.25;
+
+    /** Removed values keep their ids, until there are more of them than this and than live values */
+    private static final int MIN_REMOVED_FOR_COMPACTION = 10000;
+
+    private static final Double FULL_SCORE = 1.0;
+
+    private boolean active = false;
+
+    /** The ids by value. Snapshots keep using the map, so it is replaced instead of cleared. */
+    private volatile Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private long generation = 0;
+    private List<String> valuesById = new ArrayList<>();
+    private BitSet removedIds = new BitSet();
+    private int removedValues = 0;
+    private PostingsTable postingsByTrigram = new PostingsTable();
+
+    /**
+     * Find the values, that contain a text, ignoring case
+     * @param text the text to search for
+     * @param maxMatches the maximum number of matches
+     * @return a snapshot of the matching values or null, if the text is shorter than a trigram,
+     *         too common, so comparing all values directly is faster, or there are more matches
+     */
+    synchronized TextMatches findContaining(String text, int maxMatches) {
+        String foldedText = foldCase(text);
+        long[] trigrams = trigrams(foldedText);
+        if (trigrams.length == 0) {
+            return null;
+        }
+        activate();
+
+        List<Postings> postings = new ArrayList<>();
+        for (long trigram : trigrams) {
+            Postings trigramPostings = postingsByTrigram.get(trigram);
+            if (trigramPostings == null) {
+                // no value contains this trigram
+                return new TextMatches(ids, generation, valuesById.size(), Collections.emptyMap());
+            }
+            postings.add(trigramPostings);
+        }
+        postings.sort(Comparator.comparingInt(trigramPostings -> trigramPostings.count));
+        if (postings.get(0).count > (valuesById.size() - removedValues) * MAX_CANDIDATE_FRACTION) {
+            return null;
+        }
+
+        int[] candidates = postings.get(0).toArray();
+        for (int i = 1; i < postings.size() && candidates.length > COMPARE_CANDIDATES; i++) {
+            candidates = postings.get(i).intersect(candidates);
+        }
+        Map<String, Double> matches = new HashMap<>();
+        for (int id : candidates) {
+            String value = valuesById.get(id);
+            if (foldCase(value).contains(foldedText)) {
+                matches.put(value, FULL_SCORE);
+                if (matches.size() > maxMatches) {
+                    return null;
+                }
+            }
+        }
+        return new TextMatches(ids, generation, valuesById.size(), matches);
+    }
+
+    /**
+     * Find the values, that contain many trigrams of a text, ignoring case.
+     * The score of a value is the fraction of the distinct trigrams of the text, that it contains.
+     * @param text the text to search for
+     * @param minScore the minimum score of a match between 0 and 1
+     * @return a snapshot of the matching values with their scores or null, if the text is shorter than a trigram
+     */
+    synchronized TextMatches findSimilar(String text, double minScore) {
+        long[] trigrams = trigrams(foldCase(text));
+        if (trigrams.length == 0) {
+            return null;
+        }
+        activate();
+
+        int[] counts = new int[valuesById.size()];
+        for (long trigram : trigrams) {
+            Postings postings = postingsByTrigram.get(trigram);
+            if (postings != null) {
+                postings.forEach(id -> counts[id]++);
+            }
+        }
+        int minCount = Math.max(1, (int) Math.ceil(minScore * trigrams.length));
+        Map<String, Double> matches = new HashMap<>();
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] >= minCount) {
+                matches.put(valuesById.get(id), (double) counts[id] / trigrams.length);
+            }
+        }
+        return new TextMatches(ids, generation, valuesById.size(), matches);
+    }
+
+    /**
+     * Fold the case of a string, like the filters of the modules do
+     * @param string the string
+     * @return the string in lower case
+     */
+    static String foldCase(String string) {
+        return string.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Retrieve the distinct trigrams of a case folded string, each encoded as the three chars in one long
+     * @param foldedString the case folded string
+     * @return the sorted trigrams, empty, if the string is shorter than three chars
+     */
+    static long[] trigrams(String foldedString) {
+        if (foldedString.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[foldedString.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) foldedString.charAt(i) << 32) | ((long) foldedString.charAt(i + 1) << 16) | foldedString.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    @Override protected synchronized void added(Iterator<Triple> triples) {
+        if (active) {
+            triples.forEachRemaining(triple -> {
+                if (isText(triple.getObject())) {
+                    addValue(triple.getObject().toString(false));
+                }
+            });
+        }
+    }
+
+    @Override protected synchronized void deleted(Iterator<Triple> triples) {
+        if (active) {
+            triples.forEachRemaining(triple -> {
+                Node object = triple.getObject();
+                // the value stays in the index, as long as there are statements with it
+                if (isText(object) && !graph.contains(Node.ANY, Node.ANY, object)) {
+                    removeValue(object.toString(false));
+                }
+            });
+            if (removedValues > MIN_REMOVED_FOR_COMPACTION && removedValues > valuesById.size() - removedValues) {
+                compact();
+            }
+        }
+    }
+
+    @Override protected void removed(Triple pattern) {
+        // the removed values are unknown, but they may stay indexed, as whether a value matches does not depend on the graph
+        if (!pattern.getSubject().isConcrete()) {
+            clear();
+        }
+    }
+
+    @Override protected synchronized void clear() {
+        active = false;
+        reset();
+    }
+
+    @Override protected synchronized void rebuild() {
+        if (!active) {
+            return;
+        }
+        ExtendedIterator<Triple> iterator = graph.find(Node.ANY, Node.ANY, Node.ANY);
+        try {
+            iterator.forEachRemaining(triple -> {
+                if (isText(triple.getObject())) {
+                    addValue(triple.getObject().toString(false));
+                }
+            });
+        } finally {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Decide, whether a node is indexed
+     * @param node the object of a statement
+     * @return true, iff the node is a string literal
+     */
+    private static boolean isText(Node node) {
+        return node.isLiteral() && (XSDDatatype.XSDstring.equals(node.getLiteralDatatype())
+                || RDFLangString.rdfLangString.equals(node.getLiteralDatatype()));
+    }
+
+    /**
+     * Build the index, if it is not active yet.
+     * This has to be called, while no other thread modifies the graph.
+     */
+    private void activate() {
+        if (!active) {
+            active = true;
+            rebuild();
+        }
+    }
+
+    /**
+     * Remove all values and start a new generation of ids
+     */
+    private void reset() {
+        ids = new ConcurrentHashMap<>();
+        generation++;
+        valuesById = new ArrayList<>();
+        removedIds = new BitSet();
+        removedValues = 0;
+        postingsByTrigram = new PostingsTable();
+    }
+
+    private void addValue(String value) {
+        Integer existingId = ids.get(value);
+        if (existingId != null) {
+            if (removedIds.get(existingId)) {
+                removedIds.clear(existingId);
+                removedValues--;
+            }
+            return;
+        }
+        int id = valuesById.size();
+        valuesById.add(value);
+        ids.put(value, id);
+        for (long trigram : trigrams(foldCase(value))) {
+            postingsByTrigram.getOrCreate(trigram).add(id);
+        }
+    }
+
+    private void removeValue(String value) {
+        Integer id = ids.get(value);
+        if (id != null && !removedIds.get(id)) {
+            // the value keeps its id, until the index is compacted
+            removedIds.set(id);
+            removedValues++;
+        }
+    }
+
+    /**
+     * Assign new ids to the remaining values and drop the removed ones
+     */
+    private void compact() {
+        List<String> values = valuesById;
+        BitSet removed = removedIds;
+        reset();
+        for (int id = 0; id < values.size(); id++) {
+            if (!removed.get(id)) {
+                addValue(values.get(id));
+            }
+        }
+    }
+
+    /**
+     * The postings by trigram in an open addressing hash table, as building the index looks up every trigram of every value
+     */
+    private static class PostingsTable {
+        private long[] trigrams = new long[1024];
+        private Postings[] postings = new Postings[1024];
+        private int size = 0;
+
+        /**
+         * Retrieve the postings of a trigram
+         * @param trigram the trigram
+         * @return the postings or null, if no value contains the trigram
+         */
+        Postings get(long trigram) {
+            return postings[slot(trigrams, postings, trigram)];
+        }
+
+        /**
+         * Retrieve the postings of a trigram and add them, if no value contained the trigram yet
+         * @param trigram the trigram
+         * @return the postings
+         */
+        Postings getOrCreate(long trigram) {
+            int slot = slot(trigrams, postings, trigram);
+            if (postings[slot] == null) {
+                if ((size + 1) * 2 > postings.length) {
+                    grow();
+                    slot = slot(trigrams, postings, trigram);
+                }
+                trigrams[slot] = trigram;
+                postings[slot] = new Postings();
+                size++;
+            }
+            return postings[slot];
+        }
+
+        private void grow() {
+            long[] oldTrigrams = trigrams;
+            Postings[] oldPostings = postings;
+            trigrams = new long[oldTrigrams.length * 2];
+            postings = new Postings[oldPostings.length * 2];
+            for (int i = 0; i < oldPostings.length; i++) {
+                if (oldPostings[i] != null) {
+                    int slot = slot(trigrams, postings, oldTrigrams[i]);
+                    trigrams[slot] = oldTrigrams[i];
+                    postings[slot] = oldPostings[i];
+                }
+            }
+        }
+
+        /**
+         * Find the slot of a trigram with linear probing
+         * @return the slot containing the trigram or the empty slot to put it in
+         */
+        private static int slot(long[] trigrams, Postings[] postings, long trigram) {
+            int mask = postings.length - 1;
+            int slot = (int) ((trigram * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+            while (postings[slot] != null && trigrams[slot] != trigram) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    /**
+     * The ascending ids of the values containing a trigram, as delta encoded variable length integers
+     */
+    private static class Postings {
+        private byte[] data = new byte[4];
+        private int length = 0;
+        private int count = 0;
+        private int last = -1;
+
+        /**
+         * Append an id
+         * @param id the id, greater than all ids added before
+         */
+        void add(int id) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            int delta = id - last;
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = id;
+            count++;
+        }
+
+        void forEach(IntConsumer consumer) {
+            int id = -1;
+            int position = 0;
+            while (position < length) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+                consumer.accept(id);
+            }
+        }
+
+        int[] toArray() {
+            int[] ids = new int[count];
+            int[] index = {0};
+            forEach(id -> ids[index[0]++] = id);
+            return ids;
+        }
+
+        /**
+         * Retrieve the ids, that are contained in these postings and in a sorted array
+         * @param sortedIds the ascending ids
+         * @return the ascending ids contained in both
+         */
+        int[] intersect(int[] sortedIds) {
+            int[] result = new int[sortedIds.length];
+            int[] positions = {0, 0};
+            forEach(id -> {
+                while (positions[0] < sortedIds.length && sortedIds[positions[0]] < id) {
+                    positions[0]++;
+                }
+                if (positions[0] < sortedIds.length && sortedIds[positions[0]] == id) {
+                    result[positions[1]++] = id;
+                }
+            });
+            return Arrays.copyOf(result, positions[1]);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package interactivesoftwareanalysis.model;
+
+import java.util.Arrays;
+
+/**
+ * <p>An index of triples of node ids in one of the orders SPO, POS or OSP.</p>
+ *
+ * <p>The index has one bucket per id of the first component, found directly by the id.
+ * A bucket is a sorted array of longs, each containing the second component in the upper
+ * and the third component in the lower 32 bits. This way, all triples with the same first and
+ * second component are next to each other and can be found with a binary search.</p>
+ */
+class TripleIndex {
+
+    private static final int INITIAL_BUCKET_SIZE = 4;
+
+    private long[][] buckets = new long[1024][];
+    private int[] sizes = new int[1024];
+
+    /**
+     * Add a triple to the index
+     * @return true, if the triple was added, false if it was already in the index
+     */
+    boolean add(int first, int second, int third) {
+        ensureCapacity(first);
+        long entry = entry(second, third);
+        long[] bucket = buckets[first];
+        int size = sizes[first];
+        if (bucket == null) {
+            bucket = buckets[first] = new long[INITIAL_BUCKET_SIZE];
+        }
+        // entries are mostly added in ascending order, so check the end of the bucket first
+        int position;
+        if (size == 0 || bucket[size - 1] < entry) {
+            position = size;
+        } else {
+            position = Arrays.binarySearch(bucket, 0, size, entry);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+        }
+        if (size == bucket.length) {
+            bucket = buckets[first] = Arrays.copyOf(bucket, size + (size >> 1) + 1);
+        }
+        System.arraycopy(bucket, position, bucket, position + 1, size - position);
+        bucket[position] = entry;
+        sizes[first] = size + 1;
+        return true;
+    }
+
+    /**
+     * Remove a triple from the index
+     * @return true, if the triple was removed, false if it was not in the index
+     */
+    boolean remove(int first, int second, int third) {
+        if (first >= buckets.length || sizes[first] == 0) {
+            return false;
+        }
+        long[] bucket = buckets[first];
+        int size = sizes[first];
+        int position = Arrays.binarySearch(bucket, 0, size, entry(second, third));
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(bucket, position + 1, bucket, position, size - position - 1);
+        sizes[first] = size - 1;
+        if (size - 1 == 0) {
+            buckets[first] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Decide, whether the index contains a triple
+     */
+    boolean contains(int first, int second, int third) {
+        return first < buckets.length && sizes[first] > 0
+                && Arrays.binarySearch(buckets[first], 0, sizes[first], entry(second, third)) >= 0;
+    }
+
+    /**
+     * Remove all triples from the index
+     */
+    void clear() {
+        buckets = new long[1024][];
+        sizes = new int[1024];
+    }
+
+    /**
+     * Create a cursor over the triples matching a pattern
+     * @param first the first component or -1 for any
+     * @param second the second component or -1 for any. Only used, if the first component is given.
+     * @param third the third component or -1 for any
+     * @return a new cursor, positioned before the first matching triple
+     */
+    Cursor find(int first, int second, int third) {
+        return new Cursor(first, second, third);
+    }
+
+    private void ensureCapacity(int first) {
+        if (first >= buckets.length) {
+            int capacity = Math.max(first + 1, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+    }
+
+    private static long entry(int second, int third) {
+        return ((long) second << 32) | (third & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Iterates over the triples matching a pattern.
+     * After {@link #next()} returned true, the components of the current triple are available.
+     * The index must not be modified while a cursor is used.
+     */
+    class Cursor {
+        private final int fixedFirst;
+        private final int fixedSecond;
+        private final int fixedThird;
+        private int bucketIndex;
+        private int position;
+        private int end;
+
+        int first;
+        int second;
+        int third;
+
+        private Cursor(int fixedFirst, int fixedSecond, int fixedThird) {
+            this.fixedFirst = fixedFirst;
+            this.fixedSecond = fixedSecond;
+            this.fixedThird = fixedThird;
+            this.bucketIndex = fixedFirst >= 0 ? fixedFirst - 1 : -1;
+        }
+
+        /**
+         * Move to the next matching triple
+         * @return true, if there is a next triple, false if the cursor is exhausted
+         */
+        boolean next() {
+            while (true) {
+                while (position < end) {
+                    long entry = buckets[bucketIndex][position++];
+                    int entryThird = (int) entry;
+                    if (fixedThird < 0 || entryThird == fixedThird) {
+                        first = bucketIndex;
+                        second = (int) (entry >>> 32);
+                        third = entryThird;
+                        return true;
+                    }
+                }
+                if (!nextBucket()) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Move to the next bucket that can contain matching triples and set the range to search in
+         * @return false, if there are no more buckets
+         */
+        private boolean nextBucket() {
+            do {
+                bucketIndex++;
+                if (bucketIndex >= buckets.length || (fixedFirst >= 0 && bucketIndex != fixedFirst)) {
+                    return false;
+                }
+            } while (sizes[bucketIndex] == 0);
+            long[] bucket = buckets[bucketIndex];
+            int size = sizes[bucketIndex];
+            if (fixedFirst >= 0 && fixedSecond >= 0) {
+                if (fixedThird >= 0) {
+                    int found = Arrays.binarySearch(bucket, 0, size, entry(fixedSecond, fixedThird));
+                    position = found >= 0 ? found : 0;
+                    end = found >= 0 ? found + 1 : 0;
+                } else {
+                    position = lowerBound(bucket, size, entry(fixedSecond, 0));
+                    // ids are not negative, so the third component -1 sorts after all entries with the second
+                    end = lowerBound(bucket, size, entry(fixedSecond, -1));
+                }
+            } else {
+                position = 0;
+                end = size;
+            }
+            return true;
+        }
+
+        private int lowerBound(long[] bucket, int size, long entry) {
+            int found = Arrays.binarySearch(bucket, 0, size, entry);
+            if (found < 0) {
+                return -found - 1;
+            }
+            // entries are unique, so the found entry is the lower bound
+            return found;
+        }
+    }
+}
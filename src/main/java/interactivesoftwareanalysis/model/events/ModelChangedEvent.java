@@ -1,7 +1,54 @@
 package interactivesoftwareanalysis.model.events;
 
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
 /**
- * An event that is fired, when content in the model changes.
+ * <p>An event that is fired, when content in the model changes.</p>
+ *
+ * <p>The event describes the change by the uris of the changed subjects and the changed predicates.
+ * Changes of blank node subjects only contribute their predicates. If the change can not be described
+ * that way, e.g. because the whole model was loaded or too many subjects changed, the event is complete
+ * and receivers have to assume that anything in the model may have changed.</p>
  */
 public class ModelChangedEvent extends ModelEvent {
+    @Getter private final Set<String> subjects;
+    @Getter private final Set<String> predicates;
+
+    /**
+     * Create an event for a change, that may have affected the whole model
+     */
+    public ModelChangedEvent() {
+        this(null, null);
+    }
+
+    /**
+     * Create an event for a change of the given subjects and predicates
+     * @param subjects the uris of the changed subjects or null, if they are unknown
+     * @param predicates the uris of the changed predicates or null, if they are unknown
+     */
+    public ModelChangedEvent(Set<String> subjects, Set<String> predicates) {
+        this.subjects = subjects != null ? Collections.unmodifiableSet(subjects) : null;
+        this.predicates = predicates != null ? Collections.unmodifiableSet(predicates) : null;
+    }
+
+    /**
+     * Decide, whether anything in the model may have changed
+     * @return true, iff the changed subjects and predicates are unknown
+     */
+    public boolean isComplete() {
+        return subjects == null || predicates == null;
+    }
+
+    /**
+     * Decide, whether the change only affected statements with the given predicates
+     * @param predicateUris the uris of the predicates
+     * @return true, iff the change is not complete and all changed predicates are in the given collection
+     */
+    public boolean affectsOnly(Collection<String> predicateUris) {
+        return !isComplete() && predicateUris.containsAll(predicates);
+    }
 }
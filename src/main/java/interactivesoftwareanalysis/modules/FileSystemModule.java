@@ -1,15 +1,16 @@
 package interactivesoftwareanalysis.modules;
 
 import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.ModelBatch;
 import interactivesoftwareanalysis.model.Resource;
-import interactivesoftwareanalysis.model.ResourceNotFoundException;
 import interactivesoftwareanalysis.modules.data.*;
+import interactivesoftwareanalysis.modules.filter.Filter;
 import javafx.scene.control.TreeItem;
 
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 /**
@@ -84,21 +85,36 @@ public class FileSystemModule extends ModuleBase {
         }
 
         @Override public <T> T getData(Class<T> dataType) throws DataTypeNotSupportedException {
-            String filesQuery = "SELECT DISTINCT ?file ?path  WHERE {?file isa:path ?path. {{?file rdf:type isa:file.} UNION {?file rdf:type isa:directory.}}}";
-            List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(filesQuery);
+            return createData(dataType, getFiles(null));
+        }
+
+        @Override public <T> T getData(Class<T> dataType, Filter filter) throws DataTypeNotSupportedException {
+            // trees contain the directories of matching files, so they are built from all files
+            String filterClause = dataType == DataList.class ? getFilterClause(filter, "file") : null;
+            return filterClause != null ? createData(dataType, getFiles(filterClause)) : null;
+        }
+
+        /**
+         * Retrieve files and directories from the model
+         * @param filterClause a clause that narrows the query or null
+         * @return the files and directories sorted by path
+         */
+        private List<DataItem> getFiles(String filterClause) {
+            // the type index replaces the union of both types in the query
+            Function<String, Resource> resources = getResourceLookup(filterClause != null, NAME_SPACE + "file", NAME_SPACE + "directory");
+            String filesQuery = "SELECT ?file ?path WHERE {?file isa:path ?path. " + (filterClause != null ? filterClause : "") + "}";
             List<DataItem> files = new ArrayList<>();
-            results.forEach(result -> {
-                String name = result.get("path");
-                String uri = result.get("file");
-                Resource resource = null;
-                try {
-                    resource = moduleContext.getModel().getResource(uri);
-                    files.add(new DataItem(name, resource));
-                } catch (ResourceNotFoundException e) {
-                    e.printStackTrace();
+            moduleContext.getModel().executeSelectQuery(filesQuery, row -> {
+                Resource resource = resources.apply(row.get(0));
+                if (resource != null) {
+                    files.add(new DataItem(row.get(1), resource));
                 }
             });
             files.sort((o1, o2) -> o1.getString().compareToIgnoreCase(o2.getString()));
+            return files;
+        }
+
+        private <T> T createData(Class<T> dataType, List<DataItem> files) throws DataTypeNotSupportedException {
             if (dataType == DataList.class) {
                 @SuppressWarnings("unchecked") // The if already checks for the correct type
                         T data = (T) new DataList(files);
@@ -127,21 +143,35 @@ public class FileSystemModule extends ModuleBase {
         }
 
         @Override public <T> T getData(Class<T> dataType) throws DataTypeNotSupportedException {
-            String filesQuery = "SELECT ?link ?path WHERE {?link rdf:type isa:symlink. ?link isa:path ?path.}";
-            List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(filesQuery);
+            return createData(dataType, getSymlinks(null));
+        }
+
+        @Override public <T> T getData(Class<T> dataType, Filter filter) throws DataTypeNotSupportedException {
+            // trees contain the directories of matching symlinks, so they are built from all symlinks
+            String filterClause = dataType == DataList.class ? getFilterClause(filter, "link") : null;
+            return filterClause != null ? createData(dataType, getSymlinks(filterClause)) : null;
+        }
+
+        /**
+         * Retrieve symlinks from the model
+         * @param filterClause a clause that narrows the query or null
+         * @return the symlinks sorted by path
+         */
+        private List<DataItem> getSymlinks(String filterClause) {
+            Function<String, Resource> resources = getResourceLookup(filterClause != null, NAME_SPACE + "symlink");
+            String filesQuery = "SELECT ?link ?path WHERE {?link rdf:type isa:symlink. ?link isa:path ?path. " + (filterClause != null ? filterClause : "") + "}";
             List<DataItem> symLinks = new ArrayList<>();
-            results.forEach(solution -> {
-                String name = solution.get("path");
-                String uri = solution.get("link");
-                Resource resource = null;
-                try {
-                    resource = moduleContext.getModel().getResource(uri);
-                    symLinks.add(new DataItem(name, resource));
-                } catch (ResourceNotFoundException e) {
-                    e.printStackTrace();
+            moduleContext.getModel().executeSelectQuery(filesQuery, row -> {
+                Resource resource = resources.apply(row.get(0));
+                if (resource != null) {
+                    symLinks.add(new DataItem(row.get(1), resource));
                 }
             });
             symLinks.sort((o1, o2) -> o1.getString().compareToIgnoreCase(o2.getString()));
+            return symLinks;
+        }
+
+        private <T> T createData(Class<T> dataType, List<DataItem> symLinks) throws DataTypeNotSupportedException {
             if (dataType == DataList.class) {
                 @SuppressWarnings("unchecked") // The if already checks for the correct type
                         T data = (T) new DataList(symLinks);
@@ -160,10 +190,21 @@ public class FileSystemModule extends ModuleBase {
     }
 
     /**
-     * Import files, directories and symlinks
+     * Import files, directories and symlinks with their metadata
      */
     private class FileSystemImportModule extends ImportSubmoduleBase {
 
+        /**
+         * Prints two \0 terminated records per entry of the file system in a single traversal: the type, the type of
+         * the link target, size, modification time, mode, uid, gid, inode, link count and path, separated by spaces,
+         * and the link target, which is empty, if the entry is no symlink. Only the path and the link target can
+         * contain spaces, so the fields are split at the first spaces.
+         */
+        private static final String COMMAND = "find / -printf '%y %Y %s %T@ %m %U %G %i %n %p\\0%l\\0' 2>/dev/null";
+
+        /** The number of fields in front of the path */
+        private static final int FIELDS = 9;
+
         public FileSystemImportModule(ModuleContext moduleContext) {
             super("Dateien und Verzeichnisse", "Importiert Informationen zu Dateien und Verzeichnissen auf dem System", moduleContext);
         }
@@ -171,84 +212,127 @@ public class FileSystemModule extends ModuleBase {
         @Override public boolean doImport(Progress progress) {
             Model model = moduleContext.getModel();
             DataSource dataSource = moduleContext.getDataSourceManager().getDataSource();
+            String message = "Importiere Datei- und Verzeichnisinformationen in das interne Modell";
 
-            CountDownLatch latch = new CountDownLatch(3);
-            AtomicReference<String[]> filesRef = new AtomicReference<>();
-            AtomicReference<String[]> pathsRef = new AtomicReference<>();
-            AtomicReference<String[]> symlinksRef = new AtomicReference<>();
-
-            progress.setMessage("Lade Datei- und Verzeichnisinformationen von der Datenquelle");
-
-            // execute the commands simultaneously and split the output
-            // when each command is done, the latch is counted down
-            executeCommandInNewThread("cd /\nfind -xtype f 2>/dev/null", filesRef, dataSource, latch);
-            executeCommandInNewThread("cd /\nfind -xtype d 2>/dev/null", pathsRef, dataSource, latch);
-            executeCommandInNewThread("cd /\nfind -type l 2>/dev/null", symlinksRef, dataSource, latch);
-
-            // wait, until all threads are finished, so the importing can be done sequentially
-            // and the user can be presented with a sensible progress indication. The model
-            // would block simultaneous write accesses anyway.
-            while (latch.getCount() > 0) {
-                try {
-                    latch.await();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+            // import the output of the command, while it arrives.
+            // all statements are collected in one batch, that is committed in chunks.
+            ModelBatch batch = model.newBatch();
+            boolean successful = false;
+            try {
+                progress.setMessage(message);
+                AtomicLong entries = new AtomicLong();
+                // the records alternate between the fields and the link target of an entry
+                String[] fields = new String[1];
+                dataSource.executeRecords(COMMAND, '\0', record -> {
+                    if (fields[0] == null) {
+                        fields[0] = record;
+                        return;
+                    }
+                    addEntry(fields[0], record, batch);
+                    fields[0] = null;
+                    reportLines(progress, message, entries.incrementAndGet());
+                });
+                progress.setProgress(1);
+                successful = true;
+            } catch (DataSourceExecuteException e) {
+                e.printStackTrace();
+                return false;
+            } finally {
+                if (successful) {
+                    batch.close();
+                } else {
+                    // a failed import is not committed
+                    batch.abort();
                 }
             }
-
-            progress.setMessage("Importiere Datei- und Verzeichnisinformationen in das interne Modell");
-
-            // some preparations for tracking the progress
-            AtomicInteger current = new AtomicInteger();
-            double total = filesRef.get().length + pathsRef.get().length + symlinksRef.get().length;
-
-            // add files, directories and paths to the model. addPathResource reduces duplicate code.
-            model.setBatchMode(true);
-            addPathResource(s -> NAME_SPACE + "filesystemitem" + s.hashCode(), NAME_SPACE + "file", filesRef.get(), progress, model, total, current);
-            addPathResource(s -> NAME_SPACE + "filesystemitem" + s.hashCode(), NAME_SPACE + "directory", pathsRef.get(), progress, model, total, current);
-            addPathResource(s -> NAME_SPACE + "filesystemitem" + s.hashCode(), NAME_SPACE + "symlink", symlinksRef.get(), progress, model, total, current);
-            model.setBatchMode(false);
+            reportThroughput(progress, batch);
             return true;
         }
 
         /**
-         * Execute a command on the data source in a new thread and split the result in lines.
-         * @param command the command to execute
-         * @param result areference to an array to store the result in
-         * @param dataSource the data source to execute the command on
-         * @param latch a latch to count down, when command is finished. Used when running multiple
-         *              commands in parallel  to wait for all to finish
+         * Add the resource of a file system entry with its metadata to the model.
+         * Entries, whose fields can't be read, are skipped.
+         * @param fields the fields and the path of the entry, as printed by the command
+         * @param linkTarget the target of the entry, if it is a symlink, otherwise the empty string
+         * @param batch the model batch to add the resources to
          */
-        private void executeCommandInNewThread(String command, AtomicReference<String[]> result, DataSource dataSource, CountDownLatch latch) {
-            new Thread(() -> {
-                try {
-                    result.set(dataSource.execute(command).split("\n"));
-                } catch (DataSourceExecuteException e) {
-                    e.printStackTrace();
-                } finally {
-                    latch.countDown();
+        private void addEntry(String fields, String linkTarget, ModelBatch batch) {
+            // the fields are split at spaces by hand, as this is done for every entry of the file system
+            int[] ends = new int[FIELDS];
+            int position = -1;
+            for (int i = 0; i < FIELDS; i++) {
+                position = fields.indexOf(' ', position + 1);
+                if (position < 0) {
+                    return;
                 }
-            }).start();
+                ends[i] = position;
+            }
+            String path = fields.substring(ends[FIELDS - 1] + 1);
+            if (path.isEmpty() || ends[0] != 1 || ends[1] != 3) {
+                return;
+            }
+            char type = fields.charAt(0);
+            char targetType = fields.charAt(2);
+
+            // a symlink to a file or directory is imported as both, as it can be used like one
+            List<String> typeUris = new ArrayList<>(2);
+            if (targetType == 'f') {
+                typeUris.add(NAME_SPACE + "file");
+            } else if (targetType == 'd') {
+                typeUris.add(NAME_SPACE + "directory");
+            }
+            if (type == 'l') {
+                typeUris.add(NAME_SPACE + "symlink");
+            }
+            if (typeUris.isEmpty()) {
+                return;
+            }
+
+            long size, uid, gid, inode, linkCount;
+            Instant modificationTime;
+            try {
+                size = Long.parseLong(fields.substring(ends[1] + 1, ends[2]));
+                modificationTime = parseTime(fields.substring(ends[2] + 1, ends[3]));
+                uid = Long.parseLong(fields.substring(ends[4] + 1, ends[5]));
+                gid = Long.parseLong(fields.substring(ends[5] + 1, ends[6]));
+                inode = Long.parseLong(fields.substring(ends[6] + 1, ends[7]));
+                linkCount = Long.parseLong(fields.substring(ends[7] + 1, ends[8]));
+            } catch (NumberFormatException | DateTimeException e) {
+                return;
+            }
+
+            String resourceUri = NAME_SPACE + "filesystemitem" + path.hashCode();
+            typeUris.forEach(typeUri -> batch.addResource(resourceUri, typeUri, path));
+            batch.addAttribute(resourceUri, NAME_SPACE + "path", path);
+            batch.addAttribute(resourceUri, NAME_SPACE + "size", size);
+            batch.addAttribute(resourceUri, NAME_SPACE + "modificationTime", modificationTime);
+            batch.addAttribute(resourceUri, NAME_SPACE + "mode", fields.substring(ends[3] + 1, ends[4]));
+            batch.addAttribute(resourceUri, NAME_SPACE + "userId", uid);
+            batch.addAttribute(resourceUri, NAME_SPACE + "groupId", gid);
+            batch.addAttribute(resourceUri, NAME_SPACE + "inode", inode);
+            batch.addAttribute(resourceUri, NAME_SPACE + "linkCount", linkCount);
+            if (type == 'l') {
+                batch.addAttribute(resourceUri, NAME_SPACE + "linkTarget", linkTarget);
+            }
         }
 
         /**
-         * Add a path resource to the model.
-         * @param uri function for creating uris for the resources
-         * @param typeUri the new resoruces types uri
-         * @param lines the pathes to add
-         * @param progress a progress object to set the importing progress on
-         * @param model the model to add the resources to
-         * @param totalLines the total number of lines, for the progress calculation
-         * @param current the current line, for the progress calculation
+         * Parse a time printed by find with %T@.
+         * Find prints the seconds and the nanoseconds of the file time, so the seconds are rounded down and the fraction
+         * is always added, e.g. -1.5000000000 is half a second before the epoch. The fraction must not be negated.
+         * @param time the seconds since the epoch with an optional fraction, e.g. 1476789012.1234567890
+         * @return the time
          */
-        private void addPathResource(Function<String, String> uri, String typeUri, String[] lines, Progress progress, Model model, double totalLines, AtomicInteger current) {
-            Arrays.stream(lines).filter(s -> !s.isEmpty()).forEach(s -> {
-                String p = s.substring(1);
-                p = p.isEmpty() ? "/" : p;
-                Resource directory = model.createResource(uri.apply(p), typeUri, p);
-                directory.addAttribute(NAME_SPACE + "path", p);
-                progress.setProgress(current.incrementAndGet() / totalLines);
-            });
+        private Instant parseTime(String time) {
+            int point = time.indexOf('.');
+            if (point < 0) {
+                return Instant.ofEpochSecond(Long.parseLong(time));
+            }
+            String fraction = time.substring(point + 1);
+            // find prints up to ten fractional digits, an instant keeps nine
+            fraction = fraction.length() > 9 ? fraction.substring(0, 9) : (fraction + "000000000").substring(0, 9);
+            // the seconds are negative before the epoch, the nanoseconds are not
+            return Instant.ofEpochSecond(Long.parseLong(time.substring(0, point)), fraction.isEmpty() ? 0 : Long.parseLong(fraction));
         }
     }
 }
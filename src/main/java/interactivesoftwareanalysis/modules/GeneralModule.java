@@ -24,6 +24,7 @@ import java.util.*;
  *     <ul>
  *         <li>name</li>
  *         <li>text</li>
+ *         <li>fuzzy</li>
  *         <li>tag</li>
  *         <li>sparql</li>
  *         <li>regex</li>
@@ -40,22 +41,71 @@ public class GeneralModule extends ModuleBase {
                 new TaggedResourcesSubmodule(moduleContext)
         ));
         getFilterFactories().addAll(Arrays.asList(
-                new DecideFilterFactoryBase("name", "Filtert nach Items, deren Name den Text enthält") {
+                new DecideFilterFactoryBase("name", "Filtert nach Items, deren Name den Text enthält", moduleContext) {
                     @Override
                     public Filter newInstance(String pattern) {
-                        return new NameFilter(pattern);
+                        return new NameFilter(pattern, moduleContext);
+                    }
+
+                    // names containing the longer pattern contain the shorter one, too
+                    @Override
+                    public boolean isRefinement(String pattern, String previousPattern) {
+                        return DataItem.foldCase(pattern).contains(DataItem.foldCase(previousPattern));
+                    }
+
+                    @Override
+                    public double getSelectivity() {
+                        return 0.1;
                     }
                 },
-                new DecideFilterFactoryBase("text", "Filtert nach Items, die den angegebenen Text enthalten") {
+                new DecideFilterFactoryBase("text", "Filtert nach Items, die den angegebenen Text enthalten", moduleContext) {
                     @Override
                     public Filter newInstance(String pattern) {
-                        return new TextFilter(pattern);
+                        return new TextFilter(pattern, moduleContext);
+                    }
+
+                    @Override
+                    public boolean isRefinement(String pattern, String previousPattern) {
+                        return DataItem.foldCase(pattern).contains(DataItem.foldCase(previousPattern));
+                    }
+
+                    // all strings of an item are searched
+                    @Override
+                    public double getCost() {
+                        return 2;
+                    }
+
+                    @Override
+                    public double getSelectivity() {
+                        return 0.2;
                     }
                 },
-                new DecideFilterFactoryBase("tag", "Filtert nach Items, die mit exakt diesem Tag getaggt sind.") {
+                new DecideFilterFactoryBase("fuzzy", "Filtert nach Items, deren Name dem Text ähnelt, und sortiert sie nach Ähnlichkeit", moduleContext) {
                     @Override
                     public Filter newInstance(String pattern) {
-                        return new TagFilter(pattern);
+                        return new FuzzyFilter(pattern, moduleContext);
+                    }
+
+                    // the trigrams of the pattern are searched one by one, unless the name is indexed
+                    @Override
+                    public double getCost() {
+                        return 3;
+                    }
+
+                    @Override
+                    public double getSelectivity() {
+                        return 0.2;
+                    }
+                },
+                new DecideFilterFactoryBase("tag", "Filtert nach Items, die mit exakt diesem Tag getaggt sind.", moduleContext) {
+                    @Override
+                    public Filter newInstance(String pattern) {
+                        return new TagFilter(pattern, moduleContext);
+                    }
+
+                    @Override
+                    public double getSelectivity() {
+                        return 0.1;
                     }
                 },
                 new DecideFilterFactoryBase("sparql", "Filtert nach Items, die dieser SPARQL Query entsprechen.", moduleContext) {
@@ -63,18 +113,41 @@ public class GeneralModule extends ModuleBase {
                     public Filter newInstance(String pattern) {
                         return new SparqlFilter(pattern, moduleContext);
                     }
+
+                    // the query is executed once for all items, deciding an item is a lookup
+                    @Override
+                    public double getCost() {
+                        return 2;
+                    }
                 },
                 new DecideFilterFactoryBase("regex", "Filtert nach Items, die dem regulären Ausdruck entsprechen.") {
                     @Override
                     public Filter newInstance(String pattern) {
                         return new RegexFilter(pattern);
                     }
+
+                    // the expression is compiled once, but matching is slower than searching a string
+                    @Override
+                    public double getCost() {
+                        return 5;
+                    }
+
+                    @Override
+                    public double getSelectivity() {
+                        return 0.2;
+                    }
                 },
                 new DecideFilterFactoryBase("uri", "Filtert nach der Ressource mit diesem URI") {
                     @Override
                     public Filter newInstance(String pattern) {
                         return new URIFilter(pattern);
                     }
+
+                    // only a single resource matches
+                    @Override
+                    public double getSelectivity() {
+                        return 0.001;
+                    }
                 }
         ));
     }
@@ -89,13 +162,29 @@ public class GeneralModule extends ModuleBase {
         }
 
         @Override public <T> T getData(Class<T> dataType) throws DataTypeNotSupportedException {
+            return createData(dataType, "");
+        }
+
+        @Override public <T> T getData(Class<T> dataType, Filter filter) throws DataTypeNotSupportedException {
+            String filterClause = getFilterClause(filter, "uri");
+            return filterClause != null ? createData(dataType, filterClause) : null;
+        }
+
+        /**
+         * Create the data of this submodule
+         * @param dataType the requested data type class
+         * @param filterClause a clause that narrows the queries or an empty string
+         * @param <T> the data type type parameter
+         * @return the data
+         * @throws DataTypeNotSupportedException when the requested data type can not be produced by this interactive submodule
+         */
+        private <T> T createData(Class<T> dataType, String filterClause) throws DataTypeNotSupportedException {
             if (dataType == DataList.class) {
-                String query = "SELECT DISTINCT ?uri ?name WHERE { ?uri ?p ?o. ?uri isa:humanReadableName ?name. }";
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
+                String query = "SELECT DISTINCT ?uri ?name WHERE { ?uri ?p ?o. ?uri isa:humanReadableName ?name. " + filterClause + "}";
                 List<DataItem> tags = new ArrayList<>();
-                results.forEach(solution -> {
+                moduleContext.getModel().executeSelectQuery(query, row -> {
                     try {
-                        tags.add(new DataItem(solution.get("name"), moduleContext.getModel().getResource(solution.get("uri"))));
+                        tags.add(new DataItem(row.get(1), moduleContext.getModel().getResource(row.get(0))));
                     } catch (ResourceNotFoundException e) {
                         e.printStackTrace();
                     }
@@ -106,13 +195,12 @@ public class GeneralModule extends ModuleBase {
                 return data;
             } else if (dataType == DataTable.class) {
                 Map<String, DataItem> items = new HashMap<>();
-                String query = "SELECT ?uri ?property ?value  WHERE { ?uri ?property ?value. }";
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
-                results.forEach(solution -> {
+                String query = "SELECT ?uri ?property ?value  WHERE { ?uri ?property ?value. " + filterClause + "}";
+                moduleContext.getModel().executeSelectQuery(query, row -> {
                     try {
-                        String uri = solution.get("uri");
-                        String property = solution.get("property");
-                        String value = solution.get("value");
+                        String uri = row.get(0);
+                        String property = row.get(1);
+                        String value = row.get(2);
                         DataItem item = null;
                         if (items.containsKey(uri)) {
                             item = items.get(uri);
@@ -168,30 +256,16 @@ public class GeneralModule extends ModuleBase {
 
         @Override public <T> T getData(Class<T> dataType) throws DataTypeNotSupportedException {
             if (dataType == DataList.class) {
-                String query = "SELECT DISTINCT ?uri ?name WHERE { ?uri isa:humanReadableName ?name. ?uri isa:tag [isa:tagName ?tagName; isa:tagDetail ?tagDetail].}";
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
-                List<DataItem> tags = new ArrayList<>();
-                results.forEach(result -> {
-                    String name = result.get("name");
-                    String uri = result.get("uri");
-                    try {
-                        tags.add(new DataItem(name, moduleContext.getModel().getResource(uri)));
-                    } catch (ResourceNotFoundException e) {
-                        e.printStackTrace();
-                    }
-                });
-                tags.sort((o1, o2) -> o1.getString().compareToIgnoreCase(o2.getString()));
                 @SuppressWarnings("unchecked") // The if already checks for the correct type
-                        T data = (T) new DataList(tags);
+                        T data = (T) getTaggedResources("");
                 return data;
             } else if (dataType == DataTree.class) {
                 Map<String, TreeItem<DataItem>> tags = new HashMap<>();
                 String query = "SELECT DISTINCT ?uri ?name ?tagName WHERE { ?uri isa:tag [isa:tagName ?tagName; isa:tagDetail ?tagDetail]. ?uri isa:humanReadableName ?name}";
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
-                results.forEach(solution -> {
-                    String tagName = solution.get("tagName");
-                    String uri = solution.get("uri");
-                    String name = solution.get("name");
+                moduleContext.getModel().executeSelectQuery(query, row -> {
+                    String uri = row.get(0);
+                    String name = row.get(1);
+                    String tagName = row.get(2);
                     TreeItem<DataItem> tagItem;
                     if (tags.containsKey(tagName)){
                         tagItem = tags.get(tagName);
@@ -218,5 +292,37 @@ public class GeneralModule extends ModuleBase {
                 throw new DataTypeNotSupportedException(this.getClass().toString() + " does not support datatype " + dataType.toString());
             }
         }
+
+        @Override public <T> T getData(Class<T> dataType, Filter filter) throws DataTypeNotSupportedException {
+            // the tree groups the resources by all their tags, so it is built from all resources
+            String filterClause = dataType == DataList.class ? getFilterClause(filter, "uri") : null;
+            if (filterClause == null) {
+                return null;
+            }
+            @SuppressWarnings("unchecked") // The if already checks for the correct type
+                    T data = (T) getTaggedResources(filterClause);
+            return data;
+        }
+
+        /**
+         * Retrieve the resources, that have tags
+         * @param filterClause a clause that narrows the query or an empty string
+         * @return a list of the resources sorted by name
+         */
+        private DataList getTaggedResources(String filterClause) {
+            String query = "SELECT DISTINCT ?uri ?name WHERE { ?uri isa:humanReadableName ?name. ?uri isa:tag [isa:tagName ?tagName; isa:tagDetail ?tagDetail]. " + filterClause + "}";
+            List<DataItem> tags = new ArrayList<>();
+            moduleContext.getModel().executeSelectQuery(query, row -> {
+                String uri = row.get(0);
+                String name = row.get(1);
+                try {
+                    tags.add(new DataItem(name, moduleContext.getModel().getResource(uri)));
+                } catch (ResourceNotFoundException e) {
+                    e.printStackTrace();
+                }
+            });
+            tags.sort((o1, o2) -> o1.getString().compareToIgnoreCase(o2.getString()));
+            return new DataList(tags);
+        }
     }
 }
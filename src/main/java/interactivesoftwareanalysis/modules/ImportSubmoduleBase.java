@@ -1,13 +1,53 @@
 package interactivesoftwareanalysis.modules;
 
+import interactivesoftwareanalysis.model.ModelBatch;
+import interactivesoftwareanalysis.modules.data.DataSource;
+import interactivesoftwareanalysis.modules.data.TransferStatistics;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.text.MessageFormat;
+
 /**
  * A base class for import submodules
  */
 @RequiredArgsConstructor public abstract class ImportSubmoduleBase implements ImportSubmodule {
+
+    /** The number of imported lines between two progress messages */
+    private static final int LINES_PER_MESSAGE = 10000;
+
     @Getter protected final String name;
     @Getter protected final String description;
     @Getter protected final ModuleContext moduleContext;
+
+    /**
+     * Report the number of imported statements and the import throughput of a closed batch.
+     * If the data source measures its transfers, their totals are reported as well.
+     * @param progress the progress object to report the throughput to
+     * @param batch the batch the import used
+     */
+    protected void reportThroughput(Progress progress, ModelBatch batch) {
+        String message = MessageFormat.format("{0}: {1} Aussagen importiert ({2,number,#} Aussagen/s)",
+                name, batch.getStatementCount(), batch.getStatementsPerSecond());
+        DataSource dataSource = moduleContext.getDataSourceManager() == null ? null : moduleContext.getDataSourceManager().getDataSource();
+        TransferStatistics statistics = dataSource == null ? null : dataSource.getTransferStatistics();
+        if (statistics != null) {
+            message += MessageFormat.format(", insgesamt {0,number,#.#} MB übertragen (Kompression {1,number,#.#}:1, {2,number,#.#} MB/s)",
+                    statistics.getBytesReceived() / 1e6, statistics.getCompressionRatio(), statistics.getThroughput() / 1e6);
+        }
+        progress.setMessage(message);
+    }
+
+    /**
+     * Report the number of lines imported so far from a command output, that is imported while it arrives.
+     * The total number of lines is not known then, so the count is added to the message every few thousand lines.
+     * @param progress the progress object to report the count to
+     * @param message the message describing the import
+     * @param lines the number of lines imported so far
+     */
+    protected void reportLines(Progress progress, String message, long lines) {
+        if (lines % LINES_PER_MESSAGE == 0) {
+            progress.setMessage(MessageFormat.format("{0} ({1} Zeilen)", message, lines));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package interactivesoftwareanalysis.modules;
 import interactivesoftwareanalysis.modules.actions.ModuleAction;
 import interactivesoftwareanalysis.modules.data.DataType;
 import interactivesoftwareanalysis.modules.data.DataTypeNotSupportedException;
+import interactivesoftwareanalysis.modules.filter.Filter;
 
 import java.util.List;
 
@@ -27,6 +28,22 @@ public interface InteractiveSubmodule extends Describable {
      */
     <T> T getData(Class<T> dataType) throws DataTypeNotSupportedException;
 
+    /**
+     * Retrieves data from this interactive submodule, that is narrowed with a filter in the query of the submodule.
+     * The data contains at least all items, that match the filter, but can contain others, so the filter still
+     * has to be applied to it. This is worth it for selective filters on large models, as only few items are retrieved.
+     * The default implementation does not narrow the data.
+     * @param dataType the requested data type class
+     * @param filter the filter, that will be applied to the data
+     * @param <T> the data type type parameter
+     * @return the narrowed data or null, if this submodule can't narrow its data with the filter.
+     *         All data has to be retrieved with {@link #getData(Class)} in that case.
+     * @throws DataTypeNotSupportedException when the requested data type can not be produced by this interactive submodule
+     */
+    default <T> T getData(Class<T> dataType, Filter filter) throws DataTypeNotSupportedException {
+        return null;
+    }
+
     /**
      * Lists module actions provided by this interactive submodule
      * @return a list of provided module actions
@@ -1,20 +1,36 @@
 package interactivesoftwareanalysis.modules;
 
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.Resource;
+import interactivesoftwareanalysis.model.ResourceNotFoundException;
 import interactivesoftwareanalysis.modules.actions.*;
 import interactivesoftwareanalysis.modules.data.DataType;
+import interactivesoftwareanalysis.modules.filter.Filter;
+import interactivesoftwareanalysis.modules.filter.FilterPlan;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * A base class for interactive submodules
  */
 public abstract class InteractiveSubmoduleBase implements InteractiveSubmodule {
 
+    private static final String TYPE_PROPERTY = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+    /** Filters only narrow queries, if they are estimated to match at most this fraction of the items */
+    private static final double MAX_FILTER_SELECTIVITY = 0.5;
+
     @NonNull protected final ModuleContext moduleContext;
 
     @NonNull @Getter private final List<Class<? extends DataType>> supportedDataTypes;
@@ -34,7 +50,63 @@ public abstract class InteractiveSubmoduleBase implements InteractiveSubmodule {
                 new TagModuleAction(moduleContext),
                 new CopyStringModuleAction(moduleContext),
                 new CopyURIModuleAction(moduleContext),
-                new RemoveAllTagsModuleAction(moduleContext)
+                new RemoveAllTagsModuleAction(moduleContext),
+                new RemoveTagModuleAction(moduleContext)
         ));
     }
+
+    /**
+     * Retrieve all resources of some types from the model, to look them up by their uri
+     * @param typeUris the full uris of the types
+     * @return the resources of all given types by their uri
+     */
+    protected Map<String, Resource> getResourcesByUri(String... typeUris) {
+        Map<String, Resource> resources = new HashMap<>();
+        for (String typeUri : typeUris) {
+            moduleContext.getModel().getResources(typeUri).forEach(resource -> resources.put(resource.getUri(), resource));
+        }
+        return resources;
+    }
+
+    /**
+     * Translate a filter into a FILTER clause, that narrows the query of this submodule.
+     * See {@link FilterPlan#getSparqlCondition(String, double)} for details.
+     * @param filter the filter, that will be applied to the data
+     * @param uriVariable the name of the variable in the query, that is bound to the resource of an item
+     * @return the FILTER clause or null, if the filter can't narrow the query
+     */
+    protected String getFilterClause(Filter filter, String uriVariable) {
+        if (!(filter instanceof FilterPlan)) {
+            return null;
+        }
+        String condition = ((FilterPlan) filter).getSparqlCondition(uriVariable, MAX_FILTER_SELECTIVITY);
+        return condition != null ? "FILTER (" + condition + ")" : null;
+    }
+
+    /**
+     * Look up the resources of some types by their uri.
+     * A narrowed query only returns few resources, so they are looked up one by one.
+     * Otherwise, all resources of the types are retrieved at once.
+     * @param narrowed true, if the query is narrowed by a filter
+     * @param typeUris the full uris of the types
+     * @return a function, that returns the resource with an uri or null, if there is no resource of the types
+     */
+    protected Function<String, Resource> getResourceLookup(boolean narrowed, String... typeUris) {
+        if (!narrowed) {
+            return getResourcesByUri(typeUris)::get;
+        }
+        Model model = moduleContext.getModel();
+        Set<String> types = new HashSet<>(Arrays.asList(typeUris));
+        return uri -> {
+            List<String> resourceTypes = model.getAttributeValues(Collections.singleton(uri), TYPE_PROPERTY).get(uri);
+            if (resourceTypes == null || Collections.disjoint(resourceTypes, types)) {
+                return null;
+            }
+            try {
+                return model.getResource(uri);
+            } catch (ResourceNotFoundException e) {
+                return null;
+            }
+        };
+    }
 }
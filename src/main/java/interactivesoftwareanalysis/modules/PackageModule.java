@@ -1,14 +1,15 @@
 package interactivesoftwareanalysis.modules;
 
-import interactivesoftwareanalysis.model.Attribute;
 import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.ModelBatch;
+import interactivesoftwareanalysis.model.PreparedQuery;
 import interactivesoftwareanalysis.model.Resource;
-import interactivesoftwareanalysis.model.ResourceNotFoundException;
 import interactivesoftwareanalysis.modules.actions.ResourceSelectionModuleAction;
 import interactivesoftwareanalysis.modules.data.*;
-import interactivesoftwareanalysis.modules.filter.DecideFilterBase;
+import interactivesoftwareanalysis.modules.filter.AskQueryFilterBase;
 import interactivesoftwareanalysis.modules.filter.DecideFilterFactoryBase;
 import interactivesoftwareanalysis.modules.filter.Filter;
+import interactivesoftwareanalysis.modules.filter.SparqlTerms;
 import interactivesoftwareanalysis.modules.parameters.FileParameter;
 import interactivesoftwareanalysis.modules.parameters.StringParameter;
 import interactivesoftwareanalysis.modules.parameters.VisitParameter;
@@ -20,6 +21,8 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -71,6 +74,12 @@ public class PackageModule extends ModuleBase {
             public Filter newInstance(String pattern) {
                 return new PackageFileFilter(pattern);
             }
+
+            // only the files of one package match
+            @Override
+            public double getSelectivity() {
+                return 0.01;
+            }
         });
     }
 
@@ -86,17 +95,33 @@ public class PackageModule extends ModuleBase {
 
         @Override
         public <T> T getData(Class<T> dataType) throws DataTypeNotSupportedException {
+            return createData(dataType, null);
+        }
+
+        @Override
+        public <T> T getData(Class<T> dataType, Filter filter) throws DataTypeNotSupportedException {
+            String filterClause = getFilterClause(filter, "uri");
+            return filterClause != null ? createData(dataType, filterClause) : null;
+        }
+
+        /**
+         * Create the data of this submodule
+         * @param dataType the requested data type class
+         * @param filterClause a clause that narrows the queries or null
+         * @param <T> the data type type parameter
+         * @return the data
+         * @throws DataTypeNotSupportedException when the requested data type can not be produced by this interactive submodule
+         */
+        private <T> T createData(Class<T> dataType, String filterClause) throws DataTypeNotSupportedException {
+            // the resources are taken from the type index instead of looking up every single one, unless there are only few
+            Function<String, Resource> resources = getResourceLookup(filterClause != null, NAMESPACE + "package");
+            String filterPattern = filterClause != null ? filterClause : "";
             if (dataType == DataList.class) {
-                String query = "SELECT DISTINCT ?uri ?name ?version WHERE { ?uri rdf:type isa:package. ?uri isa:humanReadableName ?name. ?uri isa:packageVersion ?version}";
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
+                String query = "SELECT DISTINCT ?uri ?name ?version WHERE { ?uri rdf:type isa:package. ?uri isa:humanReadableName ?name. ?uri isa:packageVersion ?version. " + filterPattern + "}";
                 List<DataItem> packages = new ArrayList<>();
-                results.forEach(solution -> {
-                    try {
-                        String name = MessageFormat.format("{0} ({1})", solution.get("name"), solution.get("version"));
-                        packages.add(new DataItem(name, moduleContext.getModel().getResource(solution.get("uri"))));
-                    } catch (ResourceNotFoundException e) {
-                        e.printStackTrace();
-                    }
+                moduleContext.getModel().executeSelectQuery(query, row -> {
+                    String name = MessageFormat.format("{0} ({1})", row.get(1), row.get(2));
+                    packages.add(new DataItem(name, resources.apply(row.get(0))));
                 });
                 packages.sort((o1, o2) -> o1.getString().compareToIgnoreCase(o2.getString()));
                 @SuppressWarnings("unchecked") // The if already checks for the correct type
@@ -111,29 +136,25 @@ public class PackageModule extends ModuleBase {
                         "?uri isa:packageSection ?section." +
                         "?uri isa:packageEssential ?essential." +
                         "?uri isa:packagePriority ?priority." +
-                        "?uri isa:packageDependencies ?dependencies." +
+                        "?uri isa:packageDependencies ?dependencies. " +
+                        filterPattern +
                         "}";
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
                 List<DataItem> packages = new ArrayList<>();
-                results.forEach(solution -> {
-                    try {
-                        String name = solution.get("name");
-                        String version = solution.get("version");
-                        String section = solution.get("section");
-                        String essential = solution.get("essential");
-                        String priority = solution.get("priority");
-                        String dependencies = solution.get("dependencies");
-                        DataItem dataItem = new DataItem(name, moduleContext.getModel().getResource(solution.get("uri")));
-                        dataItem.getStrings().put("Name", name);
-                        dataItem.getStrings().put("Version", version);
-                        dataItem.getStrings().put("Kategorie", section);
-                        dataItem.getStrings().put("Wichtig", essential);
-                        dataItem.getStrings().put("Priorität", priority);
-                        dataItem.getStrings().put("Abhängigkeiten", dependencies);
-                        packages.add(dataItem);
-                    } catch (ResourceNotFoundException e) {
-                        e.printStackTrace();
-                    }
+                moduleContext.getModel().executeSelectQuery(query, row -> {
+                    String name = row.get(1);
+                    String version = row.get(2);
+                    String section = row.get(3);
+                    String essential = row.get(4);
+                    String priority = row.get(5);
+                    String dependencies = row.get(6);
+                    DataItem dataItem = new DataItem(name, resources.apply(row.get(0)));
+                    dataItem.getStrings().put("Name", name);
+                    dataItem.getStrings().put("Version", version);
+                    dataItem.getStrings().put("Kategorie", section);
+                    dataItem.getStrings().put("Wichtig", essential);
+                    dataItem.getStrings().put("Priorität", priority);
+                    dataItem.getStrings().put("Abhängigkeiten", dependencies);
+                    packages.add(dataItem);
                 });
                 packages.sort((o1, o2) -> o1.getString().compareToIgnoreCase(o2.getString()));
                 @SuppressWarnings("unchecked") // The if already checks for the correct type
@@ -152,19 +173,18 @@ public class PackageModule extends ModuleBase {
             @Override
             public void execute(List<DataItem> input) {
                 Model model = moduleContext.getModel();
+                List<String> packageUris = input.stream().map(dataItem -> dataItem.getResource().getUri()).collect(Collectors.toList());
+                // two lookups for all packages instead of two queries per package
+                Map<String, List<String>> packageNames = model.getAttributeValues(packageUris, NAMESPACE + "packageName");
+                Map<String, List<String>> packageFiles = model.getAttributeValues(packageUris, NAMESPACE + "packageFile");
                 model.setBatchMode(true);
-                for (DataItem dataItem : input) {
-                    Resource resource = dataItem.getResource();
-                    String packageName = resource.getAttributes(NAMESPACE + "packageName").get(0).getValue();
-                    List<String> fileUris = resource.getAttributes(NAMESPACE + "packageFile").stream().map(Attribute::getValue).collect(Collectors.toList());
-                    fileUris.forEach(uri -> {
-                        try {
-                            Resource file = model.getResource(uri);
-                            file.addTag(packageName, MessageFormat.format("Gehört zum Paket {0} (Automatisch getaggt duch das Paketmodul)", packageName));
-                        } catch (ResourceNotFoundException e) {
-                            // a file that does not exist can not be tagged. Just ignored.
-                        }
-                    });
+                for (String packageUri : packageUris) {
+                    if (packageNames.containsKey(packageUri) && packageFiles.containsKey(packageUri)) {
+                        String packageName = packageNames.get(packageUri).get(0);
+                        // files that do not exist are skipped by the model
+                        model.addTags(packageFiles.get(packageUri), packageName,
+                                MessageFormat.format("Gehört zum Paket {0} (Automatisch getaggt duch das Paketmodul)", packageName));
+                    }
                 }
                 model.setBatchMode(false);
             }
@@ -184,18 +204,19 @@ public class PackageModule extends ModuleBase {
         public boolean doImport(Progress progress) {
             Model model = moduleContext.getModel();
             DataSource dataSource = moduleContext.getDataSourceManager().getDataSource();
-            model.setBatchMode(true);
 
             progress.setMessage("Lade Paketinformationen von der Datenquelle");
 
+            String message = "Importiere Paketinformationen in das interne Modell";
+            ModelBatch batch = model.newBatch();
+            boolean successful = false;
             try {
-                String[] lines = dataSource.execute("dpkg-query -W -f='${Package}\\t${Version}\\t${Section}\\t${Essential}\\t${Priority}\\t${Depends}\\n'").split("\n");
-
-                progress.setMessage("Importiere Paketinformationen in das interne Modell");
-
-                int totalLines = lines.length;
-                int currentLines = 0;
-                for (String line : lines) {
+                AtomicLong lines = new AtomicLong();
+                // the packages are imported, while the output arrives
+                dataSource.executeLines("dpkg-query -W -f='${Package}\\t${Version}\\t${Section}\\t${Essential}\\t${Priority}\\t${Depends}\\n'", line -> {
+                    if (lines.get() == 0) {
+                        progress.setMessage(message);
+                    }
                     String[] elements = line.split("\t");
                     String name = elements.length >= 1 ? elements[0] : "";
                     String version = elements.length >= 2 ? elements[1] : "";
@@ -203,21 +224,29 @@ public class PackageModule extends ModuleBase {
                     String essential = elements.length >= 4 ? elements[3] : "";
                     String priority = elements.length >= 5 ? elements[4] : "";
                     String dependencies = elements.length >= 6 ? elements[5] : "";
-                    Resource resource = model.createResource(NAMESPACE + "package" + name.hashCode(), NAMESPACE + "package", name);
-                    resource.addAttribute(NAMESPACE + "packageName", name);
-                    resource.addAttribute(NAMESPACE + "packageVersion", version);
-                    resource.addAttribute(NAMESPACE + "packageSection", section);
-                    resource.addAttribute(NAMESPACE + "packageEssential", essential);
-                    resource.addAttribute(NAMESPACE + "packagePriority", priority);
-                    resource.addAttribute(NAMESPACE + "packageDependencies", dependencies);
-                    progress.setProgress(++currentLines / (double) totalLines);
-                }
+                    String uri = NAMESPACE + "package" + name.hashCode();
+                    batch.addResource(uri, NAMESPACE + "package", name);
+                    batch.addAttribute(uri, NAMESPACE + "packageName", name);
+                    batch.addAttribute(uri, NAMESPACE + "packageVersion", version);
+                    batch.addAttribute(uri, NAMESPACE + "packageSection", section);
+                    batch.addAttribute(uri, NAMESPACE + "packageEssential", essential);
+                    batch.addAttribute(uri, NAMESPACE + "packagePriority", priority);
+                    batch.addAttribute(uri, NAMESPACE + "packageDependencies", dependencies);
+                    reportLines(progress, message, lines.incrementAndGet());
+                });
+                successful = true;
             } catch (DataSourceExecuteException e) {
                 e.printStackTrace();
                 return false;
             } finally {
-                model.setBatchMode(false);
+                if (successful) {
+                    batch.close();
+                } else {
+                    // a failed import is not committed
+                    batch.abort();
+                }
             }
+            reportThroughput(progress, batch);
 
             return true;
         }
@@ -236,42 +265,65 @@ public class PackageModule extends ModuleBase {
         public boolean doImport(Progress progress) {
             Model model = moduleContext.getModel();
             DataSource dataSource = moduleContext.getDataSourceManager().getDataSource();
-            model.setBatchMode(true);
 
             progress.setMessage("Lade Informationen über zu Paketen gehörende Dateien von der Datenquelle");
 
+            // the existing packages and files are loaded once instead of looking up both for every line
+            Set<String> packageUris = getResourceUris(model, NAMESPACE + "package");
+            Set<String> fileUris = getResourceUris(model, NAMESPACE + "file", NAMESPACE + "directory", NAMESPACE + "symlink");
+
+            String message = "Importiere Informationen über zu Paketen gehörende Dateien in das interne Modell";
+            ModelBatch batch = model.newBatch();
+            boolean successful = false;
             try {
-                String[] lines = dataSource.execute("dpkg --get-selections | grep install | awk '{print($1)}' | " +
+                AtomicLong lines = new AtomicLong();
+                // the files are imported, while the output arrives
+                dataSource.executeLines("dpkg --get-selections | grep install | awk '{print($1)}' | " +
                         "sed 's/:.*$//' | while read i; do dpkg -L $i  | " +
-                        "while read j; do printf '%s\\t%s\\n' \"$i\" \"$j\";  done; done").split("\n");
-
-                progress.setMessage("Importiere Informationen über zu Paketen gehörende Dateien in das interne Modell");
-
-                int totalLines = lines.length;
-                int currentLines = 0;
-                for (String line : lines) {
+                        "while read j; do printf '%s\\t%s\\n' \"$i\" \"$j\";  done; done", line -> {
+                    if (lines.get() == 0) {
+                        progress.setMessage(message);
+                    }
                     String[] elements = line.split("\t");
                     if (elements.length >= 2) {
-                        String packageName = elements[0];
-                        String filePath = elements[1];
-                        try {
-                            Resource packageResource = model.getResource(NAMESPACE + "package" + packageName.hashCode());
-                            Resource fileResource = model.getResource(NAMESPACE + "filesystemitem" + filePath.hashCode());
-                            packageResource.addResourceAttribute(NAMESPACE + "packageFile", fileResource.getUri());
-                        } catch (ResourceNotFoundException e) {
-                            // it is okay, when a resource is not found. just ignore it then.
+                        String packageUri = NAMESPACE + "package" + elements[0].hashCode();
+                        String fileUri = NAMESPACE + "filesystemitem" + elements[1].hashCode();
+                        // it is okay, when a resource is not found. just ignore it then.
+                        if (packageUris.contains(packageUri) && fileUris.contains(fileUri)) {
+                            batch.addResourceAttribute(packageUri, NAMESPACE + "packageFile", fileUri);
                         }
                     }
-                    progress.setProgress(++currentLines / (double) totalLines);
-                }
+                    reportLines(progress, message, lines.incrementAndGet());
+                });
+                successful = true;
             } catch (DataSourceExecuteException e) {
                 e.printStackTrace();
                 return false;
             } finally {
-                model.setBatchMode(false);
+                if (successful) {
+                    batch.close();
+                } else {
+                    // a failed import is not committed
+                    batch.abort();
+                }
             }
+            reportThroughput(progress, batch);
             return true;
         }
+
+        /**
+         * Retrieve the uris of all resources of the given types
+         * @param model the model
+         * @param typeUris the uris of the types
+         * @return a set of resource uris
+         */
+        private Set<String> getResourceUris(Model model, String... typeUris) {
+            Set<String> uris = new HashSet<>();
+            for (String typeUri : typeUris) {
+                model.getResources(typeUri).forEach(resource -> uris.add(resource.getUri()));
+            }
+            return uris;
+        }
     }
 
     private class DPKGPackageSelectionExportModule extends ExportSubmoduleBase {
@@ -305,8 +357,9 @@ public class PackageModule extends ModuleBase {
 
                 // get all packages and sort alphabetically
                 String query = MessageFormat.format("SELECT DISTINCT ?name WHERE '{' ?uri rdf:type isa:package. ?uri isa:packageName ?name. {0}'}'", filterQuery);
-                List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
-                results.sort((o1, o2) -> o1.get("name").compareToIgnoreCase(o2.get("name")));
+                List<String> names = new ArrayList<>();
+                moduleContext.getModel().executeSelectQuery(query, row -> names.add(row.get(0)));
+                names.sort(String::compareToIgnoreCase);
 
                 // create the file, if it does not already exist
                 try {
@@ -318,10 +371,10 @@ public class PackageModule extends ModuleBase {
 
                 // write the package list for dpkg
                 try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(file.getPath()))) {
-                    writer.write(MessageFormat.format("# Pakete: {0}", results.size()));
+                    writer.write(MessageFormat.format("# Pakete: {0}", names.size()));
                     writer.newLine();
-                    for (Map<String, String> result : results) {
-                        writer.write(MessageFormat.format("{0} install", result.get("name")));
+                    for (String name : names) {
+                        writer.write(MessageFormat.format("{0} install", name));
                         writer.newLine();
                     }
                 } catch (IOException e) {
@@ -337,9 +390,8 @@ public class PackageModule extends ModuleBase {
          */
         private List<String> getTagNames() {
             String query = "SELECT DISTINCT ?tagName WHERE { ?thing isa:tag [isa:tagName ?tagName; isa:tagDetail ?tagDetail]}";
-            List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
             List<String> tags = new ArrayList<>();
-            results.forEach(solution -> tags.add(solution.get("tagName")));
+            moduleContext.getModel().executeSelectQuery(query, row -> tags.add(row.get(0)));
             return tags;
         }
     }
@@ -347,22 +399,40 @@ public class PackageModule extends ModuleBase {
     /**
      * Filters files that belong to a package, or packages that belong to a file.
      */
-    private class PackageFileFilter extends DecideFilterBase {
+    private class PackageFileFilter extends AskQueryFilterBase {
+
+        /** The maximum number of matching resources, that a query condition lists */
+        private static final int MAX_CONDITION_URIS = 1000;
+
+        private static final String PATTERN = "{?package isa:packageName ?pattern. ?package isa:packageFile ?uri.}" +
+                " UNION {?uri isa:packageFile ?file. ?file isa:path ?pattern.}";
+
+        private final PreparedQuery preparedQuery;
 
         public PackageFileFilter(String pattern) {
             super(pattern);
+            preparedQuery = moduleContext.getModel().prepareQuery("ASK { " + PATTERN + " }").bindLiteral("pattern", pattern);
         }
 
         @Override
-        public boolean filter(DataItem dataItem) {
-            Resource resource = dataItem.getResource();
-            if (resource == null) {
-                return false;
+        protected PreparedQuery getPreparedQuery() {
+            return preparedQuery;
+        }
+
+        @Override
+        public String toSparqlCondition(String uriVariable, String variablePrefix) {
+            // a package has few files and a file few packages, so the matching resources are listed,
+            // which is much cheaper to check for every row than the pattern
+            Set<String> uris = new HashSet<>();
+            moduleContext.getModel().prepareQuery("SELECT DISTINCT ?uri WHERE { " + PATTERN + " }")
+                    .bindLiteral("pattern", pattern)
+                    .executeSelect(row -> uris.add(SparqlTerms.uri(row.get(0))));
+            if (uris.isEmpty()) {
+                return "false";
+            } else if (uris.size() > MAX_CONDITION_URIS || uris.contains(null)) {
+                return null;
             }
-            Model model = moduleContext.getModel();
-            String query = MessageFormat.format("ASK '{' '{'?package isa:packageName \"{0}\". ?package isa:packageFile <{1}>.'}'" +
-                    " UNION '{'<{1}> isa:packageFile ?file. ?file isa:path \"{0}\".'}' '}'", pattern, resource.getUri());
-            return model.executeAskQuery(query);
+            return SparqlTerms.variable(uriVariable) + " IN (" + String.join(", ", uris) + ")";
         }
     }
 
@@ -1,9 +1,11 @@
 package interactivesoftwareanalysis.modules.actions;
 
+import interactivesoftwareanalysis.model.Resource;
 import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.data.DataItem;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * An action that hides selected resources by tagging them with 'ausgeblendet'
@@ -15,11 +17,11 @@ public class HideModuleAction extends ResourceSelectionModuleAction {
     }
 
     @Override public void execute(List<DataItem> input) {
-        moduleContext.getModel().setBatchMode(true);
-        input.stream()
+        List<String> resourceUris = input.stream()
                 .map(DataItem::getResource)
                 .filter(resource -> resource != null)
-                .forEach(resource -> resource.addTag("ausgeblendet", "Wurde von einem Nutzer ausgeblendet."));
-        moduleContext.getModel().setBatchMode(false);
+                .map(Resource::getUri)
+                .collect(Collectors.toList());
+        moduleContext.getModel().addTags(resourceUris, "ausgeblendet", "Wurde von einem Nutzer ausgeblendet.");
     }
 }
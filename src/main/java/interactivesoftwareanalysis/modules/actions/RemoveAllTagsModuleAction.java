@@ -2,11 +2,9 @@ package interactivesoftwareanalysis.modules.actions;
 
 import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.data.DataItem;
-import interactivesoftwareanalysis.modules.parameters.StringParameter;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * A module action that removes all tags form selected resources
@@ -21,16 +19,11 @@ public class RemoveAllTagsModuleAction extends ResourceSelectionModuleAction {
 
         // removing a lot of tags might take a while, so don't block the gui thread.
         new Thread(() -> {
-            moduleContext.getModel().setBatchMode(true);
-
-            // select all tag statements of this resource in the model
-            // and remove them
-            for (DataItem dataItem : input) {
-                String resourceUri = dataItem.getResource().getUri();
-                String propertyUri = "http://interactivesoftwareanalysis/tag";
-                moduleContext.getModel().removeStatements(resourceUri, propertyUri);
-            }
-            moduleContext.getModel().setBatchMode(false);
+            List<String> resourceUris = input.stream()
+                    .map(dataItem -> dataItem.getResource().getUri())
+                    .collect(Collectors.toList());
+            // removes the tags completely, not only their link to the resources
+            moduleContext.getModel().removeTags(resourceUris, null);
         }).start();
     }
 }
@@ -0,0 +1,47 @@
+package interactivesoftwareanalysis.modules.actions;
+
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.modules.ModuleContext;
+import interactivesoftwareanalysis.modules.parameters.StringParameter;
+import interactivesoftwareanalysis.modules.parameters.VisitParameter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A module action that removes tags from all resources in the model, that are tagged with them
+ */
+public class RemoveTagModuleAction extends NoSelectionModuleAction {
+
+    @VisitParameter private StringParameter tagName;
+
+    public RemoveTagModuleAction(ModuleContext moduleContext) {
+        super("Tag überall entfernen", "Entfernt Tags von allen Ressourcen im Modell", moduleContext);
+        tagName = new StringParameter("Tagname", "Die Bezeichnung des Tags, der entfernt werden soll. "
+                + "Mehrere Tags können durch Komma getrennt angegeben werden.", () -> "", this::getTagNames);
+        tagName.setList(true);
+        tagName.setSeparator(",");
+    }
+
+    /**
+     * Retrieve a list of tag names used in the model
+     * @return a list of tag names
+     */
+    private List<String> getTagNames() {
+        String query = "SELECT DISTINCT ?tagName WHERE { ?thing isa:tag [isa:tagName ?tagName]}";
+        List<String> tags = new ArrayList<>();
+        moduleContext.getModel().executeSelectQuery(query, row -> tags.add(row.get(0)));
+        return tags;
+    }
+
+    @Override public void execute() {
+        Model model = moduleContext.getModel();
+        model.setBatchMode(true);
+        for (String tagNameString : tagName.getValues()) {
+            if (!tagNameString.isEmpty()) {
+                model.removeTag(tagNameString.trim());
+            }
+        }
+        model.setBatchMode(false);
+    }
+}
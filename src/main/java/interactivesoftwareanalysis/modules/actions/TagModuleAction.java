@@ -1,5 +1,7 @@
 package interactivesoftwareanalysis.modules.actions;
 
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.Resource;
 import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.data.DataItem;
 import interactivesoftwareanalysis.modules.parameters.StringParameter;
@@ -7,7 +9,7 @@ import interactivesoftwareanalysis.modules.parameters.VisitParameter;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * A module action that adds tags to selected resources
@@ -34,24 +36,24 @@ public class TagModuleAction extends ResourceSelectionModuleAction {
      */
     private List<String> getTagNames() {
         String query = "SELECT DISTINCT ?tagName WHERE { ?thing isa:tag [isa:tagName ?tagName; isa:tagDetail ?tagDetail]}";
-        List<Map<String, String>> results = moduleContext.getModel().executeSelectQuery(query);
         List<String> tags = new ArrayList<>();
-        results.forEach(solution -> tags.add(solution.get("tagName")));
+        moduleContext.getModel().executeSelectQuery(query, row -> tags.add(row.get(0)));
         return tags;
     }
 
     @Override public void execute(List<DataItem> input) {
-        moduleContext.getModel().setBatchMode(true);
-        input.stream()
+        Model model = moduleContext.getModel();
+        List<String> resourceUris = input.stream()
                 .map(DataItem::getResource)
                 .filter(resource -> resource != null)
-                .forEach(resource -> {
-                    for (String tagNameString : tagName.getValues()) {
-                        if (!tagNameString.isEmpty()) {
-                            resource.addTag(tagNameString.trim(), tagDetail.getValue());
-                        }
-                    }
-                });
-        moduleContext.getModel().setBatchMode(false);
+                .map(Resource::getUri)
+                .collect(Collectors.toList());
+        model.setBatchMode(true);
+        for (String tagNameString : tagName.getValues()) {
+            if (!tagNameString.isEmpty()) {
+                model.addTags(resourceUris, tagNameString.trim(), tagDetail.getValue());
+            }
+        }
+        model.setBatchMode(false);
     }
 }
@@ -0,0 +1,29 @@
+package interactivesoftwareanalysis.modules.data;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Signals long running operations on data, e.g. filtering, that their result is not needed anymore.
+ * The operations check it regularly and stop by throwing a {@link CancellationException}.
+ */
+@FunctionalInterface public interface Cancellation {
+
+    /** A cancellation that never cancels */
+    Cancellation NONE = () -> false;
+
+    /**
+     * Decide, whether the operation should stop
+     * @return true, if the result is not needed anymore
+     */
+    boolean isCancelled();
+
+    /**
+     * Stop the operation, if it is cancelled
+     * @throws CancellationException if the operation is cancelled
+     */
+    default void check() {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package interactivesoftwareanalysis.modules.data;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A connection to a host, that executes commands on channels of its own, like an authenticated ssh session.
+ * A connection has to execute several commands at the same time. Tests can use a local stand-in for an ssh server.
+ */
+public interface CommandConnection {
+
+    /**
+     * Execute a command on a new channel of this connection and wait, until it finished
+     * @param command the command to execute
+     * @param output the stream to write the output of the command to
+     * @throws IOException when the command could not be executed or the connection failed
+     */
+    void execute(String command, OutputStream output) throws IOException;
+
+    /**
+     * Decide, whether this connection can still execute commands
+     * @return true, iff the connection is still open
+     */
+    boolean isConnected();
+
+    /**
+     * Close this connection. Commands, that still run, fail.
+     */
+    void close();
+}
@@ -0,0 +1,28 @@
+package interactivesoftwareanalysis.modules.data;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Measurements of a command, that a data source executed
+ */
+@RequiredArgsConstructor @Getter public class CommandMetrics {
+
+    /** The executed command */
+    private final String command;
+
+    /** The time the command waited for a free channel in ms */
+    private final long waitTime;
+
+    /** The time from starting the command to receiving the first byte of its output in ms or -1, if there was no output */
+    private final long latency;
+
+    /** The time from starting the command to receiving the end of its output in ms */
+    private final long duration;
+
+    /** The number of bytes of output received */
+    private final long bytesReceived;
+
+    /** Whether the command finished without failing */
+    private final boolean successful;
+}
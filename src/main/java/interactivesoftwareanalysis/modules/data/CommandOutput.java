@@ -0,0 +1,134 @@
+package interactivesoftwareanalysis.modules.data;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The output of a command, that is read while the command still runs.</p>
+ *
+ * <p>The command writes its output to the sink on another thread. Writing blocks, while the reader is more than
+ * a few chunks behind, so the output is never held in memory as a whole. When the reader closes the output
+ * before the end, further writing fails, so the command stops.</p>
+ */
+class CommandOutput extends InputStream {
+
+    /** The maximum number of written chunks, that were not read yet */
+    private static final int MAX_CHUNKS = 64;
+
+    /** The interval to check, whether the reader closed the output, while writing blocks in ms */
+    private static final long CLOSED_CHECK_INTERVAL = 100;
+
+    /** Marks the end of the output in the queue */
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS);
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private byte[] chunk;
+    private int position;
+
+    /** The stream, that the command writes its output to */
+    @Getter private final OutputStream sink = new OutputStream() {
+        @Override public void write(int b) throws IOException {
+            put(new byte[]{(byte) b});
+        }
+
+        @Override public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                put(Arrays.copyOfRange(b, off, off + len));
+            }
+        }
+    };
+
+    /**
+     * Mark the end of the output, after the command finished
+     * @param failure the reason, why the command failed, or null, if it succeeded
+     */
+    void finish(IOException failure) {
+        this.failure = failure;
+        try {
+            put(END);
+        } catch (IOException e) {
+            // the reader does not wait for the end anymore
+        }
+    }
+
+    private void put(byte[] data) throws IOException {
+        try {
+            while (!closed) {
+                if (chunks.offer(data, CLOSED_CHECK_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Writing the command output was interrupted");
+        }
+        throw new IOException("The command output was closed by the reader");
+    }
+
+    @Override public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Wait for a chunk with unread bytes
+     * @return true, if there are unread bytes, false at the end of the output
+     * @throws IOException when the command failed or the output was closed
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("The command output is closed");
+        }
+        while (chunk != END && (chunk == null || position == chunk.length)) {
+            try {
+                chunk = chunks.take();
+                position = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Reading the command output was interrupted");
+            }
+        }
+        if (chunk == END) {
+            if (failure != null) {
+                throw new IOException("The command failed", failure);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override public int available() {
+        return chunk != null && chunk != END ? chunk.length - position : 0;
+    }
+
+    @Override public void close() {
+        closed = true;
+        // unblock the command, so that it notices, that the output was closed
+        chunks.clear();
+    }
+}
@@ -1,13 +1,21 @@
 package interactivesoftwareanalysis.modules.data;
 
+import interactivesoftwareanalysis.model.Model;
 import interactivesoftwareanalysis.model.Resource;
 import interactivesoftwareanalysis.model.Tag;
+import interactivesoftwareanalysis.model.TextMatches;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.Setter;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -16,11 +24,23 @@ import java.util.stream.Collectors;
  * Data items can contain one or multiple string value and an optional resource.
  */
 @Data public class DataItem {
+
+    /** Separates the strings in the text key. Patterns entered by users never contain it. */
+    private static final char KEY_SEPARATOR = '\0';
+
     private Resource resource;
     @NonNull private String string;
     @NonNull private Map<String, String> strings = new HashMap<>();
     @NonNull private List<Tag> tags = new ArrayList<>();
 
+    /** The case folded keys for searching, computed on first use. Transient fields are not part of equals and hashCode. */
+    @Setter(AccessLevel.NONE) private transient volatile String nameKey;
+    @Setter(AccessLevel.NONE) private transient volatile String textKey;
+
+    /** The stamps of the strings in the trigram index of the model, so they are only looked up once */
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) private transient volatile long nameStamp = TextMatches.NOT_INDEXED;
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) private transient volatile long textStamp = TextMatches.NOT_INDEXED;
+
     /**
      * Create a new data item with a non-null string value and an optional resource (may be null)
      * @param string a string that acts as a display value for this item
@@ -31,6 +51,123 @@ import java.util.stream.Collectors;
         this.resource = resource;
     }
 
+    public void setString(@NonNull String string) {
+        this.string = string;
+        clearKeys();
+    }
+
+    public void setStrings(@NonNull Map<String, String> strings) {
+        this.strings = strings;
+        clearKeys();
+    }
+
+    /**
+     * Retrieve the case folded string value for case insensitive searching.
+     * The key is computed once, so the string values must not be changed through {@link #getStrings()}
+     * anymore, when items are filtered. The same applies to the stamps of the strings in the trigram index.
+     * @return the string value in lower case
+     */
+    public String getNameKey() {
+        String key = nameKey;
+        if (key == null) {
+            key = foldCase(string);
+            nameKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Retrieve the case folded string value and all other string values in one string for case insensitive searching.
+     * The values are separated by a character, that is not contained in search patterns,
+     * so a pattern is contained in the key, iff it is contained in one of the values.
+     * Like {@link #getNameKey()}, the key is computed once.
+     * @return the string values in lower case
+     */
+    public String getTextKey() {
+        String key = textKey;
+        if (key == null) {
+            if (strings.isEmpty()) {
+                key = getNameKey();
+            } else {
+                StringBuilder builder = new StringBuilder(getNameKey());
+                strings.values().forEach(value -> builder.append(KEY_SEPARATOR).append(foldCase(value)));
+                key = builder.toString();
+            }
+            textKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Decide, whether the string value was indexed in a snapshot of the models trigram index.
+     * The stamp of the string is remembered, so it is looked up in the index only once.
+     * @param matches the snapshot
+     * @return true, iff the snapshot decides, whether the string value matches
+     */
+    public boolean isNameIndexed(TextMatches matches) {
+        if (!matches.isIndexed(nameStamp)) {
+            nameStamp = matches.stamp(Collections.singletonList(string));
+        }
+        return matches.isIndexed(nameStamp);
+    }
+
+    /**
+     * Decide, whether the string value and all other string values were indexed in a snapshot of the models trigram index.
+     * Like {@link #isNameIndexed(TextMatches)}, the stamp of the strings is remembered.
+     * @param matches the snapshot
+     * @return true, iff the snapshot decides, whether each of the string values matches
+     */
+    public boolean isTextIndexed(TextMatches matches) {
+        if (!matches.isIndexed(textStamp)) {
+            List<String> values = new ArrayList<>(strings.values());
+            values.add(string);
+            textStamp = matches.stamp(values);
+        }
+        return matches.isIndexed(textStamp);
+    }
+
+    /**
+     * Fold the case of a string, to compare it case insensitive with another folded string
+     * @param string the string
+     * @return the string in lower case
+     */
+    public static String foldCase(String string) {
+        return string.toLowerCase(Locale.ROOT);
+    }
+
+    private void clearKeys() {
+        nameKey = null;
+        textKey = null;
+        nameStamp = TextMatches.NOT_INDEXED;
+        textStamp = TextMatches.NOT_INDEXED;
+    }
+
+    /**
+     * Retrieve the tags of this items resource from the model again.
+     * Items without a resource are not changed.
+     */
+    public void refreshTags() {
+        if (resource != null) {
+            setTags(resource.getTags());
+        }
+    }
+
+    /**
+     * Retrieve the tags of many items resources from the model with one call per model.
+     * This is much faster than refreshing the tags of every item on its own.
+     * Items without a resource are not changed.
+     * @param dataItems the items to refresh the tags of
+     */
+    public static void refreshTags(Collection<DataItem> dataItems) {
+        Map<Model, List<DataItem>> itemsByModel = dataItems.stream()
+                .filter(dataItem -> dataItem.getResource() != null)
+                .collect(Collectors.groupingBy(dataItem -> dataItem.getResource().getModel()));
+        itemsByModel.forEach((model, items) -> {
+            Map<String, List<Tag>> tags = model.getTags(items.stream().map(dataItem -> dataItem.getResource().getUri()).collect(Collectors.toList()));
+            items.forEach(dataItem -> dataItem.setTags(tags.getOrDefault(dataItem.getResource().getUri(), Collections.emptyList())));
+        });
+    }
+
     @Override public String toString(){
         if (!tags.isEmpty()){
             return string + " (" + tags.stream().map(Tag::getName).collect(Collectors.joining(", ")) + ")";
@@ -4,6 +4,7 @@ import interactivesoftwareanalysis.modules.filter.Filter;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -13,30 +14,83 @@ import java.util.stream.Collectors;
 public class DataList implements DataType {
     private final List<DataItem> list;
 
+    /**
+     * Create a new data list. The tags of the data items are retrieved from the model.
+     * @param list the data items in this list
+     */
+    public DataList(List<DataItem> list) {
+        this.list = list;
+        DataItem.refreshTags(list);
+    }
+
     /**
      * Retrieve this data structures content as a list of data items while filtering it
      * @param filter the filter to use on the data
      * @return a filtered list of data items in this data list
      */
     public List<DataItem> getFilteredList(Filter filter) {
+        return getFilteredList(filter, Cancellation.NONE);
+    }
+
+    /**
+     * Retrieve this data structures content as a list of data items while filtering it
+     * @param filter the filter to use on the data
+     * @param cancellation stops the filtering, when its result is not needed anymore
+     * @return a filtered list of data items in this data list
+     * @throws java.util.concurrent.CancellationException if the filtering was cancelled
+     */
+    public List<DataItem> getFilteredList(Filter filter, Cancellation cancellation) {
         if (filter != null){
-            return getList().stream().parallel().filter(filter::filter).collect(Collectors.toList());
+            return filter(getList(), filter, cancellation);
         }else{
             return getList();
         }
     }
 
     /**
-     * Retrieve the list of data items in this data type
-     * @return
+     * Filter the result of a previous filtering again with a filter, that refines the previous filter.
+     * This gives the same result as {@link #getFilteredList(Filter)}, but only the previously matching items are decided.
+     * @param filteredList the data items, that matched the previous filter
+     * @param filter the refined filter
+     * @param cancellation stops the filtering, when its result is not needed anymore
+     * @return a filtered list of data items in this data list
+     * @throws java.util.concurrent.CancellationException if the filtering was cancelled
+     */
+    public List<DataItem> refineFilteredList(List<DataItem> filteredList, Filter filter, Cancellation cancellation) {
+        return filter(filteredList, filter, cancellation);
+    }
+
+    /**
+     * Filter data items in parallel
+     * @param dataItems the data items to filter
+     * @param filter the filter to use
+     * @param cancellation is checked for every data item
+     * @return the matching data items sorted by rank
+     */
+    static List<DataItem> filter(List<DataItem> dataItems, Filter filter, Cancellation cancellation) {
+        // set based filters decide all items at once, before the items are filtered in parallel
+        filter.prepare(dataItems);
+        cancellation.check();
+        List<DataItem> filtered = dataItems.stream().parallel()
+                .filter(dataItem -> {
+                    cancellation.check();
+                    return filter.filter(dataItem);
+                })
+                .collect(Collectors.toList());
+        cancellation.check();
+        return filter.sortByRank(filtered);
+    }
+
+    /**
+     * Retrieve the tags of data items from the model again, whose resources are affected by a change
+     * @param resourceUris the uris of the changed resources
+     * @return the data items whose tags were retrieved again
      */
-    public List<DataItem> getList(){
-        // set the tags
-        list.forEach(dataItem -> {
-            if (dataItem.getResource() != null) {
-                dataItem.setTags(dataItem.getResource().getTags());
-            }
-        });
-        return list;
+    public List<DataItem> refreshTags(Set<String> resourceUris) {
+        List<DataItem> changedItems = list.stream()
+                .filter(dataItem -> dataItem.getResource() != null && resourceUris.contains(dataItem.getResource().getUri()))
+                .collect(Collectors.toList());
+        DataItem.refreshTags(changedItems);
+        return changedItems;
     }
 }
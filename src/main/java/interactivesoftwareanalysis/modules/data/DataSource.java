@@ -1,5 +1,14 @@
 package interactivesoftwareanalysis.modules.data;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
 /**
  * A data source that modules can use to import data by executing commands.
  */
@@ -12,4 +21,100 @@ public interface DataSource {
      * @throws DataSourceExecuteException when the command could not be executed successfully by the data source
      */
     String execute(String command) throws DataSourceExecuteException;
+
+    /**
+     * Execute a command on this data source and read its output, while the command still runs.
+     * The output is not held in memory as a whole, so large outputs can be processed while they arrive.
+     * Commands may share a connection, that stops, while one of their outputs is not read, so outputs
+     * of commands, that run at the same time, have to be read at the same time.
+     * The default implementation executes the command with {@link #execute(String)} and streams the result.
+     * @param command the command to execute. The exact meaning of this may change depending on the type of data source.
+     * @return the UTF-8 encoded output of the command. It has to be closed, which stops the command, if it still runs.
+     *         Reading it throws an IOException, when the command fails after it started.
+     * @throws DataSourceExecuteException when the command could not be started by the data source
+     */
+    default InputStream executeStreaming(String command) throws DataSourceExecuteException {
+        return new ByteArrayInputStream(execute(command).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Execute a command on this data source and pass each line of its output to a consumer, as soon as it arrived
+     * @param command the command to execute. The exact meaning of this may change depending on the type of data source.
+     * @param lineConsumer the consumer of the lines without line terminators
+     * @throws DataSourceExecuteException when the command could not be executed successfully by the data source
+     */
+    default void executeLines(String command, Consumer<String> lineConsumer) throws DataSourceExecuteException {
+        readLines(executeStreaming(command), lineConsumer);
+    }
+
+    /**
+     * Execute a command on this data source and pass each record of its output to a consumer, as soon as it arrived.
+     * Records can contain any character except the terminator, e.g. line breaks in file names, when \0 is used.
+     * @param command the command to execute. The exact meaning of this may change depending on the type of data source.
+     * @param terminator the character, that ends each record
+     * @param recordConsumer the consumer of the records without terminators
+     * @throws DataSourceExecuteException when the command could not be executed successfully by the data source
+     */
+    default void executeRecords(String command, char terminator, Consumer<String> recordConsumer) throws DataSourceExecuteException {
+        readRecords(executeStreaming(command), terminator, recordConsumer);
+    }
+
+    /**
+     * Retrieve the amount of output this data source transferred since it was created.
+     * The default implementation does not measure the transfers.
+     * @return the transfer statistics or null, if this data source does not measure them
+     */
+    default TransferStatistics getTransferStatistics() {
+        return null;
+    }
+
+    /**
+     * Pass each line of a command output to a consumer and close the output afterwards
+     * @param output the output of {@link #executeStreaming(String)}
+     * @param lineConsumer the consumer of the lines without line terminators
+     * @throws DataSourceExecuteException when the output could not be read completely
+     */
+    static void readLines(InputStream output, Consumer<String> lineConsumer) throws DataSourceExecuteException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(output, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineConsumer.accept(line);
+            }
+        } catch (IOException e) {
+            throw new DataSourceExecuteException(e);
+        }
+    }
+
+    /**
+     * Pass each record of a command output to a consumer and close the output afterwards.
+     * A last record without terminator is passed on as well.
+     * @param output the output of {@link #executeStreaming(String)}
+     * @param terminator the character, that ends each record
+     * @param recordConsumer the consumer of the records without terminators
+     * @throws DataSourceExecuteException when the output could not be read completely
+     */
+    static void readRecords(InputStream output, char terminator, Consumer<String> recordConsumer) throws DataSourceExecuteException {
+        try (Reader reader = new InputStreamReader(output, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            StringBuilder record = new StringBuilder();
+            int count;
+            while ((count = reader.read(buffer)) >= 0) {
+                int start = 0;
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] == terminator) {
+                        record.append(buffer, start, i - start);
+                        recordConsumer.accept(record.toString());
+                        record.setLength(0);
+                        start = i + 1;
+                    }
+                }
+                record.append(buffer, start, count - start);
+            }
+            if (record.length() > 0) {
+                recordConsumer.accept(record.toString());
+            }
+        } catch (IOException e) {
+            throw new DataSourceExecuteException(e);
+        }
+    }
 }
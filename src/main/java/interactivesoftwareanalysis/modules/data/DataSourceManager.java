@@ -15,6 +15,6 @@ public class DataSourceManager {
     @Getter private ObservableList<DataSourceProvider> dataSourceProviders;
 
     public DataSourceManager(){
-        this.dataSourceProviders = FXCollections.observableArrayList(new SSHDataSourceProvider());
+        this.dataSourceProviders = FXCollections.observableArrayList(new SSHDataSourceProvider(), new LocalDataSourceProvider());
     }
 }
@@ -1,47 +1,89 @@
 package interactivesoftwareanalysis.modules.data;
 
 import interactivesoftwareanalysis.modules.filter.Filter;
-import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * A table data structure that can be provided by modules and consumed by the ui
  */
-@Data @AllArgsConstructor @RequiredArgsConstructor
+@Data
 public class DataTable implements DataType {
     private final List<DataItem> table;
     @Setter private List<String> columns;
 
+    /**
+     * Create a new data table with the columns taken from the data.
+     * The tags of the data items are retrieved from the model.
+     * @param table the data items in this table
+     */
+    public DataTable(List<DataItem> table) {
+        this(table, null);
+    }
+
+    /**
+     * Create a new data table. The tags of the data items are retrieved from the model.
+     * @param table the data items in this table
+     * @param columns the column names or null, to take them from the data
+     */
+    public DataTable(List<DataItem> table, List<String> columns) {
+        this.table = table;
+        this.columns = columns;
+        DataItem.refreshTags(table);
+    }
+
     /**
      * Retrieve this data structures content as a list of data items while filtering it
      * @param filter the filter to use on the data
      * @return a filtered list of data items in this data list
      */
     public List<DataItem> getFilteredTable(Filter filter) {
+        return getFilteredTable(filter, Cancellation.NONE);
+    }
+
+    /**
+     * Retrieve this data structures content as a list of data items while filtering it
+     * @param filter the filter to use on the data
+     * @param cancellation stops the filtering, when its result is not needed anymore
+     * @return a filtered list of data items in this data list
+     * @throws java.util.concurrent.CancellationException if the filtering was cancelled
+     */
+    public List<DataItem> getFilteredTable(Filter filter, Cancellation cancellation) {
         if (filter != null){
-            return getTable().stream().parallel().filter(filter::filter).collect(Collectors.toList());
+            return DataList.filter(getTable(), filter, cancellation);
         }else{
             return getTable();
         }
     }
 
     /**
-     * Retrieve the list of data items in this data type
-     * @return
+     * Filter the result of a previous filtering again with a filter, that refines the previous filter.
+     * This gives the same result as {@link #getFilteredTable(Filter)}, but only the previously matching items are decided.
+     * @param filteredTable the data items, that matched the previous filter
+     * @param filter the refined filter
+     * @param cancellation stops the filtering, when its result is not needed anymore
+     * @return a filtered list of data items in this data table
+     * @throws java.util.concurrent.CancellationException if the filtering was cancelled
      */
-    public List<DataItem> getTable(){
-        // set the tags
-        table.forEach(dataItem -> {
-            if (dataItem.getResource() != null) {
-                dataItem.setTags(dataItem.getResource().getTags());
-            }
-        });
-        return table;
+    public List<DataItem> refineFilteredTable(List<DataItem> filteredTable, Filter filter, Cancellation cancellation) {
+        return DataList.filter(filteredTable, filter, cancellation);
+    }
+
+    /**
+     * Retrieve the tags of data items from the model again, whose resources are affected by a change
+     * @param resourceUris the uris of the changed resources
+     * @return the data items whose tags were retrieved again
+     */
+    public List<DataItem> refreshTags(Set<String> resourceUris) {
+        List<DataItem> changedItems = table.stream()
+                .filter(dataItem -> dataItem.getResource() != null && resourceUris.contains(dataItem.getResource().getUri()))
+                .collect(Collectors.toList());
+        DataItem.refreshTags(changedItems);
+        return changedItems;
     }
 
     /**
@@ -5,6 +5,9 @@ import javafx.scene.control.TreeItem;
 import lombok.Data;
 import lombok.NonNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -15,6 +18,17 @@ public class DataTree implements DataType {
 
     private final TreeItem<DataItem> root;
 
+    /**
+     * Create a new data tree. The tags of the data items are retrieved from the model.
+     * @param root the root item of the tree
+     */
+    public DataTree(TreeItem<DataItem> root) {
+        this.root = root;
+        List<DataItem> dataItems = new ArrayList<>();
+        traverseItemsPreOrder(dataItems::add);
+        DataItem.refreshTags(dataItems);
+    }
+
     /**
      * Traverse data items in this tree in pre oder
      * @param visitor the visitor to visit data items with
@@ -49,14 +63,16 @@ public class DataTree implements DataType {
      * Decide, weather a tree item or one of its children matches with a filter
      * @param treeItem the tree item to check for a match
      * @param filter the filter to use
+     * @param cancellation is checked for every tree item
      * @return true, iff the filter returns true for the data item in the tree item or one of its children.
      */
-    private boolean matches(TreeItem<DataItem> treeItem, Filter filter) {
+    private boolean matches(TreeItem<DataItem> treeItem, Filter filter, Cancellation cancellation) {
+        cancellation.check();
         if (filter.filter(treeItem.getValue())){
             return true;
         }
         for (TreeItem<DataItem> child : treeItem.getChildren()) {
-            if (matches(child, filter)) {
+            if (matches(child, filter, cancellation)) {
                 return true;
             }
         }
@@ -68,29 +84,33 @@ public class DataTree implements DataType {
      * Only the tree items are copied, not the data items. Data items are identical in original and copy.
      * @param treeItem the root tree item
      * @param filter the filter to use for deciding, if a tree item ist filtered or not
+     * @param cancellation stops the copying, when the copy is not needed anymore
      * @return the root item of a tree of copied items.
      */
-    private TreeItem<DataItem> copyFiltered(@NonNull TreeItem<DataItem> treeItem, @NonNull Filter filter) {
+    private TreeItem<DataItem> copyFiltered(@NonNull TreeItem<DataItem> treeItem, @NonNull Filter filter, @NonNull Cancellation cancellation) {
+        cancellation.check();
         TreeItem<DataItem> newTreeItem = new TreeItem<>(treeItem.getValue());
         newTreeItem.setExpanded(treeItem.isExpanded());
         treeItem.getChildren().stream()
-                .filter(child -> matches(child, filter))
-                .forEach(child -> newTreeItem.getChildren().add(copyFiltered(child, filter)));
+                .filter(child -> matches(child, filter, cancellation))
+                .forEach(child -> newTreeItem.getChildren().add(copyFiltered(child, filter, cancellation)));
         return newTreeItem;
     }
 
     /**
-     * Retrieve the root of the tree in this data type
-     * @return the root tree node
+     * Retrieve the tags of data items from the model again, whose resources are affected by a change
+     * @param resourceUris the uris of the changed resources
+     * @return the data items whose tags were retrieved again
      */
-    public TreeItem<DataItem> getRoot(){
-        // set the tags
+    public List<DataItem> refreshTags(Set<String> resourceUris) {
+        List<DataItem> changedItems = new ArrayList<>();
         traverseItemsPreOrder(dataItem -> {
-            if (dataItem.getResource() != null) {
-                dataItem.setTags(dataItem.getResource().getTags());
+            if (dataItem.getResource() != null && resourceUris.contains(dataItem.getResource().getUri())) {
+                changedItems.add(dataItem);
             }
         });
-        return root;
+        DataItem.refreshTags(changedItems);
+        return changedItems;
     }
 
     /**
@@ -100,10 +120,51 @@ public class DataTree implements DataType {
      * @return a filtered tree (actually, its root item) of data items in this data list
      */
     public TreeItem<DataItem> getFilteredRoot(Filter filter){
+        return getFilteredRoot(filter, Cancellation.NONE);
+    }
+
+    /**
+     * Retrieve a copy of this data structures content as a tree of data items while filtering it.
+     * This preserved the expanded state of the original tree structure.
+     * @param filter the filter to use on the data
+     * @param cancellation stops the filtering, when its result is not needed anymore
+     * @return a filtered tree (actually, its root item) of data items in this data list
+     * @throws java.util.concurrent.CancellationException if the filtering was cancelled
+     */
+    public TreeItem<DataItem> getFilteredRoot(Filter filter, Cancellation cancellation){
         if (filter != null){
-            return copyFiltered(getRoot(), filter);
+            return filter(getRoot(), filter, cancellation);
         }else{
             return getRoot();
         }
     }
+
+    /**
+     * Filter the result of a previous filtering again with a filter, that refines the previous filter.
+     * Every tree item, that matches the refined filter, was in the previous result with all its matching children,
+     * so this gives the same result as {@link #getFilteredRoot(Filter)}, but only the previous result is traversed.
+     * @param filteredRoot the root of the tree, that was filtered with the previous filter
+     * @param filter the refined filter
+     * @param cancellation stops the filtering, when its result is not needed anymore
+     * @return a filtered tree (actually, its root item) of data items in this data list
+     * @throws java.util.concurrent.CancellationException if the filtering was cancelled
+     */
+    public TreeItem<DataItem> refineFilteredRoot(TreeItem<DataItem> filteredRoot, Filter filter, Cancellation cancellation) {
+        return filter(filteredRoot, filter, cancellation);
+    }
+
+    /**
+     * Copy a tree while filtering it
+     * @param root the root of the tree to filter
+     * @param filter the filter to use
+     * @param cancellation is checked for every tree item
+     * @return the root item of the filtered copy
+     */
+    private TreeItem<DataItem> filter(TreeItem<DataItem> root, Filter filter, Cancellation cancellation) {
+        // set based filters decide all items at once, before the tree is copied
+        List<DataItem> dataItems = new ArrayList<>();
+        traverseTree(root, treeItem -> dataItems.add(treeItem.getValue()), null, null);
+        filter.prepare(dataItems);
+        return copyFiltered(root, filter, cancellation);
+    }
 }
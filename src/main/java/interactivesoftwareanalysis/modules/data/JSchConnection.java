@@ -0,0 +1,75 @@
+package interactivesoftwareanalysis.modules.data;
+
+import com.google.common.io.ByteStreams;
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * An authenticated ssh session, that executes every command on a channel of its own
+ */
+class JSchConnection implements CommandConnection {
+
+    /** The time to wait for the host to answer, while connecting, in ms */
+    private static final int CONNECT_TIMEOUT = 10000;
+
+    /** The interval to check, that the host is still there, while the session is idle, in ms */
+    private static final int KEEP_ALIVE_INTERVAL = 30000;
+
+    private final Session session;
+
+    /**
+     * Connect and authenticate a new session
+     * @param host the host to connect to
+     * @param port the ssh port of the host
+     * @param username the name of the user to log in as
+     * @param password the password of the user
+     * @throws IOException when the session could not be established
+     */
+    JSchConnection(String host, int port, String username, String password) throws IOException {
+        try {
+            session = new JSch().getSession(username, host, port);
+            session.setPassword(password);
+            // like before, the host key is not checked
+            session.setConfig("StrictHostKeyChecking", "no");
+            session.setServerAliveInterval(KEEP_ALIVE_INTERVAL);
+            session.connect(CONNECT_TIMEOUT);
+        } catch (JSchException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override public void execute(String command, OutputStream output) throws IOException {
+        ChannelExec channel;
+        try {
+            channel = (ChannelExec) session.openChannel("exec");
+        } catch (JSchException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        try {
+            channel.setCommand(command);
+            channel.setInputStream(null);
+            channel.setErrStream(ByteStreams.nullOutputStream());
+            InputStream channelOutput = channel.getInputStream();
+            channel.connect(CONNECT_TIMEOUT);
+            ByteStreams.copy(channelOutput, output);
+        } catch (JSchException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            channel.disconnect();
+        }
+    }
+
+    @Override public boolean isConnected() {
+        return session.isConnected();
+    }
+
+    @Override public void close() {
+        session.disconnect();
+    }
+}
@@ -0,0 +1,96 @@
+package interactivesoftwareanalysis.modules.data;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>A data source, that executes commands as processes on the computer, the analysis runs on.</p>
+ *
+ * <p>Every command is executed by its own shell process, so commands can be executed in parallel.
+ * If a root directory is given, the commands are executed with chroot in that directory, e.g. to analyse
+ * a mounted disk image with its own programs. This requires the privileges to use chroot, and the image has to
+ * contain the programs, that the commands use, and /dev/null.</p>
+ */
+public class LocalDataSource implements DataSource {
+
+    /** The file, that discards everything written to it */
+    private static final File NULL_FILE = new File(File.separatorChar == '\\' ? "NUL" : "/dev/null");
+
+    private final String rootDirectory;
+
+    /**
+     * Create a new local data source
+     * @param rootDirectory the directory to execute the commands in with chroot or null, to execute them directly
+     * @throws DataSourceCreateException when the root directory does not exist or commands can't be executed in it
+     */
+    public LocalDataSource(String rootDirectory) throws DataSourceCreateException {
+        this.rootDirectory = rootDirectory;
+        if (rootDirectory != null && !new File(rootDirectory).isDirectory()) {
+            throw new DataSourceCreateException("Das Wurzelverzeichnis " + rootDirectory + " existiert nicht.");
+        }
+
+        // execute an empty command to check, if commands can be executed
+        try {
+            Process process = start("exit 0");
+            if (process.waitFor() != 0) {
+                throw new DataSourceCreateException("Im Wurzelverzeichnis können keine Befehle ausgeführt werden. " +
+                        "Dafür werden die Rechte für chroot benötigt.");
+            }
+        } catch (IOException e) {
+            throw new DataSourceCreateException("Es konnte keine Shell gestartet werden.\n\nFehlermeldung:\n" + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataSourceCreateException("Das Prüfen der Shell wurde unterbrochen.", e);
+        }
+    }
+
+    @Override public String execute(String command) throws DataSourceExecuteException {
+        try (InputStream output = executeStreaming(command)) {
+            return new String(ByteStreams.toByteArray(output), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DataSourceExecuteException(e);
+        }
+    }
+
+    @Override public InputStream executeStreaming(String command) throws DataSourceExecuteException {
+        try {
+            Process process = start(command);
+            // the output is read from the pipe of the process, so the process blocks, while the reader is behind
+            return new FilterInputStream(process.getInputStream()) {
+                @Override public void close() throws IOException {
+                    super.close();
+                    process.destroy();
+                }
+            };
+        } catch (IOException e) {
+            throw new DataSourceExecuteException(e);
+        }
+    }
+
+    /**
+     * Start a shell process executing a command
+     * @param command the command for the shell
+     * @return the started process. Its standard input is closed and its error output is discarded.
+     * @throws IOException when the process could not be started
+     */
+    private Process start(String command) throws IOException {
+        List<String> arguments = new ArrayList<>();
+        if (rootDirectory != null) {
+            arguments.addAll(Arrays.asList("chroot", rootDirectory));
+        }
+        arguments.addAll(Arrays.asList("/bin/sh", "-c", command));
+        Process process = new ProcessBuilder(arguments)
+                .redirectError(NULL_FILE)
+                .start();
+        process.getOutputStream().close();
+        return process;
+    }
+}
@@ -0,0 +1,60 @@
+package interactivesoftwareanalysis.modules.data;
+
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.VBox;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+
+/**
+ * Provides the local data source type
+ */
+public class LocalDataSourceProvider extends DataSourceProviderBase {
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true) private final LocalDataSourceProviderUI providerUI = new LocalDataSourceProviderUI();
+
+    /**
+     * UI for entering the optional root directory
+     */
+    private class LocalDataSourceProviderUI extends VBox {
+
+        @FXML private TextField rootDirectory;
+
+        @SneakyThrows(IOException.class)
+        public LocalDataSourceProviderUI() {
+            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/layouts/local_data_source_provider.fxml"));
+            fxmlLoader.setController(this);
+            fxmlLoader.setRoot(this);
+            fxmlLoader.load();
+        }
+
+        /**
+         * Retrieve the entered root directory
+         * @return the root directory or null, if none or the root of the file system was entered
+         */
+        private String getRootDirectory() {
+            String directory = rootDirectory.getText().trim();
+            return directory.isEmpty() || directory.equals("/") ? null : directory;
+        }
+    }
+
+    public LocalDataSourceProvider() {
+        super("Lokal", "Importiert Daten von diesem Rechner oder einem hier eingehängten Abbild.");
+    }
+
+    @Override
+    public DataSource getDataSource() throws DataSourceCreateException {
+        return new LocalDataSource(getProviderUI().getRootDirectory());
+    }
+
+    @Override
+    public Node getUI() {
+        return getProviderUI();
+    }
+
+}
@@ -1,40 +1,174 @@
 package interactivesoftwareanalysis.modules.data;
 
-import com.jcabi.ssh.SSHByPassword;
-import com.jcabi.ssh.Shell;
-import interactivesoftwareanalysis.modules.data.DataSource;
-import interactivesoftwareanalysis.modules.data.DataSourceCreateException;
-import interactivesoftwareanalysis.modules.data.DataSourceExecuteException;
+import com.google.common.io.ByteStreams;
 
 import java.io.IOException;
-import java.net.UnknownHostException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 /**
- * A data source, that executes commands by sending them to a remote computer
+ * <p>A data source, that executes commands by sending them to a remote computer.
+ * The ssh sessions are kept open and shared by all commands, see {@link SessionPool}.</p>
+ *
+ * <p>The output of commands can be compressed by the remote computer, which is much faster on slow connections,
+ * as the output is mostly text. It is decompressed while it arrives. Whether the remote computer can compress,
+ * is detected once, when the data source is created.</p>
  */
 public class SSHDataSource implements DataSource {
 
-    private Shell.Plain shell;
+    /** The maximum number of commands, that run at the same time, by default */
+    public static final int DEFAULT_MAX_PARALLEL_COMMANDS = 4;
 
-    public SSHDataSource(String host, int port, String username, String password) throws UnknownHostException, DataSourceCreateException {
+    /** Prints the name of the compressor, if the remote computer has it */
+    private static final String DETECT_COMPRESSOR_COMMAND = "command -v gzip >/dev/null 2>&1 && echo gzip";
 
-        // create a new shell for sending commands to the host
-        shell = new Shell.Plain(new SSHByPassword(host, port, username, password));
+    private final SessionPool sessionPool;
+    private final boolean compressed;
+    private final AtomicLong bytesDelivered = new AtomicLong();
 
-        // execute an empty command to ckeck, if the host answers
+    public SSHDataSource(String host, int port, String username, String password) throws DataSourceCreateException {
+        this(host, port, username, password, DEFAULT_MAX_PARALLEL_COMMANDS, false);
+    }
+
+    /**
+     * Create a new data source
+     * @param host the host to connect to
+     * @param port the ssh port of the host
+     * @param username the name of the user to log in as
+     * @param password the password of the user
+     * @param maxParallelCommands the maximum number of commands, that run at the same time
+     * @param compress true, to compress the output of the commands, if the host can
+     * @throws DataSourceCreateException when no connection could be set up
+     */
+    public SSHDataSource(String host, int port, String username, String password, int maxParallelCommands, boolean compress) throws DataSourceCreateException {
+        this(() -> new JSchConnection(host, port, username, password), maxParallelCommands, compress);
+    }
+
+    /**
+     * Create a data source, that executes commands on connections of a connector, e.g. a local stand-in for a host
+     * @param connector sets up new connections
+     * @param maxParallelCommands the maximum number of commands, that run at the same time
+     * @param compress true, to compress the output of the commands, if the host can
+     * @throws DataSourceCreateException when no connection could be set up
+     */
+    SSHDataSource(SessionPool.Connector connector, int maxParallelCommands, boolean compress) throws DataSourceCreateException {
+        sessionPool = new SessionPool(connector, maxParallelCommands);
+
+        // connect once, to check if the host answers
         try {
-            shell.exec("");
+            sessionPool.open();
         } catch (IOException e) {
             throw new DataSourceCreateException("Es konnte keine Verbindung mit dem Host hergestellt werden.\n\nFehlermeldung:\n" + e.getMessage(), e);
         }
+
+        // without a compressor, the output is transferred as it is.
+        // The detection runs on the session pool directly, as executing commands depends on its result.
+        boolean canCompress = false;
+        if (compress) {
+            try (InputStream output = sessionPool.execute(DETECT_COMPRESSOR_COMMAND)) {
+                canCompress = new String(ByteStreams.toByteArray(output), StandardCharsets.UTF_8).trim().equals("gzip");
+            } catch (IOException e) {
+                throw new DataSourceCreateException("Es konnte nicht geprüft werden, ob der Host komprimieren kann.\n\nFehlermeldung:\n" + e.getMessage(), e);
+            }
+        }
+        compressed = canCompress;
     }
 
     @Override public String execute(String command) throws DataSourceExecuteException {
-        try {
-            return shell.exec(command);
+        try (InputStream output = executeStreaming(command)) {
+            return new String(ByteStreams.toByteArray(output), StandardCharsets.UTF_8);
         } catch (IOException e) {
             throw new DataSourceExecuteException(e);
         }
     }
 
+    @Override public InputStream executeStreaming(String command) {
+        if (compressed) {
+            // the command is put on lines of its own, as it can contain several lines
+            return new DeliveredOutput(sessionPool.execute("(\n" + command + "\n) | gzip -c"), true);
+        }
+        return new DeliveredOutput(sessionPool.execute(command), false);
+    }
+
+    @Override public TransferStatistics getTransferStatistics() {
+        return new TransferStatistics(sessionPool.getBytesReceived(), bytesDelivered.get(), sessionPool.getTransferTime());
+    }
+
+    /**
+     * Decide, whether the output of the commands is compressed
+     * @return true, iff compression was requested and the host can compress
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Retrieve the metrics of the most recent commands, that finished
+     * @return the metrics, the oldest first
+     */
+    public List<CommandMetrics> getCommandMetrics() {
+        return sessionPool.getMetrics();
+    }
+
+    /**
+     * Retrieve the number of bytes received by all commands
+     * @return the number of bytes of output
+     */
+    public long getBytesReceived() {
+        return sessionPool.getBytesReceived();
+    }
+
+    /**
+     * Decide, whether this data source is still connected to the host
+     * @return true, iff a session is still open
+     */
+    public boolean isConnected() {
+        return sessionPool.isConnected();
+    }
+
+    /**
+     * Close all sessions to the host. Commands, that still run, fail.
+     */
+    public void close() {
+        sessionPool.close();
+    }
+
+    /**
+     * Delivers the received output of a command, decompressed if necessary, and counts the delivered bytes
+     */
+    private class DeliveredOutput extends InputStream {
+
+        private final InputStream received;
+        private final boolean compressed;
+        private InputStream delivered;
+
+        private DeliveredOutput(InputStream received, boolean compressed) {
+            this.received = received;
+            this.compressed = compressed;
+        }
+
+        @Override public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            // the gzip header is read lazily, so that executing a command does not wait for its output
+            if (delivered == null) {
+                delivered = compressed ? new GZIPInputStream(received) : received;
+            }
+            int count = delivered.read(b, off, len);
+            if (count > 0) {
+                bytesDelivered.addAndGet(count);
+            }
+            return count;
+        }
+
+        @Override public void close() throws IOException {
+            received.close();
+        }
+    }
 }
@@ -3,6 +3,7 @@ package interactivesoftwareanalysis.modules.data;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
@@ -11,7 +12,8 @@ import lombok.Getter;
 import lombok.SneakyThrows;
 
 import java.io.IOException;
-import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Provides the ssh data source type
@@ -20,6 +22,10 @@ public class SSHDataSourceProvider extends DataSourceProviderBase {
 
     @Getter(value = AccessLevel.PRIVATE, lazy = true) private final SSHDataSourceProviderUI providerUI = new SSHDataSourceProviderUI();
 
+    /** The last data source and the parameters it was created with */
+    private SSHDataSource dataSource;
+    private List<String> dataSourceParameters;
+
     /**
      * UI for entering the necessary parameters for the data source instantiation
      */
@@ -29,6 +35,7 @@ public class SSHDataSourceProvider extends DataSourceProviderBase {
         @FXML private TextField sshPort;
         @FXML private TextField sshUsername;
         @FXML private PasswordField sshPassword;
+        @FXML private CheckBox sshCompressed;
 
         @SneakyThrows(IOException.class)
         public SSHDataSourceProviderUI() {
@@ -61,6 +68,10 @@ public class SSHDataSourceProvider extends DataSourceProviderBase {
         private String getPassword() {
             return sshPassword.getText();
         }
+
+        private boolean isCompressed() {
+            return sshCompressed.isSelected();
+        }
     }
 
     public SSHDataSourceProvider() {
@@ -73,14 +84,26 @@ public class SSHDataSourceProvider extends DataSourceProviderBase {
         if (ui.anySSHFieldEmpty()) {
             throw new DataSourceCreateException("Es wurden noch nicht alle benötigten Felder ausgefüllt.");
         }
+        int port;
         try {
-            // create and return the data source
-            return new SSHDataSource(ui.getHost(), Integer.valueOf(ui.getPort()), ui.getUsername(), ui.getPassword());
+            port = Integer.valueOf(ui.getPort());
         } catch (NumberFormatException e) {
             throw new DataSourceCreateException("Als Port muss eine Zahl angegeben werden.", e);
-        }catch (UnknownHostException e) {
-            throw new DataSourceCreateException("Die IP Adresse des angegebenen Hosts konnte nicht ermittelt werden.", e);
         }
+        // the sessions of the last data source are reused, if the same host is used again
+        List<String> connectionParameters = Arrays.asList(ui.getHost(), ui.getPort(), ui.getUsername(), ui.getPassword(),
+                String.valueOf(ui.isCompressed()));
+        if (dataSource == null || !dataSource.isConnected() || !connectionParameters.equals(dataSourceParameters)) {
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+            }
+            // create the data source
+            dataSource = new SSHDataSource(ui.getHost(), port, ui.getUsername(), ui.getPassword(),
+                    SSHDataSource.DEFAULT_MAX_PARALLEL_COMMANDS, ui.isCompressed());
+            dataSourceParameters = connectionParameters;
+        }
+        return dataSource;
     }
 
     @Override
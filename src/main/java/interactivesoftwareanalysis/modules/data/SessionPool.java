@@ -0,0 +1,302 @@
+package interactivesoftwareanalysis.modules.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Keeps connections to a host open and executes commands on channels of them.</p>
+ *
+ * <p>A connection is only set up, when all open connections have as many channels as a host allows, so usually
+ * all commands share one connection. At most a limited number of commands run at the same time, the others wait
+ * for a free channel. Connections, that were lost, are replaced, when the next command is executed.</p>
+ *
+ * <p>Channels of a connection share its transport. A channel, whose output is not read, stops the transport,
+ * when its buffer is full, so outputs of commands, that run at the same time, have to be read at the same time.</p>
+ */
+class SessionPool {
+
+    /**
+     * Sets up a new connection
+     */
+    @FunctionalInterface interface Connector {
+        /**
+         * Set up and authenticate a new connection
+         * @return the connection
+         * @throws IOException when the connection could not be set up
+         */
+        CommandConnection connect() throws IOException;
+    }
+
+    /** The maximum number of channels per connection. OpenSSH allows 10 by default. */
+    private static final int MAX_CHANNELS_PER_CONNECTION = 8;
+
+    /** The number of recent commands to keep the metrics of */
+    private static final int MAX_METRICS = 100;
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ssh-command");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Connector connector;
+    private final Semaphore channels;
+
+    private final List<PooledConnection> connections = new ArrayList<>();
+    /** The number of times the pool was closed, to detect a close while a connection was set up */
+    private long closeCount;
+    /** Whether a command sets up a new connection at the moment. Other commands wait for its channels. */
+    private boolean connecting;
+    private final Deque<CommandMetrics> metrics = new ArrayDeque<>();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicLong transferTime = new AtomicLong();
+
+    /**
+     * Create a new pool
+     * @param connector sets up new connections to the host
+     * @param maxParallelCommands the maximum number of commands, that run at the same time
+     */
+    SessionPool(Connector connector, int maxParallelCommands) {
+        this.connector = connector;
+        this.channels = new Semaphore(maxParallelCommands, true);
+    }
+
+    /**
+     * Make sure, that there is an open connection, e.g. to check the credentials
+     * @throws IOException when no connection could be set up
+     */
+    void open() throws IOException {
+        try {
+            release(lease());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting", e);
+        }
+    }
+
+    /**
+     * Execute a command on a channel, as soon as one is free
+     * @param command the command to execute
+     * @return the output of the command
+     */
+    InputStream execute(String command) {
+        CommandOutput output = new CommandOutput();
+        long submitTime = System.nanoTime();
+        EXECUTOR.execute(() -> {
+            IOException failure = null;
+            MeasuringStream measuringStream = null;
+            boolean acquired = false;
+            try {
+                channels.acquire();
+                acquired = true;
+                measuringStream = new MeasuringStream(output.getSink());
+                PooledConnection connection = lease();
+                try {
+                    connection.connection.execute(command, measuringStream);
+                } finally {
+                    release(connection);
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                failure = new IOException("The command was interrupted", e);
+            } catch (RuntimeException e) {
+                failure = new IOException(e);
+            } finally {
+                if (acquired) {
+                    channels.release();
+                }
+                if (measuringStream != null) {
+                    record(command, submitTime, measuringStream, failure == null);
+                }
+                output.finish(failure);
+            }
+        });
+        return output;
+    }
+
+    /**
+     * Retrieve the metrics of the most recent commands, that finished
+     * @return the metrics, the oldest first
+     */
+    synchronized List<CommandMetrics> getMetrics() {
+        return new ArrayList<>(metrics);
+    }
+
+    /**
+     * Retrieve the number of bytes received by all commands
+     * @return the number of bytes of output
+     */
+    long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * Retrieve the time all commands took to transfer their output, summed up
+     * @return the transfer time in ms
+     */
+    long getTransferTime() {
+        return TimeUnit.NANOSECONDS.toMillis(transferTime.get());
+    }
+
+    /**
+     * Retrieve the number of commands, that finished
+     * @return the number of commands
+     */
+    long getCommandCount() {
+        return commandCount.get();
+    }
+
+    /**
+     * Decide, whether the pool still has an open connection
+     * @return true, iff at least one connection is open
+     */
+    synchronized boolean isConnected() {
+        return connections.stream().anyMatch(connection -> connection.connection.isConnected());
+    }
+
+    /**
+     * Close all connections. Commands, that still run, fail.
+     */
+    synchronized void close() {
+        connections.forEach(connection -> connection.connection.close());
+        connections.clear();
+        closeCount++;
+    }
+
+    /**
+     * Take a channel of a connection, that has a free one, or of a new connection.
+     * A new connection is set up without holding the lock, so other commands can lease and release channels meanwhile.
+     * Only one connection is set up at a time, the other commands wait for it and use its channels.
+     * @return the connection to execute a command on
+     * @throws IOException when a new connection could not be set up
+     * @throws InterruptedException when the thread was interrupted, while waiting for a new connection
+     */
+    private PooledConnection lease() throws IOException, InterruptedException {
+        long closeCountBefore;
+        synchronized (this) {
+            while (true) {
+                removeLostConnections();
+                PooledConnection free = connections.stream()
+                        .filter(connection -> connection.channels < MAX_CHANNELS_PER_CONNECTION)
+                        .findFirst()
+                        .orElse(null);
+                if (free != null) {
+                    free.channels++;
+                    return free;
+                }
+                if (!connecting) {
+                    break;
+                }
+                wait();
+            }
+            connecting = true;
+            closeCountBefore = closeCount;
+        }
+        try {
+            return add(connector.connect(), closeCountBefore);
+        } finally {
+            synchronized (this) {
+                connecting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Add a new connection to the pool and take a channel of it, unless the pool was closed, while it was set up
+     * @param connection the new connection
+     * @param closeCountBefore the number of times the pool was closed, before the connection was set up
+     * @return the pooled connection
+     * @throws IOException when the pool was closed meanwhile. The connection is closed then.
+     */
+    private synchronized PooledConnection add(CommandConnection connection, long closeCountBefore) throws IOException {
+        if (closeCount != closeCountBefore) {
+            connection.close();
+            throw new IOException("The connections were closed, while a new one was set up");
+        }
+        PooledConnection pooled = new PooledConnection(connection);
+        pooled.channels++;
+        connections.add(pooled);
+        return pooled;
+    }
+
+    private synchronized void release(PooledConnection connection) {
+        connection.channels--;
+    }
+
+    private void removeLostConnections() {
+        connections.removeIf(connection -> {
+            if (connection.connection.isConnected()) {
+                return false;
+            }
+            connection.connection.close();
+            return true;
+        });
+    }
+
+    private void record(String command, long submitTime, MeasuringStream stream, boolean successful) {
+        long endTime = System.nanoTime();
+        long latency = stream.firstByteTime < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(stream.firstByteTime - stream.startTime);
+        CommandMetrics commandMetrics = new CommandMetrics(command, TimeUnit.NANOSECONDS.toMillis(stream.startTime - submitTime),
+                latency, TimeUnit.NANOSECONDS.toMillis(endTime - stream.startTime), stream.count, successful);
+        bytesReceived.addAndGet(stream.count);
+        transferTime.addAndGet(endTime - stream.startTime);
+        commandCount.incrementAndGet();
+        synchronized (this) {
+            metrics.addLast(commandMetrics);
+            if (metrics.size() > MAX_METRICS) {
+                metrics.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * A connection and the number of its channels, that are in use
+     */
+    private static class PooledConnection {
+        private final CommandConnection connection;
+        private int channels;
+
+        private PooledConnection(CommandConnection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Passes the output of a command on and measures, when it arrives
+     */
+    private static class MeasuringStream extends OutputStream {
+        private final OutputStream out;
+        private final long startTime = System.nanoTime();
+        private long firstByteTime = -1;
+        private long count;
+
+        private MeasuringStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0 && firstByteTime < 0) {
+                firstByteTime = System.nanoTime();
+            }
+            count += len;
+            out.write(b, off, len);
+        }
+    }
+}
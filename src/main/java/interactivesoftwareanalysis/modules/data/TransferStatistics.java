@@ -0,0 +1,35 @@
+package interactivesoftwareanalysis.modules.data;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The amount of command output, that a data source transferred
+ */
+@RequiredArgsConstructor @Getter public class TransferStatistics {
+
+    /** The number of bytes received from the host, compressed, if the output was compressed */
+    private final long bytesReceived;
+
+    /** The number of bytes of output delivered to the readers, after decompressing them */
+    private final long bytesDelivered;
+
+    /** The time the commands took to transfer their output in ms, summed up over all commands */
+    private final long transferTime;
+
+    /**
+     * Retrieve the ratio of the delivered to the received bytes
+     * @return the compression ratio or 1, if nothing was received yet
+     */
+    public double getCompressionRatio() {
+        return bytesReceived > 0 ? bytesDelivered / (double) bytesReceived : 1;
+    }
+
+    /**
+     * Retrieve the number of delivered bytes per second of transfer time
+     * @return the effective throughput in bytes per second or 0, if nothing was transferred yet
+     */
+    public double getThroughput() {
+        return transferTime > 0 ? bytesDelivered * 1000.0 / transferTime : 0;
+    }
+}
@@ -12,10 +12,17 @@ public class AndFilter extends CombineFilterBase {
         super(filters);
     }
 
+    @Override protected CombineFilterBase withFilters(List<Filter> filters) {
+        return new AndFilter(filters);
+    }
+
     @Override
     public boolean filter(DataItem dataItem) {
-        return !filters.stream()
-                .map(filter -> filter.filter(dataItem))
-                .anyMatch(result -> !result);
+        for (Filter filter : filters) {
+            if (!filter.filter(dataItem)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,91 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import interactivesoftwareanalysis.model.PreparedQuery;
+import interactivesoftwareanalysis.model.Resource;
+import interactivesoftwareanalysis.modules.data.DataItem;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * <p>A base class for filters that match resource items with a SPARQL ASK query.
+ * The variable ?uri in the query is bound to the resource of each item.</p>
+ *
+ * <p>When the filter is prepared, the query is executed once for all items and the matching
+ * resources are remembered, so deciding an item is a lookup. Items, that were not prepared,
+ * are decided by executing the query for them alone.</p>
+ */
+public abstract class AskQueryFilterBase extends DecideFilterBase {
+
+    /** The variable, that is bound to the resource of an item */
+    protected static final String URI_VARIABLE = "uri";
+
+    private volatile MatchingResources matchingResources;
+
+    public AskQueryFilterBase(String pattern) {
+        super(pattern);
+    }
+
+    /**
+     * Retrieve the ask query to decide items with
+     * @return the prepared query with all variables except ?uri bound
+     */
+    protected abstract PreparedQuery getPreparedQuery();
+
+    @Override public boolean filter(DataItem dataItem) {
+        return filter(dataItem, matchingResources);
+    }
+
+    @Override public void prepare(Collection<DataItem> dataItems) {
+        matchingResources = findMatchingResources(dataItems);
+    }
+
+    @Override public Filter preparedFor(Collection<DataItem> dataItems) {
+        MatchingResources prepared = findMatchingResources(dataItems);
+        return dataItem -> filter(dataItem, prepared);
+    }
+
+    /**
+     * Decide an item with the resources, that matched, when the filter was prepared
+     * @param dataItem the item to decide
+     * @param prepared the matching resources or null, if the filter was not prepared
+     * @return true, iff the item has a resource, that matches the query
+     */
+    private boolean filter(DataItem dataItem, MatchingResources prepared) {
+        Resource resource = dataItem.getResource();
+        if (resource == null) {
+            return false;
+        }
+        if (prepared != null && prepared.candidates.contains(resource.getUri())) {
+            return prepared.matching.contains(resource.getUri());
+        }
+        return getPreparedQuery().bind(URI_VARIABLE, resource.getUri()).executeAsk();
+    }
+
+    /**
+     * Execute the query once for the resources of all items
+     * @param dataItems the items
+     * @return the resources of the items and the ones, that match the query
+     */
+    private MatchingResources findMatchingResources(Collection<DataItem> dataItems) {
+        Set<String> candidates = dataItems.stream()
+                .filter(Objects::nonNull)
+                .map(DataItem::getResource)
+                .filter(Objects::nonNull)
+                .map(Resource::getUri)
+                .collect(Collectors.toCollection(HashSet::new));
+        return new MatchingResources(candidates, getPreparedQuery().executeAsk(URI_VARIABLE, candidates));
+    }
+
+    /**
+     * The resources a query was executed for and the ones it matched
+     */
+    @RequiredArgsConstructor private static class MatchingResources {
+        private final Set<String> candidates;
+        private final Set<String> matching;
+    }
+}
@@ -1,8 +1,11 @@
 package interactivesoftwareanalysis.modules.filter;
 
+import interactivesoftwareanalysis.modules.data.DataItem;
 import lombok.Getter;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * A base class for filters that combine the results of other filters
@@ -15,4 +18,39 @@ public abstract class CombineFilterBase implements Filter {
         this.filters = filters;
     }
 
+    @Override public void prepare(Collection<DataItem> dataItems) {
+        filters.forEach(filter -> filter.prepare(dataItems));
+    }
+
+    @Override public Filter preparedFor(Collection<DataItem> dataItems) {
+        List<Filter> preparedFilters = filters.stream()
+                .map(filter -> filter.preparedFor(dataItems))
+                .collect(Collectors.toList());
+        return preparedFilters.equals(filters) ? this : withFilters(preparedFilters);
+    }
+
+    /**
+     * Create a filter, that combines other filters in the same way as this filter
+     * @param filters the filters to combine
+     * @return the new filter
+     */
+    protected abstract CombineFilterBase withFilters(List<Filter> filters);
+
+    @Override public boolean isRanking() {
+        return filters.stream().anyMatch(Filter::isRanking);
+    }
+
+    /**
+     * Rank a data item by the sum of the ranks of the combined filters
+     * @param dataItem the matching data item
+     * @return the rank of the data item
+     */
+    @Override public double getRank(DataItem dataItem) {
+        double rank = 0;
+        for (Filter filter : filters) {
+            rank += filter.getRank(dataItem);
+        }
+        return rank;
+    }
+
 }
@@ -13,4 +13,35 @@ public interface DecideFilterFactory extends Describable {
      * @return a new filter instance
      */
     Filter newInstance(String pattern);
+
+    /**
+     * Estimate the cost of deciding a single item with a filter of this factory.
+     * The cost is relative to comparing a few strings, which costs 1.
+     * Combined filters evaluate cheap filters first.
+     * @return the estimated cost per item
+     */
+    default double getCost() {
+        return 1;
+    }
+
+    /**
+     * Estimate the fraction of items a filter of this factory matches.
+     * Combined filters evaluate filters first, that are likely to decide the result on their own.
+     * @return the estimated selectivity between 0 and 1
+     */
+    default double getSelectivity() {
+        return 0.5;
+    }
+
+    /**
+     * Decide, whether a filter of this factory with a pattern only matches items, that a filter with a previous pattern matches, too.
+     * Views then filter the items they show for the previous pattern instead of all items, e.g. while the user types.
+     * By default, this is only the case for equal patterns.
+     * @param pattern the new pattern
+     * @param previousPattern the previous pattern
+     * @return true, if the new pattern refines the previous pattern
+     */
+    default boolean isRefinement(String pattern, String previousPattern) {
+        return pattern.equals(previousPattern);
+    }
 }
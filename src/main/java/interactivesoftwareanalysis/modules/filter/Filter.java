@@ -2,6 +2,11 @@ package interactivesoftwareanalysis.modules.filter;
 
 import interactivesoftwareanalysis.modules.data.DataItem;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * A filter that decides, whether a data item matches, or not
  */
@@ -13,4 +18,82 @@ import interactivesoftwareanalysis.modules.data.DataItem;
      * @return true, iff the filter matches the data item
      */
     boolean filter(DataItem dataItem);
+
+    /**
+     * Prepare the filter for deciding many data items.
+     * Filters, that can decide a set of items at once much faster than one by one, decide the given items here,
+     * so {@link #filter(DataItem)} only has to look up the result. This has to be called again, when the model changed.
+     * The default implementation does nothing.
+     * @param dataItems the data items, that are filtered next
+     */
+    default void prepare(Collection<DataItem> dataItems) {
+    }
+
+    /**
+     * Create a filter, that decides the given data items like this filter after {@link #prepare(Collection)},
+     * without changing the preparation of this filter, which a running filtering may still use.
+     * The default implementation returns this filter, which suits filters, that are not prepared, and filters,
+     * whose preparation decides any item correctly, like the snapshot of the text filters.
+     * @param dataItems the data items, that are decided next
+     * @return a filter prepared for the data items
+     */
+    default Filter preparedFor(Collection<DataItem> dataItems) {
+        return this;
+    }
+
+    /**
+     * Express this filter as a SPARQL condition on a resource, so a query only selects the resources, that match.
+     * Items without resources never match a condition.
+     * The default implementation returns null.
+     * @param uriVariable the name of the variable, that is bound to the resource in the query
+     * @param variablePrefix the prefix of all other variables, that the condition uses, so they don't clash with the query
+     * @return a boolean SPARQL expression, that is true for exactly the resources this filter matches,
+     *         or null, if the filter can't be expressed in SPARQL
+     */
+    default String toSparqlCondition(String uriVariable, String variablePrefix) {
+        return null;
+    }
+
+    /**
+     * Decide, whether this filter ranks the items it matches.
+     * The default implementation returns false.
+     * @return true, if the matching items should be sorted by {@link #getRank(DataItem)}
+     */
+    default boolean isRanking() {
+        return false;
+    }
+
+    /**
+     * Rank a matching data item. Better matches have higher ranks.
+     * The default implementation ranks every item with 0.
+     * @param dataItem the matching data item
+     * @return the rank of the data item
+     */
+    default double getRank(DataItem dataItem) {
+        return 0;
+    }
+
+    /**
+     * Sort matching data items by rank, the best matches first. Items with equal ranks keep their order.
+     * Nothing is sorted, if this filter does not rank.
+     * @param dataItems the matching data items
+     * @return the sorted data items
+     */
+    default List<DataItem> sortByRank(List<DataItem> dataItems) {
+        if (!isRanking()) {
+            return dataItems;
+        }
+        // every item is ranked once, instead of on every comparison
+        double[] ranks = dataItems.stream().mapToDouble(this::getRank).toArray();
+        Integer[] order = new Integer[ranks.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (o1, o2) -> Double.compare(ranks[o2], ranks[o1]));
+        List<DataItem> sorted = new ArrayList<>(order.length);
+        for (Integer i : order) {
+            sorted.add(dataItems.get(i));
+        }
+        return sorted;
+    }
 }
@@ -14,10 +14,10 @@ public interface FilterBuilder {
      * @param query The query to turn into a filter. The syntax is implementation dependant.
      * @param filterFactories factories for finding and creating filters
      * @param combineFilterFactories factories for finding and creating combine filters
-     * @return a filter
+     * @return the plan of the compiled filter, which can be used as filter
      * @throws BuildFilterException when a filter could not be build with the given query string
      */
-    Filter buildFilter(String query, Map<String, DecideFilterFactory> filterFactories, Map<String, CombineFilterFactory> combineFilterFactories) throws BuildFilterException;
+    FilterPlan buildFilter(String query, Map<String, DecideFilterFactory> filterFactories, Map<String, CombineFilterFactory> combineFilterFactories) throws BuildFilterException;
 
     /**
      * Filters can wrap the query string to add default filter behavior.
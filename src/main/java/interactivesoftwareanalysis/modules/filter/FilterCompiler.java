@@ -0,0 +1,154 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Compiles a tree of filters into a {@link FilterPlan}.</p>
+ *
+ * <p>AND filters nested in AND filters and OR filters nested in OR filters are merged into their parent,
+ * double negations are removed. The children of AND and OR filters are reordered, so filters that are cheap
+ * and likely to decide the result on their own are evaluated first: An AND filter stops at the first child
+ * that does not match, an OR filter at the first child that matches. Children with the same estimates keep
+ * the order the user entered them in.</p>
+ *
+ * <p>The estimates of decide filters are taken from the factories that created them. Filters without a known
+ * factory and unknown combine filters are kept as they are and get the default estimates.</p>
+ */
+public class FilterCompiler {
+
+    private static final String AND_NAME = "und";
+    private static final String OR_NAME = "oder";
+    private static final String NOT_NAME = "nicht";
+
+    private static final double DEFAULT_COST = 1;
+    private static final double DEFAULT_SELECTIVITY = 0.5;
+
+    private final Map<Filter, DecideFilterFactory> factories;
+
+    /**
+     * Create a new compiler
+     * @param factories the factories by the decide filters they created. The map should compare filters by identity.
+     */
+    public FilterCompiler(Map<Filter, DecideFilterFactory> factories) {
+        this.factories = factories;
+    }
+
+    /**
+     * Compile a filter
+     * @param filter the root of the filter tree
+     * @return the plan of the compiled filter
+     */
+    public FilterPlan compile(Filter filter) {
+        if (filter instanceof AndFilter) {
+            return compileAnd((AndFilter) filter);
+        } else if (filter instanceof OrFilter) {
+            return compileOr((OrFilter) filter);
+        } else if (filter instanceof NotFilter) {
+            return compileNot((NotFilter) filter);
+        } else {
+            return compileLeaf(filter);
+        }
+    }
+
+    private FilterPlan compileAnd(AndFilter filter) {
+        List<FilterPlan> children = compileChildren(filter.getFilters(), AndFilter.class);
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        // the cheapest way to find a child, that does not match
+        children.sort(Comparator.comparingDouble(rank(plan -> 1 - plan.getSelectivity())));
+        double cost = 0;
+        double selectivity = 1;
+        for (FilterPlan child : children) {
+            // a child is only evaluated, if all children before it matched
+            cost += selectivity * child.getCost();
+            selectivity *= child.getSelectivity();
+        }
+        return new FilterPlan(new AndFilter(toFilters(children)), null, AND_NAME, children, cost, selectivity);
+    }
+
+    private FilterPlan compileOr(OrFilter filter) {
+        List<FilterPlan> children = compileChildren(filter.getFilters(), OrFilter.class);
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        // the cheapest way to find a child, that matches
+        children.sort(Comparator.comparingDouble(rank(FilterPlan::getSelectivity)));
+        double cost = 0;
+        double mismatch = 1;
+        for (FilterPlan child : children) {
+            // a child is only evaluated, if no child before it matched
+            cost += mismatch * child.getCost();
+            mismatch *= 1 - child.getSelectivity();
+        }
+        return new FilterPlan(new OrFilter(toFilters(children)), null, OR_NAME, children, cost, 1 - mismatch);
+    }
+
+    private FilterPlan compileNot(NotFilter filter) {
+        if (filter.getFilters().isEmpty()) {
+            // an empty NOT filter matches everything
+            return new FilterPlan(filter, null, NOT_NAME, Collections.emptyList(), 0, 1);
+        }
+        FilterPlan child = compile(filter.getFilters().get(0));
+        if (child.getFilter() instanceof NotFilter && !child.getChildren().isEmpty()) {
+            return child.getChildren().get(0);
+        }
+        return new FilterPlan(new NotFilter(Collections.singletonList(child.getFilter())), null, NOT_NAME,
+                Collections.singletonList(child), child.getCost(), 1 - child.getSelectivity());
+    }
+
+    private FilterPlan compileLeaf(Filter filter) {
+        DecideFilterFactory factory = factories.get(filter);
+        String name = filter.getClass().getSimpleName();
+        if (factory != null) {
+            name = factory.getName();
+        }
+        if (filter instanceof DecideFilterBase) {
+            name += ": " + ((DecideFilterBase) filter).getPattern();
+        }
+        double cost = factory != null ? factory.getCost() : DEFAULT_COST;
+        double selectivity = factory != null ? factory.getSelectivity() : DEFAULT_SELECTIVITY;
+        return new FilterPlan(filter, factory, name, Collections.emptyList(), cost, selectivity);
+    }
+
+    /**
+     * Compile the children of a combine filter and merge children of the same type into the list
+     * @param filters the children
+     * @param type the type of the combine filter
+     * @return a modifiable list of the compiled children
+     */
+    private List<FilterPlan> compileChildren(List<Filter> filters, Class<? extends CombineFilterBase> type) {
+        List<FilterPlan> children = new ArrayList<>();
+        for (Filter filter : filters) {
+            FilterPlan child = compile(filter);
+            if (type.isInstance(child.getFilter())) {
+                children.addAll(child.getChildren());
+            } else {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Rank plans by their cost per decided item. Plans, that never decide, come last.
+     * @param decides the probability, that a plan decides the result on its own
+     * @return the rank function
+     */
+    private static ToDoubleFunction<FilterPlan> rank(ToDoubleFunction<FilterPlan> decides) {
+        return plan -> {
+            double probability = decides.applyAsDouble(plan);
+            return probability > 0 ? plan.getCost() / probability : Double.POSITIVE_INFINITY;
+        };
+    }
+
+    private static List<Filter> toFilters(List<FilterPlan> plans) {
+        return plans.stream().map(FilterPlan::getFilter).collect(Collectors.toList());
+    }
+}
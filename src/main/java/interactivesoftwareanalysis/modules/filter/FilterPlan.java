@@ -0,0 +1,200 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import interactivesoftwareanalysis.modules.data.DataItem;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>A compiled filter, as created by the {@link FilterCompiler}.</p>
+ *
+ * <p>The plan is a tree that mirrors the filter that is executed. Every node knows the estimated cost
+ * of deciding an item and the estimated fraction of items it matches, so the plan can be shown to the user.
+ * Filtering with the plan executes the compiled filter directly.</p>
+ */
+public class FilterPlan implements Filter {
+
+    private static final String AND_OPERATOR = "&&";
+    private static final String OR_OPERATOR = "||";
+
+    @Getter private final Filter filter;
+    @Getter private final DecideFilterFactory factory;
+    @Getter private final String name;
+    @Getter private final List<FilterPlan> children;
+    @Getter private final double cost;
+    @Getter private final double selectivity;
+
+    /**
+     * Create a plan node
+     * @param filter the filter that is executed for this node
+     * @param factory the factory that created the decide filter or null
+     * @param name the name of the node, e.g. the combine filter name or the decide filter name and pattern
+     * @param children the plans of the combined filters in evaluation order or an empty list
+     * @param cost the estimated cost of deciding an item
+     * @param selectivity the estimated fraction of matching items
+     */
+    FilterPlan(Filter filter, DecideFilterFactory factory, String name, List<FilterPlan> children, double cost, double selectivity) {
+        this.filter = filter;
+        this.factory = factory;
+        this.name = name;
+        this.children = Collections.unmodifiableList(children);
+        this.cost = cost;
+        this.selectivity = selectivity;
+    }
+
+    @Override public boolean filter(DataItem dataItem) {
+        return filter.filter(dataItem);
+    }
+
+    @Override public void prepare(Collection<DataItem> dataItems) {
+        filter.prepare(dataItems);
+    }
+
+    @Override public Filter preparedFor(Collection<DataItem> dataItems) {
+        return filter.preparedFor(dataItems);
+    }
+
+    @Override public boolean isRanking() {
+        return filter.isRanking();
+    }
+
+    @Override public double getRank(DataItem dataItem) {
+        return filter.getRank(dataItem);
+    }
+
+    @Override public String toSparqlCondition(String uriVariable, String variablePrefix) {
+        if (filter instanceof AndFilter || filter instanceof OrFilter) {
+            List<String> conditions = new ArrayList<>();
+            for (int i = 0; i < children.size(); i++) {
+                String condition = children.get(i).toSparqlCondition(uriVariable, variablePrefix + i + "_");
+                if (condition == null) {
+                    return null;
+                }
+                conditions.add(condition);
+            }
+            return join(conditions, filter instanceof AndFilter ? AND_OPERATOR : OR_OPERATOR);
+        } else if (filter instanceof NotFilter) {
+            if (children.isEmpty()) {
+                // an empty NOT filter matches everything
+                return "true";
+            }
+            String condition = children.get(0).toSparqlCondition(uriVariable, variablePrefix + "0_");
+            return condition != null ? "!(" + condition + ")" : null;
+        }
+        return filter.toSparqlCondition(uriVariable, variablePrefix);
+    }
+
+    /**
+     * <p>Find a SPARQL condition, that every item matching this plan fulfills, to narrow the query of a submodule.
+     * Only items with resources can match a condition.</p>
+     *
+     * <p>Parts of the plan, that can't be expressed in SPARQL, are left out of AND filters, so the condition
+     * can match more items than the plan. The plan has to be applied to the result of the query anyway.
+     * Conditions, that are estimated to match too many items, are not worth a query of their own.</p>
+     * @param uriVariable the name of the variable, that is bound to the resource in the query
+     * @param maxSelectivity the maximum estimated fraction of items, that the condition may match
+     * @return a boolean SPARQL expression or null, if there is no condition, that is selective enough
+     */
+    public String getSparqlCondition(String uriVariable, double maxSelectivity) {
+        SparqlCondition condition = findSparqlCondition(uriVariable, "filter");
+        return condition != null && condition.selectivity <= maxSelectivity ? condition.expression : null;
+    }
+
+    private SparqlCondition findSparqlCondition(String uriVariable, String variablePrefix) {
+        if (filter instanceof AndFilter || filter instanceof OrFilter) {
+            boolean and = filter instanceof AndFilter;
+            List<String> expressions = new ArrayList<>();
+            double selectivity = 1;
+            for (int i = 0; i < children.size(); i++) {
+                SparqlCondition condition = children.get(i).findSparqlCondition(uriVariable, variablePrefix + i + "_");
+                if (condition != null) {
+                    expressions.add(condition.expression);
+                    selectivity *= and ? condition.selectivity : 1 - condition.selectivity;
+                } else if (!and) {
+                    // an item, that only matches this child, must not be left out
+                    return null;
+                }
+            }
+            if (expressions.isEmpty()) {
+                return null;
+            }
+            return new SparqlCondition(join(expressions, and ? AND_OPERATOR : OR_OPERATOR), and ? selectivity : 1 - selectivity);
+        }
+        String expression = toSparqlCondition(uriVariable, variablePrefix);
+        return expression != null ? new SparqlCondition(expression, selectivity) : null;
+    }
+
+    private static String join(List<String> conditions, String operator) {
+        return conditions.size() == 1 ? conditions.get(0) : "(" + String.join(" " + operator + " ", conditions) + ")";
+    }
+
+    /**
+     * <p>Decide, whether this plan refines a previous plan, so every item matching this plan matches the previous plan, too.
+     * Filtering the items, that the previous plan matched, then gives the same result as filtering all items.</p>
+     *
+     * <p>This is the case, if a decide filter refines the previous pattern according to its factory,
+     * e.g. when the user typed another char, if AND clauses were added or OR clauses were removed.
+     * Plans, that can't be proven to refine the previous plan, don't.</p>
+     * @param previous the previous plan
+     * @return true, if this plan refines the previous plan
+     */
+    public boolean refines(FilterPlan previous) {
+        if (previous.filter instanceof NotFilter && previous.children.isEmpty()) {
+            // an empty NOT filter matches everything
+            return true;
+        } else if (previous.filter instanceof AndFilter) {
+            return previous.children.stream().allMatch(this::refines);
+        } else if (filter instanceof AndFilter) {
+            return children.stream().anyMatch(child -> child.refines(previous));
+        } else if (filter instanceof OrFilter) {
+            return children.stream().allMatch(child -> child.refines(previous));
+        } else if (previous.filter instanceof OrFilter) {
+            return previous.children.stream().anyMatch(this::refines);
+        } else if (filter instanceof NotFilter && previous.filter instanceof NotFilter) {
+            // a NOT filter refines another one, if the negated filters do it the other way round
+            return !children.isEmpty() && previous.children.get(0).refines(children.get(0));
+        } else if (filter instanceof DecideFilterBase && previous.filter instanceof DecideFilterBase) {
+            String pattern = ((DecideFilterBase) filter).getPattern();
+            String previousPattern = ((DecideFilterBase) previous.filter).getPattern();
+            if (factory != null) {
+                return factory == previous.factory && factory.isRefinement(pattern, previousPattern);
+            }
+            return previous.factory == null && filter.getClass() == previous.filter.getClass() && pattern.equals(previousPattern);
+        }
+        return false;
+    }
+
+    /**
+     * Describe the plan in a human readable way, one node per line, in evaluation order
+     * @return a multiline description of the plan
+     */
+    public String describe() {
+        StringBuilder builder = new StringBuilder();
+        describe(builder, "");
+        return builder.toString().trim();
+    }
+
+    private void describe(StringBuilder builder, String indent) {
+        builder.append(MessageFormat.format("{0}{1}  (Kosten {2,number,#.##}, Treffer {3,number,percent})\n", indent, name, cost, selectivity));
+        for (FilterPlan child : children) {
+            child.describe(builder, indent + "    ");
+        }
+    }
+
+    @Override public String toString() {
+        return describe();
+    }
+
+    /**
+     * A SPARQL condition with the estimated fraction of items it matches
+     */
+    @RequiredArgsConstructor private static class SparqlCondition {
+        private final String expression;
+        private final double selectivity;
+    }
+}
@@ -0,0 +1,76 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.TextMatches;
+import interactivesoftwareanalysis.modules.ModuleContext;
+import interactivesoftwareanalysis.modules.data.DataItem;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <p>A filter that matches items with a name similar to the pattern, ignoring case, and ranks them by similarity.</p>
+ *
+ * <p>The similarity is the fraction of the distinct trigrams of the pattern, that the name contains,
+ * so a typo only removes up to three trigrams. Items with a similarity of at least {@value MIN_SCORE} match.
+ * Patterns shorter than three chars have no trigrams, names containing them have a similarity of 1.</p>
+ */
+public class FuzzyFilter extends TextFilterBase {
+
+    public static final double MIN_SCORE = 0.5;
+
+    private final String[] trigrams;
+
+    public FuzzyFilter(String pattern, ModuleContext moduleContext) {
+        super(pattern, moduleContext);
+        Set<String> distinctTrigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= foldedPattern.length(); i++) {
+            distinctTrigrams.add(foldedPattern.substring(i, i + 3));
+        }
+        trigrams = distinctTrigrams.toArray(new String[0]);
+    }
+
+    @Override protected TextMatches findMatches(Model model, int maxMatches) {
+        return model.findSimilarValues(pattern, MIN_SCORE);
+    }
+
+    // searching a name directly compares every trigram, so the index is always faster
+    @Override protected int getMaxMatches(int itemCount) {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override public boolean filter(DataItem dataItem) {
+        return getScore(dataItem) >= MIN_SCORE;
+    }
+
+    @Override public boolean isRanking() {
+        return true;
+    }
+
+    @Override public double getRank(DataItem dataItem) {
+        return getScore(dataItem);
+    }
+
+    /**
+     * Calculate the similarity of an items name to the pattern, using the index, if the name is indexed
+     * @param dataItem the data item
+     * @return the similarity between 0 and 1
+     */
+    private double getScore(DataItem dataItem) {
+        TextMatches matches = getTextMatches();
+        if (matches != null && dataItem.isNameIndexed(matches)) {
+            return matches.getScore(dataItem.getString());
+        }
+        String name = dataItem.getNameKey();
+        if (trigrams.length == 0) {
+            return name.contains(foldedPattern) ? 1 : 0;
+        }
+        int count = 0;
+        for (String trigram : trigrams) {
+            if (name.contains(trigram)) {
+                count++;
+            }
+        }
+        return (double) count / trigrams.length;
+    }
+}
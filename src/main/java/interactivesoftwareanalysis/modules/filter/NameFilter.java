@@ -1,17 +1,28 @@
 package interactivesoftwareanalysis.modules.filter;
 
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.TextMatches;
+import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.data.DataItem;
 
 /**
- * A filter that filters items that have a name that contains the pattern
+ * A filter that filters items that have a name that contains the pattern, ignoring case
  */
-public class NameFilter extends DecideFilterBase {
+public class NameFilter extends TextFilterBase {
 
-    public NameFilter(String pattern) {
-        super(pattern);
+    public NameFilter(String pattern, ModuleContext moduleContext) {
+        super(pattern, moduleContext);
+    }
+
+    @Override protected TextMatches findMatches(Model model, int maxMatches) {
+        return model.findValuesContaining(pattern, maxMatches);
     }
 
     @Override public boolean filter(DataItem dataItem) {
-        return dataItem.getString().toLowerCase().contains(pattern.toLowerCase());
+        TextMatches matches = getTextMatches();
+        if (matches != null && dataItem.isNameIndexed(matches)) {
+            return matches.contains(dataItem.getString());
+        }
+        return dataItem.getNameKey().contains(foldedPattern);
     }
 }
@@ -13,6 +13,10 @@ public class NotFilter extends CombineFilterBase {
         super(filters);
     }
 
+    @Override protected CombineFilterBase withFilters(List<Filter> filters) {
+        return new NotFilter(filters);
+    }
+
     @Override
     public boolean filter(DataItem dataItem) {
         Optional<Boolean> optional = filters.stream().map(filter -> filter.filter(dataItem)).findFirst();
@@ -22,4 +26,13 @@ public class NotFilter extends CombineFilterBase {
             return true;
         }
     }
+
+    // items matching a negated filter are not similar to anything
+    @Override public boolean isRanking() {
+        return false;
+    }
+
+    @Override public double getRank(DataItem dataItem) {
+        return 0;
+    }
 }
@@ -5,15 +5,24 @@ import interactivesoftwareanalysis.modules.data.DataItem;
 import java.util.List;
 
 /**
- * A combine filter that implements the logical OR for filters
+ * A combine filter that implements the logical OR for filters in a short circuiting way
  */
 public class OrFilter extends CombineFilterBase {
     public OrFilter(List<Filter> filters) {
         super(filters);
     }
 
+    @Override protected CombineFilterBase withFilters(List<Filter> filters) {
+        return new OrFilter(filters);
+    }
+
     @Override
     public boolean filter(DataItem dataItem) {
-        return filters.stream().map(filter -> filter.filter(dataItem)).anyMatch(Boolean::booleanValue);
+        for (Filter filter : filters) {
+            if (filter.filter(dataItem)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
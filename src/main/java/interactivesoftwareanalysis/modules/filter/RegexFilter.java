@@ -1,19 +1,31 @@
 package interactivesoftwareanalysis.modules.filter;
 
-import com.sun.org.apache.regexp.internal.RE;
 import interactivesoftwareanalysis.modules.data.DataItem;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
- * A filter that matches a regular expression against items names
+ * A filter that matches a regular expression against items names.
+ * The expression is compiled once and every thread reuses its own matcher.
  */
 public class RegexFilter extends DecideFilterBase {
 
+    private final Pattern compiledPattern;
+    private final ThreadLocal<Matcher> matchers;
+
+    /**
+     * Create a new filter
+     * @param pattern the regular expression. It matches, if it is found anywhere in the name.
+     * @throws java.util.regex.PatternSyntaxException if the expression is invalid
+     */
     public RegexFilter(String pattern) {
         super(pattern);
+        compiledPattern = Pattern.compile(pattern);
+        matchers = ThreadLocal.withInitial(() -> compiledPattern.matcher(""));
     }
 
     @Override public boolean filter(DataItem dataItem) {
-        RE re = new RE(pattern);
-        return re.match(dataItem.getString());
+        return matchers.get().reset(dataItem.getString()).find();
     }
 }
@@ -1,25 +1,37 @@
 package interactivesoftwareanalysis.modules.filter;
 
+import interactivesoftwareanalysis.model.PreparedQuery;
 import interactivesoftwareanalysis.modules.ModuleContext;
-import interactivesoftwareanalysis.modules.data.DataItem;
 
 /**
- * A filter that uses a SPARQL ASK query to match resource items
+ * A filter that uses a SPARQL ASK query to match resource items.
+ * The variable ?uri in the query is bound to the resource of each item.
  */
-public class SparqlFilter extends DecideFilterBase {
+public class SparqlFilter extends AskQueryFilterBase {
 
     private final ModuleContext moduleContext;
+    private volatile PreparedQuery preparedQuery;
 
     public SparqlFilter(String pattern, ModuleContext moduleContext) {
         super(pattern);
         this.moduleContext = moduleContext;
     }
 
-    @Override public boolean filter(DataItem dataItem) {
-        if (dataItem.getResource() == null) {
-            return false;
+    /**
+     * Retrieve the prepared query for the pattern. The query is prepared on first use,
+     * so an invalid query fails while filtering, like before.
+     * @return the prepared ask query
+     */
+    @Override protected PreparedQuery getPreparedQuery() {
+        if (preparedQuery == null) {
+            preparedQuery = moduleContext.getModel().prepareQuery(pattern);
         }
-        String query = pattern.replace("?uri", "<" + dataItem.getResource().getUri() + ">");
-        return moduleContext.getModel().executeAskQuery(query);
+        return preparedQuery;
+    }
+
+    @Override public String toSparqlCondition(String uriVariable, String variablePrefix) {
+        String queryPattern = moduleContext.getModel().getQueryPattern(pattern,
+                variable -> variable.equals(URI_VARIABLE) ? uriVariable : variablePrefix + variable);
+        return queryPattern != null ? "EXISTS " + queryPattern : null;
     }
 }
@@ -0,0 +1,56 @@
+package interactivesoftwareanalysis.modules.filter;
+
+/**
+ * Writes terms for SPARQL conditions, that filters are translated to
+ */
+public final class SparqlTerms {
+
+    /** Chars that are not allowed in an IRI reference */
+    private static final String INVALID_URI_CHARS = "<>\"{}|^`\\";
+
+    private SparqlTerms() {
+    }
+
+    /**
+     * Write a string literal
+     * @param value the value of the literal
+     * @return the quoted and escaped literal
+     */
+    public static String literal(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default: builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Write a uri
+     * @param uri the full uri
+     * @return the uri in angle brackets or null, if it contains chars, that a query can't contain in a uri
+     */
+    public static String uri(String uri) {
+        for (char c : uri.toCharArray()) {
+            if (c <= ' ' || INVALID_URI_CHARS.indexOf(c) >= 0) {
+                return null;
+            }
+        }
+        return "<" + uri + ">";
+    }
+
+    /**
+     * Write a variable
+     * @param name the name of the variable
+     * @return the variable with a leading question mark
+     */
+    public static String variable(String name) {
+        return "?" + name;
+    }
+}
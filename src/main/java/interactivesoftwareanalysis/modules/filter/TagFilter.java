@@ -1,17 +1,53 @@
 package interactivesoftwareanalysis.modules.filter;
 
+import interactivesoftwareanalysis.model.Tag;
+import interactivesoftwareanalysis.model.TaggedResources;
+import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.data.DataItem;
 
+import java.text.MessageFormat;
+
 /**
- * A filter that matches resources tagged with the exact tag name
+ * A filter that matches resources tagged with the exact tag name.
+ * The tagged resources are taken from the tag index of the model as a bitset,
+ * which is retrieved again, when tags were changed.
  */
 public class TagFilter extends DecideFilterBase {
 
-    public TagFilter(String pattern) {
+    private final ModuleContext moduleContext;
+    private volatile TaggedResources taggedResources;
+
+    public TagFilter(String pattern, ModuleContext moduleContext) {
         super(pattern);
+        this.moduleContext = moduleContext;
     }
 
     @Override public boolean filter(DataItem dataItem) {
-        return pattern.isEmpty() || dataItem.getTags().stream().anyMatch(tag -> tag.getName().equals(pattern));
+        if (pattern.isEmpty()) {
+            return true;
+        }
+        return dataItem.getResource() != null && getTaggedResources().contains(dataItem.getResource().getUri());
+    }
+
+    @Override public String toSparqlCondition(String uriVariable, String variablePrefix) {
+        if (pattern.isEmpty()) {
+            return "true";
+        }
+        String tag = SparqlTerms.variable(variablePrefix + "tag");
+        return MessageFormat.format("EXISTS '{' {0} {1} {2}. {2} {3} {4} '}'", SparqlTerms.variable(uriVariable),
+                SparqlTerms.uri(Tag.TAG_PROPERTY), tag, SparqlTerms.uri(Tag.TAG_NAME_PROPERTY), SparqlTerms.literal(pattern));
+    }
+
+    /**
+     * Retrieve the resources tagged with the pattern, from the model if they changed since the last time
+     * @return a snapshot of the tagged resources
+     */
+    private TaggedResources getTaggedResources() {
+        TaggedResources current = taggedResources;
+        if (current == null || current.isOutdated()) {
+            current = moduleContext.getModel().getTaggedResources(pattern);
+            taggedResources = current;
+        }
+        return current;
     }
 }
@@ -1,26 +1,45 @@
 package interactivesoftwareanalysis.modules.filter;
 
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.TextMatches;
+import interactivesoftwareanalysis.modules.ModuleContext;
 import interactivesoftwareanalysis.modules.data.DataItem;
 
 /**
- * A filter that matches items that contain the pattern in any of their string values.
+ * A filter that matches items that contain the pattern in any of their string values, ignoring case.
  */
-public class TextFilter extends DecideFilterBase {
+public class TextFilter extends TextFilterBase {
 
-    public TextFilter(String pattern) {
-        super(pattern);
+    public TextFilter(String pattern, ModuleContext moduleContext) {
+        super(pattern, moduleContext);
+    }
+
+    @Override protected TextMatches findMatches(Model model, int maxMatches) {
+        return model.findValuesContaining(pattern, maxMatches);
+    }
+
+    // the text key contains all strings, so searching it is faster than looking up every string, unless nothing matches
+    @Override protected int getMaxMatches(int itemCount) {
+        return 0;
     }
 
     @Override public boolean filter(DataItem dataItem) {
-        if (dataItem.getString().toLowerCase().contains(pattern.toLowerCase())) {
-            return true;
-        }else{
-            for (String s : dataItem.getStrings().values()) {
-                if (s.toLowerCase().contains(pattern.toLowerCase())) {
+        TextMatches matches = getTextMatches();
+        if (matches != null && dataItem.isTextIndexed(matches)) {
+            if (matches.size() == 0) {
+                return false;
+            }
+            if (matches.contains(dataItem.getString())) {
+                return true;
+            }
+            for (String value : dataItem.getStrings().values()) {
+                if (matches.contains(value)) {
                     return true;
                 }
             }
+            return false;
         }
-        return false;
+        // all string values are contained in the text key
+        return dataItem.getTextKey().contains(foldedPattern);
     }
 }
@@ -0,0 +1,64 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.TextMatches;
+import interactivesoftwareanalysis.modules.ModuleContext;
+import interactivesoftwareanalysis.modules.data.DataItem;
+
+import java.util.Collection;
+
+/**
+ * <p>A base class for filters that search the strings of items for the pattern, ignoring case.</p>
+ *
+ * <p>When the filter is prepared for many items, the matching values are looked up in the trigram index
+ * of the model once, so deciding a string, that is a value in the model, is a lookup. Other strings,
+ * like the path segments in trees, and all strings of unprepared items are searched directly.</p>
+ */
+public abstract class TextFilterBase extends DecideFilterBase {
+
+    /** Fewer items are searched directly, as that is faster than looking up the index */
+    private static final int MIN_INDEXED_ITEMS = 1000;
+
+    /** Looking up many matching values takes longer than searching the strings directly */
+    private static final double MAX_MATCH_FRACTION = 0.01;
+
+    protected final String foldedPattern;
+    private final ModuleContext moduleContext;
+    private volatile TextMatches textMatches;
+
+    public TextFilterBase(String pattern, ModuleContext moduleContext) {
+        super(pattern);
+        this.moduleContext = moduleContext;
+        foldedPattern = DataItem.foldCase(pattern);
+    }
+
+    /**
+     * Look up the values matching the pattern in the model
+     * @param model the model to look up the values in
+     * @param maxMatches the maximum number of matching values, that are worth looking up
+     * @return a snapshot of the matching values or null, if the index can't be used for the pattern
+     */
+    protected abstract TextMatches findMatches(Model model, int maxMatches);
+
+    /**
+     * Retrieve the values matching the pattern, that were looked up, when the filter was prepared
+     * @return a snapshot of the matching values or null, if all strings have to be searched directly
+     */
+    protected TextMatches getTextMatches() {
+        return textMatches;
+    }
+
+    /**
+     * Retrieve the maximum number of matching values, for which deciding items with the index is faster
+     * than searching their strings directly. By default, these are few compared to the items.
+     * @param itemCount the number of items, that are filtered next
+     * @return the maximum number of matching values
+     */
+    protected int getMaxMatches(int itemCount) {
+        return (int) (itemCount * MAX_MATCH_FRACTION);
+    }
+
+    @Override public void prepare(Collection<DataItem> dataItems) {
+        textMatches = dataItems.size() >= MIN_INDEXED_ITEMS ? findMatches(moduleContext.getModel(), getMaxMatches(dataItems.size())) : null;
+    }
+}
@@ -18,4 +18,9 @@ public class URIFilter extends DecideFilterBase {
             return false;
         }
     }
+
+    @Override public String toSparqlCondition(String uriVariable, String variablePrefix) {
+        String uri = SparqlTerms.uri(pattern);
+        return uri != null ? SparqlTerms.variable(uriVariable) + " = " + uri : null;
+    }
 }
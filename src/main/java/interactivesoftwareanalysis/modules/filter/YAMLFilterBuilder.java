@@ -10,6 +10,7 @@ import org.yaml.snakeyaml.parser.ParserException;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +25,8 @@ import java.util.Map;
  * </code>
  * creates a filterA with two decide filters: a default filter with a "parameterA" and the filterB with
  * a "parameterB".</p>
+ *
+ * <p>The filter is compiled by the {@link FilterCompiler}, which reorders combined filters by their estimated costs.</p>
  */
 public class YAMLFilterBuilder implements FilterBuilder {
 
@@ -45,7 +48,7 @@ public class YAMLFilterBuilder implements FilterBuilder {
 
     }
 
-    @Override public Filter buildFilter(String query,
+    @Override public FilterPlan buildFilter(String query,
                                         Map<String, DecideFilterFactory> filterFactories,
                                         Map<String, CombineFilterFactory> combineFilterFactories) throws BuildFilterException {
 
@@ -62,19 +65,23 @@ public class YAMLFilterBuilder implements FilterBuilder {
             throw new BuildFilterException("An error occured while parsing the query.", e);
         }
 
-        // Create the default filter, when only a string is entered
-        if (node instanceof String) {
-            return filterFactories.get(DEFAULT_FILTER).newInstance((String) node);
-        }
+        // remember the factory of every decide filter, so the compiler knows their estimates
+        Map<Filter, DecideFilterFactory> factories = new IdentityHashMap<>();
+        Filter filter;
 
-        // If it is a map, build a nested filter.
-        if (node instanceof Map) {
+        if (node instanceof String) {
+            // Create the default filter, when only a string is entered
+            filter = newDecideFilter(filterFactories.get(DEFAULT_FILTER), (String) node, factories);
+        } else if (node instanceof Map) {
+            // If it is a map, build a nested filter.
             Map map = (Map) node;
-            return getFilterForMap(map, filterFactories, combineFilterFactories);
+            filter = getFilterForMap(map, filterFactories, combineFilterFactories, factories);
+        } else {
+            // Otherwise, use a noop filter that does nothing.
+            filter = new NoopFilter();
         }
 
-        // Otherwise, return a noop filter that does nothing.
-        return new NoopFilter();
+        return new FilterCompiler(factories).compile(filter);
     }
 
     public boolean getUseWrapper() {
@@ -89,7 +96,20 @@ public class YAMLFilterBuilder implements FilterBuilder {
         this.useWrapper.set(useWrapper);
     }
 
-    private Filter getFilterForMap(Map map, Map<String, DecideFilterFactory> filterFactories, Map<String, CombineFilterFactory> combineFilterFactories) throws BuildFilterException {
+    private Filter newDecideFilter(DecideFilterFactory factory, String pattern, Map<Filter, DecideFilterFactory> factories) throws BuildFilterException {
+        Filter filter;
+        try {
+            filter = factory.newInstance(pattern);
+        } catch (IllegalArgumentException e) {
+            // e.g. an invalid regular expression
+            throw new BuildFilterException(MessageFormat.format("The pattern ''{0}'' is invalid: {1}", pattern, e.getMessage()), e);
+        }
+        factories.put(filter, factory);
+        return filter;
+    }
+
+    private Filter getFilterForMap(Map map, Map<String, DecideFilterFactory> filterFactories, Map<String, CombineFilterFactory> combineFilterFactories,
+                                   Map<Filter, DecideFilterFactory> factories) throws BuildFilterException {
 
         // A map object represents one filter instance.
         // The key is the filter name and the value is the parameter / parameters.
@@ -111,7 +131,7 @@ public class YAMLFilterBuilder implements FilterBuilder {
             //                -^-
             if (parameter instanceof String) {
                 if (filterFactories.containsKey(filterName)){
-                    return filterFactories.get(filterName).newInstance((String) parameter);
+                    return newDecideFilter(filterFactories.get(filterName), (String) parameter, factories);
                 } else {
                     throw new BuildFilterException(MessageFormat.format("Filter ''{0}'' is unknown.", filterName));
                 }
@@ -134,7 +154,7 @@ public class YAMLFilterBuilder implements FilterBuilder {
                     //       -^-
                     if (object instanceof String) {
                         if (filterFactories.containsKey(DEFAULT_FILTER)) {
-                            subFilters.add(filterFactories.get(DEFAULT_FILTER).newInstance((String) object));
+                            subFilters.add(newDecideFilter(filterFactories.get(DEFAULT_FILTER), (String) object, factories));
                         } else {
                             throw new BuildFilterException(MessageFormat.format("Default filter ''{0}'' is unknown.", DEFAULT_FILTER));
                         }
@@ -145,7 +165,7 @@ public class YAMLFilterBuilder implements FilterBuilder {
                     // and: [abc, tag:def]
                     //            ---^----
                     if (object instanceof Map) {
-                        subFilters.add(getFilterForMap((Map) object, filterFactories, combineFilterFactories));
+                        subFilters.add(getFilterForMap((Map) object, filterFactories, combineFilterFactories, factories));
                     }
                 }
 
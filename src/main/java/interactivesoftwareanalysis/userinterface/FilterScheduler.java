@@ -0,0 +1,133 @@
+package interactivesoftwareanalysis.userinterface;
+
+import interactivesoftwareanalysis.modules.data.Cancellation;
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * <p>Runs the filtering of a view in the background, so that only the latest filtering is shown.</p>
+ *
+ * <p>Every new filtering supersedes the previous one: if it did not start yet, it stops before filtering,
+ * if it runs, it is cancelled cooperatively and if it finished, its result is not shown. Filterings caused by typing
+ * are delayed, until the user pauses, so a quickly typed word only filters once. All views share a small pool of threads.</p>
+ */
+class FilterScheduler {
+
+    /** The time to wait for another keystroke before filtering in ms */
+    private static final long DEBOUNCE_TIME = 150;
+
+    /** The number of threads filtering for all views. The filters use parallel streams themselves. */
+    private static final int THREADS = 2;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newScheduledThreadPool(THREADS, new FilterThreadFactory());
+
+    /** Is called on the application thread, after the result of a filtering was shown */
+    private final Runnable onShown;
+
+    /** The number of the latest filtering. Older filterings are cancelled. */
+    private final AtomicLong latestRun = new AtomicLong();
+
+    /** The number of filterings, that are waiting, running or waiting to be shown */
+    private final AtomicInteger activeRuns = new AtomicInteger();
+
+    private final AtomicLong cancelledRuns = new AtomicLong();
+    private volatile long lastLatency = -1;
+
+    /**
+     * Create a new scheduler for a view
+     * @param onShown is called on the application thread, after the result of a filtering was shown
+     */
+    FilterScheduler(Runnable onShown) {
+        this.onShown = onShown;
+    }
+
+    /**
+     * <p>Filter in the background and show the result, unless another filtering is scheduled before.</p>
+     *
+     * <p>The filtering gets a cancellation, that is cancelled when the next filtering is scheduled, and returns
+     * a runnable, that shows its result. That runnable is executed on the application thread, only if the filtering
+     * is still the latest one at that time.</p>
+     * @param debounce true, to wait for more changes before filtering, e.g. while typing
+     * @param filtering the filtering to execute
+     */
+    void schedule(boolean debounce, Function<Cancellation, Runnable> filtering) {
+        long requestTime = System.nanoTime();
+        long run = latestRun.incrementAndGet();
+        Cancellation cancellation = () -> latestRun.get() != run;
+        activeRuns.incrementAndGet();
+        EXECUTOR.schedule(() -> {
+            try {
+                // a filtering superseded while waiting stops here
+                cancellation.check();
+                Runnable show = filtering.apply(cancellation);
+                Platform.runLater(() -> {
+                    try {
+                        if (cancellation.isCancelled()) {
+                            cancelledRuns.incrementAndGet();
+                            return;
+                        }
+                        show.run();
+                        lastLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestTime);
+                    } finally {
+                        activeRuns.decrementAndGet();
+                    }
+                    onShown.run();
+                });
+            } catch (CancellationException e) {
+                cancelledRuns.incrementAndGet();
+                activeRuns.decrementAndGet();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                activeRuns.decrementAndGet();
+            }
+        }, debounce ? DEBOUNCE_TIME : 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Decide, whether a filtering was scheduled, whose result was not shown or discarded yet.
+     * The shown result might be replaced by such a filtering at any time.
+     * @return true, if a filtering is waiting, running or waiting to be shown
+     */
+    boolean isFiltering() {
+        return activeRuns.get() > 0;
+    }
+
+    /**
+     * Retrieve the number of filterings, that were superseded by a later one and not shown
+     * @return the number of cancelled filterings of this view
+     */
+    long getCancelledRuns() {
+        return cancelledRuns.get();
+    }
+
+    /**
+     * Retrieve the time from scheduling the last shown filtering, e.g. the keystroke, to showing its result.
+     * This includes the time waiting for more keystrokes.
+     * @return the latency in ms or -1, if no filtering was shown yet
+     */
+    long getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Creates daemon threads, so that filtering does not keep the application alive
+     */
+    private static class FilterThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "filter-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package interactivesoftwareanalysis.userinterface;
+
+import interactivesoftwareanalysis.modules.filter.FilterPlan;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The result of filtering the data of a view, together with the filter and the data it was filtered from.
+ * Views keep it to filter their shown data again, when the filter is refined, instead of all data.
+ * @param <T> the type of the filtered data
+ */
+@RequiredArgsConstructor class FilteredData<T> {
+
+    /** The filter that was applied */
+    @Getter private final FilterPlan filter;
+
+    /** The data that was filtered, compared by identity */
+    private final Object source;
+
+    /** The filtered data */
+    @Getter private final T data;
+
+    /**
+     * Decide, whether the data was filtered from a source
+     * @param source the source data
+     * @return true, if the source is identical to the source of this data
+     */
+    boolean isFilteredFrom(Object source) {
+        return this.source == source;
+    }
+
+    /**
+     * Decide, whether the filtered data can be filtered again with a new filter instead of the source data
+     * @param filter the new filter
+     * @param source the data that would be filtered otherwise
+     * @return true, if the new filter refines the filter of this data and the source is still the same
+     */
+    boolean isRefinedBy(FilterPlan filter, Object source) {
+        // ranking filters reorder the data, so the original order is lost
+        return isFilteredFrom(source) && !this.filter.isRanking() && filter.refines(this.filter);
+    }
+}
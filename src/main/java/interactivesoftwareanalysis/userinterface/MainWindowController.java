@@ -1,9 +1,18 @@
 package interactivesoftwareanalysis.userinterface;
 
+import com.google.common.io.CountingInputStream;
 import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.ModelBusyException;
+import interactivesoftwareanalysis.model.ModelFormat;
+import interactivesoftwareanalysis.model.ProjectException;
+import interactivesoftwareanalysis.model.ProjectModel;
 import interactivesoftwareanalysis.modules.InteractiveSubmodule;
 import interactivesoftwareanalysis.modules.ModuleManager;
+import interactivesoftwareanalysis.modules.Progress;
+import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.ListChangeListener;
@@ -11,18 +20,22 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.shape.Circle;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.util.Duration;
 
 import javax.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 import java.nio.file.Files;
+import java.text.MessageFormat;
 import java.util.ResourceBundle;
 
 /**
@@ -31,6 +44,9 @@ import java.util.ResourceBundle;
  */
 public class MainWindowController implements Initializable {
 
+    /** Is shown, when the model content can not be exchanged, because an import is running */
+    private static final String MODEL_BUSY_MESSAGE = "Solange ein Import läuft, kann kein anderes Modell geladen und kein Projekt geöffnet oder geschlossen werden. Bitte warten Sie, bis der Import abgeschlossen ist.";
+
     @FXML private MenuButton perspectiveMenu;
     @FXML private TextField perspectiveName;
     @FXML private Pane windowPane;
@@ -40,6 +56,11 @@ public class MainWindowController implements Initializable {
     @FXML private Pane modulePane;
     @FXML private Button saveButton;
     @FXML private Button loadButton;
+    @FXML private MenuItem openProjectItem;
+    @FXML private MenuItem closeProjectItem;
+    @FXML private HBox modelProgressBox;
+    @FXML private ProgressIndicator modelProgressIndicator;
+    @FXML private Label modelProgressMessage;
 
     @Inject private UIManager uiManager;
     @Inject private ModuleManager moduleManager;
@@ -90,6 +111,13 @@ public class MainWindowController implements Initializable {
         // Build the model menu
         buildExportMenu();
 
+        // projects can only be opened, if the model supports them
+        openProjectItem.setDisable(!(model instanceof ProjectModel));
+        closeProjectItem.setDisable(true);
+
+        // the progress of loading and saving only takes space, while it is shown
+        modelProgressBox.managedProperty().bind(modelProgressBox.visibleProperty());
+
         // Register listeners to show the new perspective, when it is switched
         registerPerspectiveSwitchListeners();
 
@@ -229,38 +257,175 @@ public class MainWindowController implements Initializable {
     }
 
     /**
-     * Show a file chooser to select a model file and load it
+     * Show a file chooser to select a model file and load it in the background.
+     * The format is determined by the file name extension.
      */
     @FXML private void loadModel() {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Modell laden");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("XML/RDF Modell", "*.xml"));
+        FileChooser fileChooser = newModelFileChooser("Modell laden");
         File file = fileChooser.showOpenDialog(windowPane.getScene().getWindow());
         if (file != null) {
-            try {
-                InputStream stream = Files.newInputStream(file.toPath());
-                model.load(stream);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            double size = file.length();
+            Progress progress = startProgress("Lade " + file.getName());
+            new Thread(() -> {
+                try (CountingInputStream stream = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                    // report the progress by the bytes read from the file, as the number of statements is unknown
+                    Timeline timeline = new Timeline(new KeyFrame(Duration.millis(200), event -> progress.setProgress(stream.getCount() / size)));
+                    timeline.setCycleCount(Animation.INDEFINITE);
+                    Platform.runLater(timeline::play);
+                    try {
+                        model.load(stream, ModelFormat.fromFileName(file.getName()));
+                    } finally {
+                        Platform.runLater(timeline::stop);
+                    }
+                } catch (ModelBusyException e) {
+                    uiManager.showErrorDialog(MODEL_BUSY_MESSAGE);
+                } catch (IOException | RuntimeException e) {
+                    e.printStackTrace();
+                    uiManager.showErrorDialog("Das Modell " + file + " konnte nicht geladen werden.");
+                } finally {
+                    stopProgress();
+                }
+            }).start();
         }
     }
 
     /**
-     * Show a file chooser to select the destination model file and save the model to it
+     * Show a file chooser to select the destination model file and save the model to it in the background.
+     * The format is determined by the file name extension. Without a known extension, the format of the selected
+     * extension filter is used and its extension is appended.
      */
     @FXML private void saveModel() {
-        FileChooser fileChooser = new FileChooser();
-        fileChooser.setTitle("Modell speichern");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("XML/RDF Modell", "*.xml"));
-        File file = fileChooser.showSaveDialog(windowPane.getScene().getWindow());
-        if (file != null) {
+        FileChooser fileChooser = newModelFileChooser("Modell speichern");
+        File selectedFile = fileChooser.showSaveDialog(windowPane.getScene().getWindow());
+        if (selectedFile != null) {
+            ModelFormat format = ModelFormat.fromFileName(selectedFile.getName(), getSelectedModelFormat(fileChooser));
+            File file = format.matches(selectedFile.getName())
+                    ? selectedFile
+                    : new File(selectedFile.getPath() + "." + format.getExtension());
+            Progress progress = startProgress("Speichere " + file.getName());
+            new Thread(() -> {
+                try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+                    model.save(stream, format, progress::setProgress);
+                } catch (IOException | RuntimeException e) {
+                    e.printStackTrace();
+                    uiManager.showErrorDialog("Das Modell konnte nicht in " + file + " gespeichert werden.");
+                } finally {
+                    stopProgress();
+                }
+            }).start();
+        }
+    }
+
+    /**
+     * Remove tags, that are not linked to any resource anymore, in the background and report the removed statements
+     */
+    @FXML private void compactModel() {
+        startProgress("Bereinige das Modell");
+        new Thread(() -> {
             try {
-                OutputStream stream = Files.newOutputStream(file.toPath());
-                model.save(stream);
-            } catch (IOException e) {
+                int removed = model.removeOrphanedTags();
+                uiManager.showInformationDialog(MessageFormat.format("Es wurden {0} Aussagen zu nicht mehr verwendeten Tags entfernt.", removed));
+            } catch (RuntimeException e) {
                 e.printStackTrace();
+                uiManager.showErrorDialog("Das Modell konnte nicht bereinigt werden.");
+            } finally {
+                stopProgress();
             }
+        }).start();
+    }
+
+    /**
+     * Create a file chooser for model files, that offers the binary format first
+     * @param title the title of the file chooser
+     * @return the new file chooser
+     */
+    private FileChooser newModelFileChooser(String title) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Binäres Modell", "*." + ModelFormat.BINARY.getExtension()),
+                new FileChooser.ExtensionFilter("XML/RDF Modell", "*." + ModelFormat.RDF_XML.getExtension()));
+        return fileChooser;
+    }
+
+    /**
+     * Determine the model format of the extension filter selected in a file chooser
+     * @param fileChooser a file chooser created by {@link #newModelFileChooser(String)}
+     * @return the format of the selected extension filter, or the binary format, if none is selected
+     */
+    private ModelFormat getSelectedModelFormat(FileChooser fileChooser) {
+        FileChooser.ExtensionFilter filter = fileChooser.getSelectedExtensionFilter();
+        if (filter != null) {
+            for (ModelFormat format : ModelFormat.values()) {
+                if (filter.getExtensions().contains("*." + format.getExtension())) {
+                    return format;
+                }
+            }
+        }
+        return ModelFormat.BINARY;
+    }
+
+    /**
+     * Show the progress indicator and the message of a new progress in the perspective bar
+     * @param message the message to show
+     * @return the new progress
+     */
+    private Progress startProgress(String message) {
+        Progress progress = new Progress(newProgress -> Platform.runLater(() -> modelProgressIndicator.setProgress(newProgress)));
+        progress.setMessage(message);
+        modelProgressIndicator.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        modelProgressMessage.textProperty().bind(progress.messageProperty());
+        modelProgressBox.setVisible(true);
+        return progress;
+    }
+
+    /**
+     * Hide the progress indicator in the perspective bar
+     */
+    private void stopProgress() {
+        Platform.runLater(() -> {
+            modelProgressMessage.textProperty().unbind();
+            modelProgressBox.setVisible(false);
+        });
+    }
+
+    /**
+     * Show a directory chooser to select a project directory and open the project.
+     * The model content is replaced by the content stored in the project.
+     */
+    @FXML private void openProject() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Projekt öffnen");
+        File directory = directoryChooser.showDialog(windowPane.getScene().getWindow());
+        if (directory != null) {
+            ProjectModel projectModel = (ProjectModel) model;
+            // waiting for running transactions might take a while, so don't block the gui thread.
+            new Thread(() -> {
+                try {
+                    projectModel.openProject(directory.toPath());
+                    Platform.runLater(() -> closeProjectItem.setDisable(false));
+                } catch (ModelBusyException e) {
+                    uiManager.showErrorDialog(MODEL_BUSY_MESSAGE);
+                } catch (ProjectException e) {
+                    e.printStackTrace();
+                    uiManager.showErrorDialog("Das Projekt " + directory + " konnte nicht geöffnet werden.");
+                }
+            }).start();
         }
     }
+
+    /**
+     * Close the open project and continue with an empty model
+     */
+    @FXML private void closeProject() {
+        ProjectModel projectModel = (ProjectModel) model;
+        new Thread(() -> {
+            try {
+                projectModel.closeProject();
+                Platform.runLater(() -> closeProjectItem.setDisable(true));
+            } catch (ModelBusyException e) {
+                uiManager.showErrorDialog(MODEL_BUSY_MESSAGE);
+            }
+        }).start();
+    }
 }
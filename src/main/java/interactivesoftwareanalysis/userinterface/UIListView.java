@@ -6,6 +6,7 @@ import interactivesoftwareanalysis.modules.data.DataItem;
 import interactivesoftwareanalysis.modules.data.DataList;
 import interactivesoftwareanalysis.modules.data.DataType;
 import interactivesoftwareanalysis.modules.data.DataTypeNotSupportedException;
+import interactivesoftwareanalysis.modules.filter.FilterPlan;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
@@ -15,7 +16,10 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.SelectionMode;
 import lombok.SneakyThrows;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A view that displays {@link DataList}s
@@ -24,7 +28,14 @@ class UIListView extends UIView {
 
     private static final Class<DataList> ACCEPTED_DATA_TYPE = DataList.class;
     private ListView<DataItem> listView;
-    private DataList dataList;
+    private volatile DataList dataList;
+    /**
+     * The data items currently shown, compared by identity, because their tags can change. It is only replaced on
+     * the application thread and never changed in place, so tag updates can read it in the background.
+     */
+    private volatile Set<DataItem> shownItems = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** The last filtered list, to filter it again, when the filter is refined */
+    private volatile FilteredData<List<DataItem>> filteredList;
 
     /**
      * Retrieves a factory for instantiating this view type
@@ -72,20 +83,113 @@ class UIListView extends UIView {
         selectionProperty().set(listView.getSelectionModel().getSelectedItems());
     }
 
-    @Override @SneakyThrows(DataTypeNotSupportedException.class)
-    public void update() {
-        setProgressVisible(true);
-        dataList = interactiveSubmodule.getData(DataList.class);
+    @Override public void update() {
+        synchronized (this) {
+            // the complete data is retrieved again, when a filter needs it
+            dataList = null;
+        }
         updateFilter();
     }
 
     @Override public void updateFilter() {
-        new Thread(() -> {
-            setProgressVisible(true);
-            List<DataItem> list = dataList.getFilteredList(filter);
-            setProgressVisible(false);
-            Platform.runLater(() -> listView.setItems(FXCollections.observableArrayList(list)));
-        }).start();
+        filter(false);
+    }
+
+    @Override protected void refineFilter() {
+        filter(true);
+    }
+
+    /**
+     * Retrieve the data list to filter. Submodules can narrow the data with a selective filter in their query,
+     * otherwise all data is retrieved once and filtered again for every filter.
+     * @param filter the filter that will be applied to the data
+     * @return the narrowed or complete data list
+     */
+    @SneakyThrows(DataTypeNotSupportedException.class)
+    private DataList getData(FilterPlan filter) {
+        DataList narrowed = interactiveSubmodule.getData(DataList.class, filter);
+        if (narrowed != null) {
+            return narrowed;
+        }
+        synchronized (this) {
+            if (dataList == null) {
+                dataList = interactiveSubmodule.getData(DataList.class);
+            }
+            return dataList;
+        }
+    }
+
+    /**
+     * Filter the data list in the background and show the result
+     * @param refine true, to filter the last filtered list again, if the filter refines its filter
+     */
+    private void filter(boolean refine) {
+        FilterPlan filter = this.filter;
+        setProgressVisible(true);
+        // changes of the filter are typed, so they are debounced
+        filterScheduler.schedule(refine, cancellation -> {
+            DataList dataList = getData(filter);
+            cancellation.check();
+            FilteredData<List<DataItem>> previous = filteredList;
+            List<DataItem> list = refine && previous != null && previous.isRefinedBy(filter, dataList)
+                    ? dataList.refineFilteredList(previous.getData(), filter, cancellation)
+                    : dataList.getFilteredList(filter, cancellation);
+            FilteredData<List<DataItem>> filtered = new FilteredData<>(filter, dataList, list);
+            Set<DataItem> newShownItems = Collections.newSetFromMap(new IdentityHashMap<>());
+            newShownItems.addAll(list);
+            return () -> {
+                // only a shown result is refined later
+                filteredList = filtered;
+                shownItems = newShownItems;
+                listView.setItems(FXCollections.observableArrayList(list));
+                setProgressVisible(false);
+            };
+        });
+    }
+
+    @Override protected boolean updateTags(Set<String> resourceUris) {
+        FilteredData<List<DataItem>> shown = filteredList;
+        DataList dataList = this.dataList;
+        if (shown == null) {
+            return false;
+        }
+        List<DataItem> changedItems = dataList != null ? dataList.refreshTags(resourceUris) : Collections.emptyList();
+        if (!shown.isFilteredFrom(dataList)) {
+            // the shown data was narrowed by the submodule and newly tagged items might match now
+            updateFilter();
+            return true;
+        }
+        if (changedItems.isEmpty()) {
+            return true;
+        }
+        if (filterScheduler.isFiltering()) {
+            // a scheduled filtering may have decided on the items before their tags changed
+            updateFilter();
+            return true;
+        }
+        List<DataItem> notMatching = getItemsNotMatchingAnymore(changedItems, shownItems);
+        if (notMatching == null) {
+            updateFilter();
+        } else {
+            Set<DataItem> removedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+            removedItems.addAll(notMatching);
+            Platform.runLater(() -> {
+                if (filteredList != shown || filterScheduler.isFiltering()) {
+                    // the shown result changed meanwhile, so it is not known, whether it contains the changes
+                    updateFilter();
+                    return;
+                }
+                if (!removedItems.isEmpty()) {
+                    Set<DataItem> remainingItems = Collections.newSetFromMap(new IdentityHashMap<>());
+                    remainingItems.addAll(shownItems);
+                    remainingItems.removeAll(removedItems);
+                    shownItems = remainingItems;
+                    listView.getItems().removeIf(removedItems::contains);
+                }
+                listView.refresh();
+            });
+        }
+        return true;
     }
 
 }
@@ -220,6 +220,22 @@ public class UIManager {
         });
     }
 
+    /**
+     * Display an information dialog.
+     * @param message the message to display
+     */
+    public void showInformationDialog(String message){
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.getDialogPane().getStylesheets().add("styles/style.css");
+            alert.setTitle("Information");
+            alert.setHeaderText("");
+            alert.setContentText(message);
+            alert.initOwner(scene.getWindow());
+            alert.show();
+        });
+    }
+
     /**
      * Display an error dialog.
      * @param message the message to display
@@ -237,10 +253,11 @@ public class UIManager {
     }
 
     /**
-     * Update views in the current perspective on a model change
+     * Update views in the current perspective on a model change.
+     * Views apply changes that only affect tags to their existing data.
      * @param event the model changed event
      */
     @Subscribe private void onModelChanged(ModelChangedEvent event){
-        getCurrentPerspective().getUiViews().forEach(uiView -> new Thread(uiView::update).start());
+        getCurrentPerspective().getUiViews().forEach(uiView -> new Thread(() -> uiView.update(event)).start());
     }
 }
@@ -6,6 +6,7 @@ import interactivesoftwareanalysis.modules.data.DataItem;
 import interactivesoftwareanalysis.modules.data.DataTable;
 import interactivesoftwareanalysis.modules.data.DataType;
 import interactivesoftwareanalysis.modules.data.DataTypeNotSupportedException;
+import interactivesoftwareanalysis.modules.filter.FilterPlan;
 import javafx.application.Platform;
 import javafx.beans.value.ObservableValueBase;
 import javafx.collections.FXCollections;
@@ -14,7 +15,10 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import lombok.SneakyThrows;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A view that displays {@link DataTable}s.
@@ -23,7 +27,16 @@ class UITableView extends UIView {
 
     private static final Class<DataTable> ACCEPTED_DATA_TYPE = DataTable.class;
     private TableView<DataItem> tableView;
-    private DataTable dataTable;
+    private volatile DataTable dataTable;
+    /** The names of the columns currently shown */
+    private List<String> shownColumns;
+    /**
+     * The data items currently shown, compared by identity, because their tags can change. It is only replaced on
+     * the application thread and never changed in place, so tag updates can read it in the background.
+     */
+    private volatile Set<DataItem> shownItems = Collections.newSetFromMap(new IdentityHashMap<>());
+    /** The last filtered table, to filter it again, when the filter is refined */
+    private volatile FilteredData<List<DataItem>> filteredTable;
 
     /**
      * Retrieves a factory for instantiating this view type
@@ -54,33 +67,136 @@ class UITableView extends UIView {
         selectionProperty().set(tableView.getSelectionModel().getSelectedItems());
     }
 
-    @Override @SneakyThrows(DataTypeNotSupportedException.class)
-    public void update() {
-        setProgressVisible(true);
-        dataTable = interactiveSubmodule.getData(DataTable.class);
-        Platform.runLater(() -> {
-                    tableView.getColumns().clear();
-                    for (String s : dataTable.getColumns()) {
-                        TableColumn<DataItem, String> column = new TableColumn<>(s);
-                        column.setCellValueFactory(param -> new ObservableValueBase<String>() {
-                            @Override
-                            public String getValue() {
-                                return param.getValue().getStrings().getOrDefault(s, "");
-                            }
-                        });
-                        Platform.runLater(() -> tableView.getColumns().add(column));
-                    }
-                });
+    @Override public void update() {
+        synchronized (this) {
+            // the complete data is retrieved again, when a filter needs it
+            dataTable = null;
+        }
         updateFilter();
     }
 
     @Override public void updateFilter() {
-        new Thread(() -> {
-            setProgressVisible(true);
-            List<DataItem> list = dataTable.getFilteredTable(filter);
-            setProgressVisible(false);
-            Platform.runLater(() -> tableView.setItems(FXCollections.observableArrayList(list)));
-        }).start();
+        filter(false);
+    }
+
+    @Override protected void refineFilter() {
+        filter(true);
+    }
+
+    /**
+     * Retrieve the data table to filter. Submodules can narrow the data with a selective filter in their query,
+     * otherwise all data is retrieved once and filtered again for every filter.
+     * @param filter the filter that will be applied to the data
+     * @return the narrowed or complete data table
+     */
+    @SneakyThrows(DataTypeNotSupportedException.class)
+    private DataTable getData(FilterPlan filter) {
+        DataTable narrowed = interactiveSubmodule.getData(DataTable.class, filter);
+        if (narrowed != null) {
+            return narrowed;
+        }
+        synchronized (this) {
+            if (dataTable == null) {
+                dataTable = interactiveSubmodule.getData(DataTable.class);
+            }
+            return dataTable;
+        }
+    }
+
+    /**
+     * Filter the data table in the background and show the result
+     * @param refine true, to filter the last filtered table again, if the filter refines its filter
+     */
+    private void filter(boolean refine) {
+        FilterPlan filter = this.filter;
+        setProgressVisible(true);
+        // changes of the filter are typed, so they are debounced
+        filterScheduler.schedule(refine, cancellation -> {
+            DataTable dataTable = getData(filter);
+            cancellation.check();
+            FilteredData<List<DataItem>> previous = filteredTable;
+            List<DataItem> list = refine && previous != null && previous.isRefinedBy(filter, dataTable)
+                    ? dataTable.refineFilteredTable(previous.getData(), filter, cancellation)
+                    : dataTable.getFilteredTable(filter, cancellation);
+            FilteredData<List<DataItem>> filtered = new FilteredData<>(filter, dataTable, list);
+            Set<DataItem> newShownItems = Collections.newSetFromMap(new IdentityHashMap<>());
+            newShownItems.addAll(list);
+            List<String> columns = dataTable.getColumns();
+            return () -> {
+                // only a shown result is refined later
+                filteredTable = filtered;
+                shownItems = newShownItems;
+                if (!columns.equals(shownColumns)) {
+                    showColumns(columns);
+                }
+                tableView.setItems(FXCollections.observableArrayList(list));
+                setProgressVisible(false);
+            };
+        });
+    }
+
+    /**
+     * Replace the columns of the table view
+     * @param columns the column names
+     */
+    private void showColumns(List<String> columns) {
+        tableView.getColumns().clear();
+        for (String s : columns) {
+            TableColumn<DataItem, String> column = new TableColumn<>(s);
+            column.setCellValueFactory(param -> new ObservableValueBase<String>() {
+                @Override
+                public String getValue() {
+                    return param.getValue().getStrings().getOrDefault(s, "");
+                }
+            });
+            tableView.getColumns().add(column);
+        }
+        shownColumns = columns;
+    }
+
+    @Override protected boolean updateTags(Set<String> resourceUris) {
+        FilteredData<List<DataItem>> shown = filteredTable;
+        DataTable dataTable = this.dataTable;
+        if (shown == null) {
+            return false;
+        }
+        List<DataItem> changedItems = dataTable != null ? dataTable.refreshTags(resourceUris) : Collections.emptyList();
+        if (!shown.isFilteredFrom(dataTable)) {
+            // the shown data was narrowed by the submodule and newly tagged items might match now
+            updateFilter();
+            return true;
+        }
+        if (changedItems.isEmpty()) {
+            return true;
+        }
+        if (filterScheduler.isFiltering()) {
+            // a scheduled filtering may have decided on the items before their tags changed
+            updateFilter();
+            return true;
+        }
+        List<DataItem> notMatching = getItemsNotMatchingAnymore(changedItems, shownItems);
+        if (notMatching == null) {
+            updateFilter();
+        } else {
+            Set<DataItem> removedItems = Collections.newSetFromMap(new IdentityHashMap<>());
+            removedItems.addAll(notMatching);
+            Platform.runLater(() -> {
+                if (filteredTable != shown || filterScheduler.isFiltering()) {
+                    // the shown result changed meanwhile, so it is not known, whether it contains the changes
+                    updateFilter();
+                    return;
+                }
+                if (!removedItems.isEmpty()) {
+                    Set<DataItem> remainingItems = Collections.newSetFromMap(new IdentityHashMap<>());
+                    remainingItems.addAll(shownItems);
+                    remainingItems.removeAll(removedItems);
+                    shownItems = remainingItems;
+                    tableView.getItems().removeIf(removedItems::contains);
+                }
+                tableView.refresh();
+            });
+        }
+        return true;
     }
 
 }
@@ -3,14 +3,16 @@ package interactivesoftwareanalysis.userinterface;
 import interactivesoftwareanalysis.modules.InteractiveSubmodule;
 import interactivesoftwareanalysis.modules.ModuleManager;
 import interactivesoftwareanalysis.modules.data.*;
-import javafx.application.Platform;
+import interactivesoftwareanalysis.modules.filter.FilterPlan;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import lombok.SneakyThrows;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -20,8 +22,9 @@ class UITreeView extends UIView {
 
     private static final Class<DataTree> ACCEPDTED_DATA_TYPE = DataTree.class;
     private TreeView<DataItem> treeView;
-    private DataTree dataTree;
-    private TreeItem<DataItem> filteredRoot;
+    private volatile DataTree dataTree;
+    /** The last filtered tree, to copy its expanded state and to filter it again, when the filter is refined */
+    private volatile FilteredData<TreeItem<DataItem>> filteredRoot;
 
     /**
      * Retrieves a factory for instantiating this view type
@@ -82,19 +85,52 @@ class UITreeView extends UIView {
     }
 
     @Override public void updateFilter() {
-        new Thread(() -> {
-            TreeItem<DataItem> oldFilteredRoot = filteredRoot;
-            setProgressVisible(true);
-            filteredRoot = dataTree.getFilteredRoot(filter);
-            if (oldFilteredRoot != null) {
-                copyExpandedState(oldFilteredRoot, filteredRoot);
+        filter(false);
+    }
+
+    @Override protected void refineFilter() {
+        filter(true);
+    }
+
+    /**
+     * Filter the data tree in the background and show the result
+     * @param refine true, to filter the last filtered tree again, if the filter refines its filter
+     */
+    private void filter(boolean refine) {
+        FilterPlan filter = this.filter;
+        DataTree dataTree = this.dataTree;
+        setProgressVisible(true);
+        // changes of the filter are typed, so they are debounced
+        filterScheduler.schedule(refine, cancellation -> {
+            FilteredData<TreeItem<DataItem>> previous = filteredRoot;
+            TreeItem<DataItem> root = refine && previous != null && previous.isRefinedBy(filter, dataTree)
+                    ? dataTree.refineFilteredRoot(previous.getData(), filter, cancellation)
+                    : dataTree.getFilteredRoot(filter, cancellation);
+            if (previous != null) {
+                copyExpandedState(previous.getData(), root);
             }
-            setProgressVisible(false);
-            Platform.runLater(() -> {
-                treeView.setRoot(filteredRoot);
+            FilteredData<TreeItem<DataItem>> filtered = new FilteredData<>(filter, dataTree, root);
+            return () -> {
+                // only a shown result is refined later
+                filteredRoot = filtered;
+                treeView.setRoot(root);
                 dataTree.getRoot().setExpanded(true);
-            });
-        }).start();
+                setProgressVisible(false);
+            };
+        });
+    }
+
+    @Override protected boolean updateTags(Set<String> resourceUris) {
+        if (dataTree == null) {
+            return false;
+        }
+        List<DataItem> changedItems = dataTree.refreshTags(resourceUris);
+        if (!changedItems.isEmpty()) {
+            // a changed item can change, whether its parents match the filter, so the tree is filtered again.
+            // This only works on the existing data and does not retrieve it from the module again.
+            updateFilter();
+        }
+        return true;
     }
 
     /**
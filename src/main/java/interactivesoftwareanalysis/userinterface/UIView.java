@@ -1,5 +1,7 @@
 package interactivesoftwareanalysis.userinterface;
 
+import interactivesoftwareanalysis.model.Tag;
+import interactivesoftwareanalysis.model.events.ModelChangedEvent;
 import interactivesoftwareanalysis.modules.InteractiveSubmodule;
 import interactivesoftwareanalysis.modules.ModuleManager;
 import interactivesoftwareanalysis.modules.actions.*;
@@ -8,6 +10,7 @@ import interactivesoftwareanalysis.modules.data.DataType;
 import interactivesoftwareanalysis.modules.filter.BuildFilterException;
 import interactivesoftwareanalysis.modules.filter.Filter;
 import interactivesoftwareanalysis.modules.filter.FilterBuilder;
+import interactivesoftwareanalysis.modules.filter.FilterPlan;
 import interactivesoftwareanalysis.modules.filter.YAMLFilterBuilder;
 import javafx.animation.*;
 import javafx.application.Platform;
@@ -33,8 +36,10 @@ import org.controlsfx.control.textfield.CustomTextField;
 import java.io.IOException;
 import java.net.URL;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -57,6 +62,10 @@ import java.util.stream.Collectors;
     /** The duration of animations in ms */
     private static final int ANIMATION_TIME = 100;
 
+    /** The glyphs of the filter info label */
+    private static final String INFO_GLYPH = "\uf05a";
+    private static final String ERROR_GLYPH = "\uf071";
+
     @Getter protected final InteractiveSubmodule interactiveSubmodule;
     protected final ModuleManager moduleManager;
     protected final UIManager uiManager;
@@ -70,11 +79,14 @@ import java.util.stream.Collectors;
     @FXML protected Pane resizeVertical;
     @FXML protected CustomTextField filterField;
     @FXML protected CheckMenuItem showHiddenCheck;
-    @FXML protected Label filterErrorLabel;
+    @FXML protected Label filterInfoLabel;
+    @FXML protected Label filterInfoGlyph;
+    @FXML protected Tooltip filterInfoTooltip;
     @FXML protected ProgressIndicator progressIndicator;
     @FXML protected Pane iconPane;
     protected ContextMenu contextMenu;
-    protected Filter filter;
+    protected FilterPlan filter;
+    protected final FilterScheduler filterScheduler = new FilterScheduler(this::showFilterStatistics);
 
     @Getter @Setter @NonNull private UIPerspective uiPerspective;
     private ListProperty<DataItem> selection;
@@ -140,7 +152,9 @@ import java.util.stream.Collectors;
         iconPane.getChildren().add(new Circle(4, converter.getColor(interactiveSubmodule.getName())));
 
         // set the standard filter
-        this.filter = filterBuilder.buildFilter(filterField.getText(), moduleManager.getFilterFactories(), moduleManager.getCombineFilterFactories());
+        FilterPlan filterPlan = filterBuilder.buildFilter(filterField.getText(), moduleManager.getFilterFactories(), moduleManager.getCombineFilterFactories());
+        this.filter = filterPlan;
+        showFilterPlan(filterPlan);
 
         // play the opening animation
         openAnimation.play(contentPane);
@@ -172,6 +186,56 @@ import java.util.stream.Collectors;
      */
     public abstract void updateFilter();
 
+    /**
+     * Update the filtered data after the filter changed.
+     * Views can filter the data they show again instead of all data, if the new filter refines the previous one.
+     */
+    protected void refineFilter() {
+        updateFilter();
+    }
+
+    /**
+     * Update the views data after a model change.
+     * Changes that only affect tags are applied to the existing data, other changes cause a full update.
+     * @param event the model changed event describing the change
+     */
+    public void update(ModelChangedEvent event) {
+        if (!event.affectsOnly(Tag.PROPERTIES) || !updateTags(event.getSubjects())) {
+            update();
+        }
+    }
+
+    /**
+     * Retrieve the tags of data items describing the given resources again, without retrieving all data again
+     * @param resourceUris the uris of resources whose tags changed
+     * @return true, if the tags were updated, false if there is no data yet and a full update is needed
+     */
+    protected abstract boolean updateTags(Set<String> resourceUris);
+
+    /**
+     * Evaluate the filter again for data items whose tags changed
+     * @param changedItems the data items whose tags changed
+     * @param shownItems the data items currently shown in this view
+     * @return the shown data items that do not match the filter anymore or null, if a data item that is not
+     *         shown matches the filter now. The filter has to be applied to all data in that case,
+     *         so the order of the data items is preserved.
+     */
+    protected List<DataItem> getItemsNotMatchingAnymore(List<DataItem> changedItems, Set<DataItem> shownItems) {
+        List<DataItem> notMatching = new ArrayList<>();
+        // the filter may be prepared for all items by a running filtering, so it is not prepared again
+        Filter preparedFilter = filter != null ? filter.preparedFor(changedItems) : null;
+        for (DataItem dataItem : changedItems) {
+            boolean matches = preparedFilter == null || preparedFilter.filter(dataItem);
+            boolean shown = shownItems.contains(dataItem);
+            if (matches && !shown) {
+                return null;
+            } else if (!matches && shown) {
+                notMatching.add(dataItem);
+            }
+        }
+        return notMatching;
+    }
+
     /**
      * Retrieve the content node
      * @return the node displayed as this views content
@@ -273,13 +337,34 @@ import java.util.stream.Collectors;
      */
     @FXML private void filter() {
         try {
-            this.filter = filterBuilder.buildFilter(filterField.getText(), moduleManager.getFilterFactories(), moduleManager.getCombineFilterFactories());
-            filterErrorLabel.setVisible(false);
-            filterErrorLabel.setManaged(false);
-            updateFilter();
+            FilterPlan filterPlan = filterBuilder.buildFilter(filterField.getText(), moduleManager.getFilterFactories(), moduleManager.getCombineFilterFactories());
+            this.filter = filterPlan;
+            showFilterPlan(filterPlan);
+            refineFilter();
         } catch (BuildFilterException e) {
-            filterErrorLabel.setVisible(true);
-            filterErrorLabel.setManaged(true);
+            filterInfoGlyph.setText(ERROR_GLYPH);
+            filterInfoTooltip.setText("Der Filter konnte nicht angewendet werden, da die Filterabfrage Fehler enthält.");
+        }
+    }
+
+    /**
+     * Show the plan of the current filter in the tooltip of the filter info label
+     * @param filterPlan the plan of the compiled filter
+     */
+    private void showFilterPlan(FilterPlan filterPlan) {
+        filterInfoGlyph.setText(INFO_GLYPH);
+        filterInfoTooltip.setText("Die Teilfilter werden in dieser Reihenfolge ausgewertet:\n\n" + filterPlan.describe());
+    }
+
+    /**
+     * Show how long the last filtering took and how many were cancelled in the tooltip of the filter info label
+     */
+    private void showFilterStatistics() {
+        if (INFO_GLYPH.equals(filterInfoGlyph.getText())) {
+            showFilterPlan(filter);
+            filterInfoTooltip.setText(filterInfoTooltip.getText() + MessageFormat.format(
+                    "\n\nDas Ergebnis wurde {0} ms nach der Eingabe angezeigt. {1} überholte Filterungen wurden abgebrochen.",
+                    filterScheduler.getLastLatency(), filterScheduler.getCancelledRuns()));
         }
     }
 
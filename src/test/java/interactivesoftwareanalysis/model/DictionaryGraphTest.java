@@ -0,0 +1,154 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Factory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link DictionaryGraph} against the default Jena graph
+ */
+public class DictionaryGraphTest {
+
+    private static final String NAME_SPACE = "http://interactivesoftwareanalysis/";
+
+    private DictionaryGraph graph;
+    private Graph reference;
+    private List<Node> subjects;
+    private List<Node> predicates;
+    private List<Node> objects;
+
+    @Before public void setUp() {
+        graph = new DictionaryGraph();
+        reference = Factory.createGraphMem();
+        subjects = new ArrayList<>();
+        predicates = new ArrayList<>();
+        objects = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            subjects.add(NodeFactory.createURI(NAME_SPACE + "filesystemitem" + i));
+        }
+        subjects.add(NodeFactory.createBlankNode("tag"));
+        for (int i = 0; i < 6; i++) {
+            predicates.add(NodeFactory.createURI(NAME_SPACE + "attribute" + i));
+        }
+        for (int i = 0; i < 20; i++) {
+            objects.add(NodeFactory.createLiteral("value" + i));
+            objects.add(NodeFactory.createLiteral(Integer.toString(i), XSDDatatype.XSDlong));
+        }
+        // uris are subjects and objects, so the indexes share ids across positions
+        objects.addAll(subjects.subList(0, 10));
+    }
+
+    @Test public void addsAndRemovesLikeDefaultGraph() {
+        Random random = new Random(1);
+        for (int i = 0; i < 3000; i++) {
+            Triple triple = randomTriple(random);
+            graph.add(triple);
+            reference.add(triple);
+        }
+        assertSameContent();
+        for (int i = 0; i < 1500; i++) {
+            Triple triple = randomTriple(random);
+            graph.delete(triple);
+            reference.delete(triple);
+        }
+        assertSameContent();
+    }
+
+    @Test public void findsEveryPatternLikeDefaultGraph() {
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            Triple triple = randomTriple(random);
+            graph.add(triple);
+            reference.add(triple);
+        }
+        // every combination of concrete nodes and wildcards uses another index order
+        for (int i = 0; i < 200; i++) {
+            Triple concrete = randomTriple(random);
+            for (int mask = 0; mask < 8; mask++) {
+                Triple pattern = Triple.createMatch(
+                        (mask & 4) != 0 ? concrete.getSubject() : null,
+                        (mask & 2) != 0 ? concrete.getPredicate() : null,
+                        (mask & 1) != 0 ? concrete.getObject() : null);
+                assertEquals(pattern.toString(), find(reference, pattern), find(graph, pattern));
+                assertEquals(reference.contains(pattern), graph.contains(pattern));
+            }
+        }
+    }
+
+    @Test public void unknownNodesMatchNothing() {
+        Triple triple = Triple.create(subjects.get(0), predicates.get(0), objects.get(0));
+        graph.add(triple);
+        Node unknown = NodeFactory.createURI(NAME_SPACE + "unknown");
+        assertFalse(graph.contains(Triple.create(unknown, predicates.get(0), objects.get(0))));
+        assertFalse(graph.find(null, unknown, null).hasNext());
+        assertFalse(graph.find(null, null, NodeFactory.createLiteral("unknown")).hasNext());
+
+        // deleting a triple with an unknown node changes nothing
+        graph.delete(Triple.create(subjects.get(0), predicates.get(0), unknown));
+        assertEquals(1, graph.size());
+        assertTrue(graph.contains(triple));
+    }
+
+    @Test public void duplicatesAreAddedOnce() {
+        Triple triple = Triple.create(subjects.get(0), predicates.get(0), objects.get(0));
+        graph.add(triple);
+        graph.add(Triple.create(NodeFactory.createURI(NAME_SPACE + "filesystemitem0"), predicates.get(0),
+                NodeFactory.createLiteral("value0")));
+        assertEquals(1, graph.size());
+        graph.delete(triple);
+        assertEquals(0, graph.size());
+        assertTrue(graph.isEmpty());
+    }
+
+    @Test public void clearRemovesAllTriples() {
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            graph.add(randomTriple(random));
+        }
+        graph.clear();
+        assertEquals(0, graph.size());
+        assertFalse(graph.find(null, null, null).hasNext());
+
+        Triple triple = Triple.create(subjects.get(1), predicates.get(1), objects.get(1));
+        graph.add(triple);
+        assertEquals(1, graph.size());
+        assertTrue(graph.contains(triple));
+    }
+
+    private Triple randomTriple(Random random) {
+        return Triple.create(subjects.get(random.nextInt(subjects.size())),
+                predicates.get(random.nextInt(predicates.size())),
+                objects.get(random.nextInt(objects.size())));
+    }
+
+    private void assertSameContent() {
+        assertEquals(reference.size(), graph.size());
+        assertEquals(find(reference, Triple.ANY), find(graph, Triple.ANY));
+        for (Triple triple : find(reference, Triple.ANY)) {
+            assertTrue(graph.contains(triple));
+        }
+    }
+
+    /**
+     * Find the triples matching a pattern
+     * @return the triples. Fails, if a triple was found twice.
+     */
+    private static Set<Triple> find(Graph graph, Triple pattern) {
+        Set<Triple> found = new HashSet<>();
+        graph.find(pattern).forEachRemaining(triple -> assertTrue("found twice: " + triple, found.add(triple)));
+        return found;
+    }
+}
@@ -0,0 +1,269 @@
+package interactivesoftwareanalysis.model;
+
+import com.google.common.eventbus.EventBus;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the snapshot isolation of the {@link JenaTransactionalRDFModel}
+ */
+public class JenaTransactionalRDFModelTest {
+
+    private static final String NAME_SPACE = "http://interactivesoftwareanalysis/";
+    private static final String TYPE = NAME_SPACE + "file";
+
+    /** The number of resources, that are in the model before the import */
+    private static final int EXISTING_RESOURCES = 1000;
+
+    /** The number of resources of the import */
+    private static final int IMPORTED_RESOURCES = 200000;
+
+    /**
+     * The longest time, a read may take during the import in ms, without garbage collection. It is generous,
+     * as the reader shares the processors with the import, but far below the duration of the import.
+     */
+    private static final long MAX_READ_LATENCY = 2000;
+
+    private JenaTransactionalRDFModel model;
+
+    @Before public void setUp() {
+        model = new JenaTransactionalRDFModel(new EventBus());
+        try (ModelBatch batch = model.newBatch()) {
+            addResources(batch, 0, EXISTING_RESOURCES);
+        }
+    }
+
+    @Test(timeout = 120000)
+    public void readersDoNotWaitForImportAndSeeOnlyCommittedSnapshot() throws Exception {
+        CountDownLatch importStarted = new CountDownLatch(1);
+        AtomicBoolean committing = new AtomicBoolean();
+        AtomicReference<Throwable> importFailure = new AtomicReference<>();
+        Thread importer = new Thread(() -> {
+            try {
+                ModelBatch batch = model.newBatch();
+                for (int i = EXISTING_RESOURCES; i < EXISTING_RESOURCES + IMPORTED_RESOURCES; i++) {
+                    addResources(batch, i, i + 1);
+                    if (i == EXISTING_RESOURCES + 60000) {
+                        // the first chunks are committed to the transaction, but not visible yet
+                        importStarted.countDown();
+                    }
+                }
+                committing.set(true);
+                batch.close();
+            } catch (Throwable e) {
+                importFailure.set(e);
+            } finally {
+                importStarted.countDown();
+            }
+        });
+        importer.start();
+        assertTrue(importStarted.await(60, TimeUnit.SECONDS));
+
+        long maxLatency = 0;
+        int reads = 0;
+        while (!committing.get()) {
+            long start = System.nanoTime();
+            long startGarbageCollectionTime = getGarbageCollectionTime();
+            int typed = model.getResources(TYPE).size();
+            int subjects = model.getResources(null, EXISTING_RESOURCES + 1).size();
+            // pauses of the garbage collector, which the import causes, are not waiting for the import
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    - (getGarbageCollectionTime() - startGarbageCollectionTime);
+            if (committing.get()) {
+                // the import may have been committed during the read
+                break;
+            }
+            assertEquals(EXISTING_RESOURCES, typed);
+            assertEquals(EXISTING_RESOURCES, subjects);
+            maxLatency = Math.max(maxLatency, latency);
+            reads++;
+        }
+        importer.join();
+        assertNull(importFailure.get());
+
+        assertTrue("no reads during the import", reads > 0);
+        assertTrue("a read took " + maxLatency + " ms during the import", maxLatency < MAX_READ_LATENCY);
+        assertEquals(EXISTING_RESOURCES + IMPORTED_RESOURCES, model.getResources(TYPE).size());
+        assertEquals(EXISTING_RESOURCES + IMPORTED_RESOURCES, model.getResources().size());
+    }
+
+    @Test public void abortedBatchLeavesNothingBehind() {
+        ModelBatch batch = model.newBatch();
+        addResources(batch, EXISTING_RESOURCES, EXISTING_RESOURCES + 10);
+        batch.commit();
+        addResources(batch, EXISTING_RESOURCES + 10, EXISTING_RESOURCES + 20);
+        batch.abort();
+        batch.close();
+
+        assertEquals(EXISTING_RESOURCES, model.getResources(TYPE).size());
+        assertEquals(EXISTING_RESOURCES, model.getResources().size());
+        assertEquals(0, model.findValuesContaining("/files/" + EXISTING_RESOURCES, 10).size());
+        assertTrue(model.executeSelectQuery("SELECT ?s WHERE { ?s isa:path '/files/" + EXISTING_RESOURCES + "' }").isEmpty());
+
+        // the model can be written again afterwards
+        try (ModelBatch next = model.newBatch()) {
+            addResources(next, EXISTING_RESOURCES, EXISTING_RESOURCES + 1);
+        }
+        assertEquals(EXISTING_RESOURCES + 1, model.getResources().size());
+    }
+
+    @Test public void indexesSeeChangesAfterCommit() throws Exception {
+        ModelBatch batch = model.newBatch();
+        addResources(batch, EXISTING_RESOURCES, EXISTING_RESOURCES + 10);
+        batch.commit();
+
+        // another thread reads the indexes during the transaction
+        AtomicReference<Integer> subjectsDuringImport = new AtomicReference<>();
+        AtomicReference<Integer> matchesDuringImport = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            subjectsDuringImport.set(model.getResources().size());
+            matchesDuringImport.set(model.findValuesContaining("/files/" + EXISTING_RESOURCES, 10).size());
+        });
+        reader.start();
+        reader.join();
+        batch.close();
+
+        assertEquals(Integer.valueOf(EXISTING_RESOURCES), subjectsDuringImport.get());
+        assertEquals(Integer.valueOf(0), matchesDuringImport.get());
+        assertEquals(EXISTING_RESOURCES + 10, model.getResources().size());
+        assertEquals(1, model.findValuesContaining("/files/" + EXISTING_RESOURCES, 10).size());
+    }
+
+    @Test public void failedNestedWriteAbortsTransaction() {
+        ModelBatch batch = model.newBatch();
+        addResources(batch, EXISTING_RESOURCES, EXISTING_RESOURCES + 10);
+        batch.commit();
+        // a write, that joins the transaction of the batch, fails
+        model.enterWrite();
+        model.leave(false);
+        batch.close();
+
+        assertEquals(EXISTING_RESOURCES, model.getResources(TYPE).size());
+        assertEquals(EXISTING_RESOURCES, model.getResources().size());
+    }
+
+    @Test public void missingResourceDoesNotAbortTransaction() {
+        try (ModelBatch batch = model.newBatch()) {
+            addResources(batch, EXISTING_RESOURCES, EXISTING_RESOURCES + 10);
+            batch.commit();
+            try {
+                model.addAttribute(NAME_SPACE + "missing", NAME_SPACE + "path", "/missing");
+                fail("the resource does not exist");
+            } catch (ResourceNotFoundException e) {
+                // expected
+            }
+        }
+        assertEquals(EXISTING_RESOURCES + 10, model.getResources(TYPE).size());
+    }
+
+    @Test public void datasetIsNotExchangedDuringImport() throws Exception {
+        ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        model.save(saved, ModelFormat.BINARY, progress -> {});
+
+        ModelBatch batch = model.newBatch();
+        addResources(batch, EXISTING_RESOURCES, EXISTING_RESOURCES + 10);
+        batch.commit();
+        AtomicReference<Throwable> loadFailure = new AtomicReference<>();
+        Thread loader = new Thread(() -> {
+            try {
+                model.load(new ByteArrayInputStream(saved.toByteArray()), ModelFormat.BINARY);
+            } catch (Throwable e) {
+                loadFailure.set(e);
+            }
+        });
+        loader.start();
+        loader.join(10000);
+        assertFalse("the load waits for the import", loader.isAlive());
+        assertTrue(loadFailure.get() instanceof ModelBusyException);
+        batch.close();
+        assertEquals(EXISTING_RESOURCES + 10, model.getResources(TYPE).size());
+
+        // after the import, the model can be loaded
+        model.load(new ByteArrayInputStream(saved.toByteArray()), ModelFormat.BINARY);
+        assertEquals(EXISTING_RESOURCES, model.getResources(TYPE).size());
+    }
+
+    @Test public void lockingModelKeepsCommittedChunksOfAbortedBatch() {
+        JenaRDFModel lockingModel = new JenaRDFModel(new EventBus());
+        ModelBatch batch = lockingModel.newBatch();
+        addResources(batch, 0, 10);
+        batch.commit();
+        addResources(batch, 10, 20);
+        batch.abort();
+        assertEquals(10, lockingModel.getResources(TYPE).size());
+    }
+
+    @Test public void lockingModelLoadReplacesContentAndIndexes() throws Exception {
+        JenaRDFModel source = new JenaRDFModel(new EventBus());
+        try (ModelBatch batch = source.newBatch()) {
+            addResources(batch, 5000, 5010);
+        }
+        source.addTags(Collections.singleton(NAME_SPACE + "filesystemitem5000"), "tag", null);
+        ByteArrayOutputStream saved = new ByteArrayOutputStream();
+        source.save(saved, ModelFormat.BINARY, progress -> {});
+
+        for (JenaRDFModel lockingModel : Arrays.asList(new JenaRDFModel(new EventBus()), new JenaDictionaryRDFModel(new EventBus()))) {
+            try (ModelBatch batch = lockingModel.newBatch()) {
+                addResources(batch, 0, 100);
+            }
+            assertEquals(1, lockingModel.findValuesContaining("/files/42", 10).size());
+            Class<?> graphType = lockingModel.getInternalModel().getGraph().getClass();
+
+            lockingModel.load(new ByteArrayInputStream(saved.toByteArray()), ModelFormat.BINARY);
+            assertEquals(graphType, lockingModel.getInternalModel().getGraph().getClass());
+            assertEquals(10, lockingModel.getResources(TYPE).size());
+            assertEquals(10, lockingModel.getResources().size());
+            assertEquals(0, lockingModel.findValuesContaining("/files/42", 10).size());
+            assertEquals(1, lockingModel.findValuesContaining("/files/5003", 10).size());
+            assertEquals(1, lockingModel.getTags(Collections.singleton(NAME_SPACE + "filesystemitem5000"))
+                    .get(NAME_SPACE + "filesystemitem5000").size());
+
+            // the indexes of the loaded model follow its changes
+            lockingModel.addTags(Collections.singleton(NAME_SPACE + "filesystemitem5001"), "tag", null);
+            assertEquals(1, lockingModel.getTags(Collections.singleton(NAME_SPACE + "filesystemitem5001"))
+                    .get(NAME_SPACE + "filesystemitem5001").size());
+            try (ModelBatch batch = lockingModel.newBatch()) {
+                addResources(batch, 0, 1);
+            }
+            assertEquals(1, lockingModel.findValuesContaining("/files/0", 10).size());
+        }
+    }
+
+    /**
+     * Retrieve the time all garbage collectors took so far
+     * @return the time in ms
+     */
+    private static long getGarbageCollectionTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    /**
+     * Add file resources with a path to a batch
+     * @param batch the batch
+     * @param from the number of the first resource
+     * @param to the number after the last resource
+     */
+    private static void addResources(ModelBatch batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String uri = NAME_SPACE + "filesystemitem" + i;
+            batch.addResource(uri, TYPE, "file" + i);
+            batch.addAttribute(uri, NAME_SPACE + "path", "/files/" + i);
+        }
+    }
+}
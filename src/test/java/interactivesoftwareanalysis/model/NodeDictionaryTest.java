@@ -0,0 +1,107 @@
+package interactivesoftwareanalysis.model;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link NodeDictionary}
+ */
+public class NodeDictionaryTest {
+
+    private static final String NAME_SPACE = "http://interactivesoftwareanalysis/";
+
+    private final NodeDictionary dictionary = new NodeDictionary();
+
+    @Test public void equalNodesGetTheSameId() {
+        int id = dictionary.getOrCreateId(NodeFactory.createURI(NAME_SPACE + "file"));
+        assertEquals(0, id);
+        assertEquals(id, dictionary.getOrCreateId(NodeFactory.createURI(NAME_SPACE + "file")));
+        assertEquals(id, dictionary.getId(NodeFactory.createURI(NAME_SPACE + "file")));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test public void missingNodeHasNoId() {
+        dictionary.getOrCreateId(NodeFactory.createURI(NAME_SPACE + "file"));
+        assertEquals(-1, dictionary.getId(NodeFactory.createURI(NAME_SPACE + "directory")));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test public void nodesOfEveryKindAreRetrieved() {
+        List<Node> nodes = kindsOfNodes("value");
+        for (Node node : nodes) {
+            int id = dictionary.getOrCreateId(node);
+            assertEquals(node, dictionary.getNode(id));
+        }
+        // nodes with the same uri, lexical form or label are distinguished by their kind
+        assertEquals(nodes.size(), dictionary.size());
+        for (int id = 0; id < nodes.size(); id++) {
+            assertEquals(id, dictionary.getId(nodes.get(id)));
+        }
+    }
+
+    @Test public void idsSurviveRehash() {
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            nodes.addAll(kindsOfNodes(Integer.toString(i)));
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            // the ids are dense, in the order the nodes were added
+            assertEquals(i, dictionary.getOrCreateId(nodes.get(i)));
+        }
+        assertEquals(nodes.size(), dictionary.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(i, dictionary.getId(nodes.get(i)));
+            assertEquals(i, dictionary.getOrCreateId(nodes.get(i)));
+            assertEquals(nodes.get(i), dictionary.getNode(i));
+        }
+        assertEquals(nodes.size(), dictionary.size());
+    }
+
+    @Test public void collidingHashCodesAreDistinguished() {
+        // "Aa" and "BB" have the same hash code
+        List<Node> nodes = Arrays.asList(NodeFactory.createURI("Aa"), NodeFactory.createURI("BB"),
+                NodeFactory.createLiteral("Aa"), NodeFactory.createLiteral("BB"));
+        for (Node node : nodes) {
+            dictionary.getOrCreateId(node);
+        }
+        assertEquals(4, new HashSet<>(Arrays.asList(dictionary.getId(nodes.get(0)), dictionary.getId(nodes.get(1)),
+                dictionary.getId(nodes.get(2)), dictionary.getId(nodes.get(3)))).size());
+        for (Node node : nodes) {
+            assertEquals(node, dictionary.getNode(dictionary.getId(node)));
+        }
+    }
+
+    @Test public void clearRemovesAllNodes() {
+        for (int i = 0; i < 2000; i++) {
+            dictionary.getOrCreateId(NodeFactory.createURI(NAME_SPACE + i));
+        }
+        dictionary.clear();
+        assertEquals(0, dictionary.size());
+        assertEquals(-1, dictionary.getId(NodeFactory.createURI(NAME_SPACE + 1)));
+        // the ids start at 0 again
+        assertEquals(0, dictionary.getOrCreateId(NodeFactory.createURI(NAME_SPACE + 1)));
+    }
+
+    /**
+     * Create nodes of all kinds, that the dictionary stores differently, from the same value
+     * @param value the uri, lexical form or label of the nodes
+     * @return a uri, a string literal, a typed literal, a literal with language and a blank node
+     */
+    private static List<Node> kindsOfNodes(String value) {
+        return Arrays.asList(
+                NodeFactory.createURI(value),
+                NodeFactory.createLiteral(value),
+                NodeFactory.createLiteral(value, XSDDatatype.XSDlong),
+                NodeFactory.createLiteral(value, "de"),
+                NodeFactory.createBlankNode(value));
+    }
+}
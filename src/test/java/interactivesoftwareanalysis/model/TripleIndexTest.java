@@ -0,0 +1,160 @@
+package interactivesoftwareanalysis.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link TripleIndex}
+ */
+public class TripleIndexTest {
+
+    private static final int ANY = -1;
+
+    private final TripleIndex index = new TripleIndex();
+
+    @Test public void addsTriplesOnce() {
+        assertTrue(index.add(1, 2, 3));
+        assertFalse(index.add(1, 2, 3));
+        assertTrue(index.contains(1, 2, 3));
+        assertFalse(index.contains(1, 3, 2));
+        assertFalse(index.contains(2, 2, 3));
+        assertEquals(1, find(1, ANY, ANY).size());
+    }
+
+    @Test public void removesTriples() {
+        index.add(1, 2, 3);
+        index.add(1, 2, 4);
+        assertFalse(index.remove(1, 2, 5));
+        assertFalse(index.remove(5000, 2, 3));
+        assertTrue(index.remove(1, 2, 3));
+        assertFalse(index.remove(1, 2, 3));
+        assertFalse(index.contains(1, 2, 3));
+        assertTrue(index.contains(1, 2, 4));
+
+        // removing the last triple of a bucket and adding again
+        assertTrue(index.remove(1, 2, 4));
+        assertTrue(find(1, ANY, ANY).isEmpty());
+        assertTrue(index.add(1, 2, 4));
+        assertEquals(triples(new int[]{1, 2, 4}), find(1, ANY, ANY));
+    }
+
+    @Test public void keepsBucketsSortedInAnyOrder() {
+        // descending, ascending and mixed, so the buckets grow and entries are inserted in the middle
+        for (int i = 100; i > 0; i--) {
+            index.add(7, i % 10, i);
+        }
+        for (int i = 101; i < 200; i++) {
+            index.add(7, i % 10, i);
+        }
+        List<int[]> found = findInOrder(7, ANY, ANY);
+        assertEquals(199, found.size());
+        for (int i = 1; i < found.size(); i++) {
+            int[] previous = found.get(i - 1);
+            int[] current = found.get(i);
+            assertTrue(previous[1] < current[1] || (previous[1] == current[1] && previous[2] < current[2]));
+        }
+    }
+
+    @Test public void growsForLargeIds() {
+        index.add(100000, Integer.MAX_VALUE, 0);
+        index.add(0, 0, Integer.MAX_VALUE);
+        assertTrue(index.contains(100000, Integer.MAX_VALUE, 0));
+        assertTrue(index.contains(0, 0, Integer.MAX_VALUE));
+        assertEquals(triples(new int[]{100000, Integer.MAX_VALUE, 0}), find(100000, Integer.MAX_VALUE, ANY));
+        assertEquals(triples(new int[]{0, 0, Integer.MAX_VALUE}), find(ANY, ANY, Integer.MAX_VALUE));
+        assertTrue(find(200000, ANY, ANY).isEmpty());
+    }
+
+    @Test public void findsEveryPattern() {
+        Random random = new Random(1);
+        Set<List<Integer>> added = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            int first = random.nextInt(50);
+            int second = random.nextInt(20);
+            int third = random.nextInt(100);
+            assertEquals(added.add(Arrays.asList(first, second, third)), index.add(first, second, third));
+        }
+        // remove some, so the buckets have gaps
+        for (int i = 0; i < 1000; i++) {
+            int first = random.nextInt(50);
+            int second = random.nextInt(20);
+            int third = random.nextInt(100);
+            assertEquals(added.remove(Arrays.asList(first, second, third)), index.remove(first, second, third));
+        }
+
+        // the index is used with the first, the first two, all or no components given, and the third as filter
+        int[][] patterns = {{ANY, ANY, ANY}, {3, ANY, ANY}, {3, 5, ANY}, {3, 5, 7}, {3, ANY, 7}, {ANY, ANY, 7},
+                {3, 25, ANY}, {60, ANY, ANY}, {3, 5, 200}};
+        for (int[] pattern : patterns) {
+            Set<List<Integer>> expected = new HashSet<>();
+            for (List<Integer> triple : added) {
+                if (matches(pattern, triple)) {
+                    expected.add(triple);
+                }
+            }
+            assertEquals(Arrays.toString(pattern), expected, find(pattern[0], pattern[1], pattern[2]));
+            for (List<Integer> triple : added) {
+                assertTrue(index.contains(triple.get(0), triple.get(1), triple.get(2)));
+            }
+        }
+    }
+
+    @Test public void clearRemovesAllTriples() {
+        index.add(1, 2, 3);
+        index.add(2000, 2, 3);
+        index.clear();
+        assertFalse(index.contains(1, 2, 3));
+        assertTrue(find(ANY, ANY, ANY).isEmpty());
+        assertTrue(index.add(1, 2, 3));
+    }
+
+    /**
+     * Find the triples matching a pattern
+     * @return the triples as lists of their components
+     */
+    private Set<List<Integer>> find(int first, int second, int third) {
+        Set<List<Integer>> found = new HashSet<>();
+        for (int[] triple : findInOrder(first, second, third)) {
+            assertTrue("a triple was found twice", found.add(Arrays.asList(triple[0], triple[1], triple[2])));
+        }
+        return found;
+    }
+
+    /**
+     * Find the triples matching a pattern in the order of the cursor
+     * @return the triples as arrays of their components
+     */
+    private List<int[]> findInOrder(int first, int second, int third) {
+        List<int[]> found = new ArrayList<>();
+        TripleIndex.Cursor cursor = index.find(first, second, third);
+        while (cursor.next()) {
+            found.add(new int[]{cursor.first, cursor.second, cursor.third});
+        }
+        return found;
+    }
+
+    private static Set<List<Integer>> triples(int[]... triples) {
+        Set<List<Integer>> set = new HashSet<>();
+        for (int[] triple : triples) {
+            set.add(Arrays.asList(triple[0], triple[1], triple[2]));
+        }
+        return set;
+    }
+
+    private static boolean matches(int[] pattern, List<Integer> triple) {
+        for (int i = 0; i < 3; i++) {
+            if (pattern[i] != ANY && pattern[i] != triple.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
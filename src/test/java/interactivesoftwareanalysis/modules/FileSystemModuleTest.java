@@ -0,0 +1,192 @@
+package interactivesoftwareanalysis.modules;
+
+import com.google.common.eventbus.EventBus;
+import interactivesoftwareanalysis.model.JenaRDFModel;
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.Resource;
+import interactivesoftwareanalysis.modules.data.DataSource;
+import interactivesoftwareanalysis.modules.data.DataSourceExecuteException;
+import interactivesoftwareanalysis.modules.data.DataSourceManager;
+import interactivesoftwareanalysis.modules.data.LocalDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the import of the {@link FileSystemModule} with a {@link LocalDataSource}, that crawls a temporary directory
+ */
+public class FileSystemModuleTest {
+
+    private static final String NAME_SPACE = "http://interactivesoftwareanalysis/";
+    private static final Instant MODIFICATION_TIME = Instant.parse("2016-09-01T12:30:15Z");
+
+    private Path directory;
+    private Model model;
+    private DataSourceManager dataSourceManager;
+    private ImportSubmodule fileSystemImport;
+
+    @Before public void setUp() throws Exception {
+        directory = Files.createTempDirectory("filesystemmoduletest").toRealPath();
+        Path file = Files.write(directory.resolve("file.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.from(MODIFICATION_TIME));
+        Files.createDirectory(directory.resolve("sub directory"));
+        Files.write(directory.resolve("sub directory").resolve("with space.txt"), new byte[0]);
+        Files.createSymbolicLink(directory.resolve("link"), directory.resolve("file.txt"));
+        Files.createSymbolicLink(directory.resolve("dangling"), directory.resolve("missing"));
+
+        model = new JenaRDFModel(new EventBus());
+        dataSourceManager = new DataSourceManager();
+        dataSourceManager.setDataSource(new DirectoryDataSource(new LocalDataSource(null), directory));
+        FileSystemModule module = new FileSystemModule(new ModuleContext(model, new EventBus(), dataSourceManager));
+        fileSystemImport = module.getImportSubmodules().get(0);
+    }
+
+    @After public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test public void importsFilesDirectoriesAndSymlinks() {
+        assertTrue(fileSystemImport.doImport(new SilentProgress()));
+
+        assertEquals(paths("file.txt", "link", "sub directory/with space.txt"), getPaths(NAME_SPACE + "file"));
+        assertEquals(paths("", "sub directory"), getPaths(NAME_SPACE + "directory"));
+        assertEquals(paths("link", "dangling"), getPaths(NAME_SPACE + "symlink"));
+    }
+
+    @Test public void importsTypedMetadata() {
+        assertTrue(fileSystemImport.doImport(new SilentProgress()));
+
+        String file = uri("file.txt");
+        assertEquals("5", getValue(file, "size"));
+        assertEquals(MODIFICATION_TIME.toString(), getValue(file, "modificationTime"));
+        assertEquals("1", getValue(file, "linkCount"));
+        assertNull(getValue(file, "linkTarget"));
+        assertEquals(directory.resolve("file.txt").toString(), getValue(uri("link"), "linkTarget"));
+        assertEquals(directory.resolve("missing").toString(), getValue(uri("dangling"), "linkTarget"));
+        assertEquals("0", getValue(uri("sub directory/with space.txt"), "size"));
+    }
+
+    @Test public void importsModificationTimesBeforeEpoch() throws Exception {
+        // find prints the seconds rounded down and a positive fraction, e.g. -3.2500000000 for -2.75 s
+        String[] seconds = {"-0.5", "-2.75", "-315619200"};
+        for (int i = 0; i < seconds.length; i++) {
+            Path file = Files.write(directory.resolve("old" + i + ".txt"), new byte[0]);
+            // the file times of the JDK don't keep fractions of times before the epoch
+            Process touch = new ProcessBuilder("touch", "-d", "@" + seconds[i], file.toString()).start();
+            assertEquals(0, touch.waitFor());
+        }
+        assertTrue(fileSystemImport.doImport(new SilentProgress()));
+
+        assertEquals("1969-12-31T23:59:59.500Z", getValue(uri("old0.txt"), "modificationTime"));
+        assertEquals("1969-12-31T23:59:57.250Z", getValue(uri("old1.txt"), "modificationTime"));
+        assertEquals("1960-01-01T00:00:00Z", getValue(uri("old2.txt"), "modificationTime"));
+    }
+
+    @Test public void failingDataSourceFailsImport() throws Exception {
+        dataSourceManager.setDataSource(command -> {
+            throw new DataSourceExecuteException(new IOException("no connection"));
+        });
+        assertFalse(fileSystemImport.doImport(new SilentProgress()));
+        assertTrue(model.getResources().isEmpty());
+    }
+
+    /**
+     * Retrieve the paths of all resources of a type
+     * @param typeUri the uri of the type
+     * @return the paths
+     */
+    private Set<String> getPaths(String typeUri) {
+        List<String> uris = model.getResources(typeUri).stream().map(Resource::getUri).collect(Collectors.toList());
+        return model.getAttributeValues(uris, NAME_SPACE + "path").values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieve the value of an attribute of a resource
+     * @param resourceUri the uri of the resource
+     * @param attribute the name of the attribute
+     * @return the value or null, if the resource does not have the attribute
+     */
+    private String getValue(String resourceUri, String attribute) {
+        List<String> values = model.getAttributeValues(Collections.singleton(resourceUri), NAME_SPACE + attribute).get(resourceUri);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Retrieve the absolute paths of entries of the temporary directory
+     * @param relativePaths the paths relative to the directory. The empty path is the directory itself.
+     * @return the absolute paths
+     */
+    private Set<String> paths(String... relativePaths) {
+        return Stream.of(relativePaths).map(path -> directory.resolve(path).toString()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Retrieve the uri of the resource of an entry of the temporary directory
+     * @param relativePath the path relative to the directory
+     * @return the uri, that the import creates for the entry
+     */
+    private String uri(String relativePath) {
+        return NAME_SPACE + "filesystemitem" + directory.resolve(relativePath).toString().hashCode();
+    }
+
+    /**
+     * A local data source, that crawls a directory instead of the whole file system
+     */
+    private static class DirectoryDataSource implements DataSource {
+
+        private final DataSource dataSource;
+        private final Path directory;
+
+        private DirectoryDataSource(DataSource dataSource, Path directory) {
+            this.dataSource = dataSource;
+            this.directory = directory;
+        }
+
+        @Override public String execute(String command) throws DataSourceExecuteException {
+            return dataSource.execute(replaceRoot(command));
+        }
+
+        @Override public InputStream executeStreaming(String command) throws DataSourceExecuteException {
+            return dataSource.executeStreaming(replaceRoot(command));
+        }
+
+        private String replaceRoot(String command) {
+            return command.replace("find / ", "find '" + directory + "' ");
+        }
+    }
+
+    /**
+     * A progress, that does not pass its messages to the application thread, which does not run in the tests
+     */
+    private static class SilentProgress extends Progress {
+
+        private SilentProgress() {
+            super(progress -> {});
+        }
+
+        @Override public void setMessage(String message) {
+        }
+    }
+}
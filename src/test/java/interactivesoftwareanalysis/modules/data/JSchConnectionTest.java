@@ -0,0 +1,147 @@
+package interactivesoftwareanalysis.modules.data;
+
+import com.google.common.io.ByteStreams;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.config.keys.KeyUtils;
+import org.apache.sshd.common.kex.BuiltinDHFactories;
+import org.apache.sshd.common.session.Session;
+import org.apache.sshd.server.ServerBuilder;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.shell.ProcessShellFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link JSchConnection} with the {@link SessionPool} and the {@link SSHDataSource} against an ssh server,
+ * that runs in the test and executes the commands locally with sh
+ */
+public class JSchConnectionTest {
+
+    private static final String USERNAME = "analyst";
+    private static final String PASSWORD = "secret";
+
+    /** The number of bytes, that two commands print at the same time, much more than the window of a channel */
+    private static final int LARGE_OUTPUT = 4000000;
+
+    /** All connections, that the connector set up */
+    private final List<JSchConnection> connections = new CopyOnWriteArrayList<>();
+
+    private SshServer server;
+    private SessionPool sessionPool;
+
+    @Before public void setUp() throws IOException {
+        server = SshServer.setUpDefaultServer();
+        server.setHost("localhost");
+        server.setPort(0);
+        // JSch 0.1.51 only knows the sha1 key exchanges and rsa or dsa host keys
+        server.setKeyExchangeFactories(NamedFactory.setUpTransformedFactories(false,
+                Arrays.asList(BuiltinDHFactories.dhg14, BuiltinDHFactories.dhgex, BuiltinDHFactories.dhg1),
+                ServerBuilder.DH2KEX));
+        SimpleGeneratorHostKeyProvider hostKeyProvider = new SimpleGeneratorHostKeyProvider();
+        hostKeyProvider.setAlgorithm(KeyUtils.RSA_ALGORITHM);
+        server.setKeyPairProvider(hostKeyProvider);
+        server.setPasswordAuthenticator((username, password, session) -> USERNAME.equals(username) && PASSWORD.equals(password));
+        // like an OpenSSH server, the commands are executed by a shell
+        server.setCommandFactory((channel, command) -> new ProcessShellFactory(command, "sh", "-c", command).createShell(channel));
+        server.start();
+    }
+
+    @After public void tearDown() throws IOException {
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+        server.stop(true);
+    }
+
+    @Test(timeout = 60000)
+    public void streamsCompressedOutput() throws Exception {
+        SSHDataSource dataSource = new SSHDataSource(this::connect, 2, true);
+        try {
+            assertTrue(dataSource.isCompressed());
+            assertEquals("hello\n", dataSource.execute("echo hello"));
+
+            StringBuilder expected = new StringBuilder();
+            for (int i = 1; i <= 100000; i++) {
+                expected.append(i).append('\n');
+            }
+            try (InputStream output = dataSource.executeStreaming("seq 1 100000")) {
+                assertEquals(expected.toString(), new String(ByteStreams.toByteArray(output), StandardCharsets.UTF_8));
+            }
+            assertTrue(dataSource.getBytesReceived() < expected.length());
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void parallelOutputsAreTransferredTogether() throws Exception {
+        sessionPool = new SessionPool(this::connect, 2);
+        String command = "head -c " + LARGE_OUTPUT + " /dev/zero";
+        InputStream first = sessionPool.execute(command);
+        InputStream second = sessionPool.execute(command);
+
+        // the channels share the transport, so their outputs are read at the same time
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> firstOutput = readers.submit(() -> ByteStreams.toByteArray(first));
+            Future<byte[]> secondOutput = readers.submit(() -> ByteStreams.toByteArray(second));
+            assertEquals(LARGE_OUTPUT, firstOutput.get().length);
+            assertEquals(LARGE_OUTPUT, secondOutput.get().length);
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(1, connections.size());
+    }
+
+    @Test(timeout = 60000)
+    public void lostSessionIsReplaced() throws Exception {
+        sessionPool = new SessionPool(this::connect, 2);
+        sessionPool.open();
+        JSchConnection lost = connections.get(0);
+        assertTrue(lost.isConnected());
+
+        // the server drops the session, the client notices it on its transport thread
+        for (Session session : server.getActiveSessions()) {
+            session.close(true);
+        }
+        while (lost.isConnected()) {
+            Thread.sleep(10);
+        }
+        assertFalse(sessionPool.isConnected());
+
+        assertEquals("replaced\n", new String(ByteStreams.toByteArray(sessionPool.execute("echo replaced")), StandardCharsets.UTF_8));
+        assertEquals(2, connections.size());
+        assertTrue(connections.get(1).isConnected());
+        assertTrue(sessionPool.isConnected());
+    }
+
+    @Test(timeout = 60000, expected = DataSourceCreateException.class)
+    public void wrongPasswordFailsToCreateDataSource() throws Exception {
+        new SSHDataSource(() -> new JSchConnection("localhost", server.getPort(), USERNAME, "wrong"), 2, false);
+    }
+
+    /**
+     * Set up a new connection to the test server
+     * @return the connection
+     * @throws IOException when the connection could not be set up
+     */
+    private CommandConnection connect() throws IOException {
+        JSchConnection connection = new JSchConnection("localhost", server.getPort(), USERNAME, PASSWORD);
+        connections.add(connection);
+        return connection;
+    }
+}
@@ -0,0 +1,261 @@
+package interactivesoftwareanalysis.modules.data;
+
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link SessionPool} and the {@link SSHDataSource} with connections, that execute the commands locally
+ */
+public class SessionPoolTest {
+
+    /** All connections, that the connector set up */
+    private final List<LocalConnection> connections = new CopyOnWriteArrayList<>();
+
+    /** The number of commands, that run at the moment, on all connections */
+    private final AtomicInteger runningCommands = new AtomicInteger();
+
+    /** The largest number of commands, that ran at the same time */
+    private final AtomicInteger maxRunningCommands = new AtomicInteger();
+
+    private SessionPool sessionPool;
+
+    @After public void tearDown() {
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
+    }
+
+    @Test public void parallelCommandsAreLimited() throws Exception {
+        sessionPool = new SessionPool(this::connect, 2);
+        List<InputStream> outputs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            outputs.add(sessionPool.execute("sleep 0.2; echo " + i));
+        }
+        for (int i = 0; i < outputs.size(); i++) {
+            assertEquals(i + "\n", read(outputs.get(i)));
+        }
+
+        assertEquals(2, maxRunningCommands.get());
+        // all channels fit on one connection
+        assertEquals(1, connections.size());
+    }
+
+    @Test public void lostConnectionIsReplaced() throws Exception {
+        sessionPool = new SessionPool(this::connect, 2);
+        sessionPool.open();
+        assertTrue(sessionPool.isConnected());
+
+        LocalConnection lost = connections.get(0);
+        lost.connected = false;
+        assertFalse(sessionPool.isConnected());
+        assertEquals("replaced\n", read(sessionPool.execute("echo replaced")));
+
+        assertEquals(2, connections.size());
+        assertTrue(lost.closed);
+        assertEquals(0, lost.commands.get());
+        assertEquals(1, connections.get(1).commands.get());
+        assertTrue(sessionPool.isConnected());
+    }
+
+    @Test(timeout = 10000)
+    public void connectingDoesNotBlockPool() throws Exception {
+        CountDownLatch connecting = new CountDownLatch(1);
+        CountDownLatch connected = new CountDownLatch(1);
+        sessionPool = new SessionPool(() -> {
+            connecting.countDown();
+            try {
+                connected.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return connect();
+        }, 2);
+        InputStream output = sessionPool.execute("echo slow");
+        connecting.await();
+
+        // the pool answers, while the connection is set up
+        assertFalse(sessionPool.isConnected());
+        assertTrue(sessionPool.getMetrics().isEmpty());
+        connected.countDown();
+        assertEquals("slow\n", read(output));
+        assertTrue(sessionPool.isConnected());
+    }
+
+    @Test public void connectionSetUpWhileClosingIsClosed() throws Exception {
+        CountDownLatch connecting = new CountDownLatch(1);
+        CountDownLatch connected = new CountDownLatch(1);
+        sessionPool = new SessionPool(() -> {
+            connecting.countDown();
+            try {
+                connected.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return connect();
+        }, 2);
+        InputStream output = sessionPool.execute("echo closed");
+        connecting.await();
+        sessionPool.close();
+        connected.countDown();
+        try {
+            read(output);
+            fail("the pool was closed");
+        } catch (IOException e) {
+            // expected
+        }
+        assertTrue(connections.get(0).closed);
+        assertFalse(sessionPool.isConnected());
+    }
+
+    @Test public void failedConnectionFailsCommand() throws Exception {
+        sessionPool = new SessionPool(() -> {
+            throw new IOException("connection refused");
+        }, 2);
+        try {
+            read(sessionPool.execute("echo unreachable"));
+            fail("the command can not be executed without a connection");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(1, sessionPool.getCommandCount());
+        assertFalse(sessionPool.getMetrics().get(0).isSuccessful());
+    }
+
+    @Test public void metricsAreRecorded() throws Exception {
+        sessionPool = new SessionPool(this::connect, 2);
+        assertEquals("12345", read(sessionPool.execute("printf 12345")));
+        assertEquals("", read(sessionPool.execute("true")));
+
+        assertEquals(2, sessionPool.getCommandCount());
+        assertEquals(5, sessionPool.getBytesReceived());
+        List<CommandMetrics> metrics = sessionPool.getMetrics();
+        assertEquals(2, metrics.size());
+
+        CommandMetrics printed = metrics.get(0);
+        assertEquals("printf 12345", printed.getCommand());
+        assertEquals(5, printed.getBytesReceived());
+        assertTrue(printed.getLatency() >= 0);
+        assertTrue(printed.getDuration() >= printed.getLatency());
+        assertTrue(printed.isSuccessful());
+
+        CommandMetrics empty = metrics.get(1);
+        assertEquals(0, empty.getBytesReceived());
+        assertEquals(-1, empty.getLatency());
+        assertTrue(empty.isSuccessful());
+    }
+
+    @Test public void dataSourceExecutesCommandsInParallel() throws Exception {
+        SSHDataSource dataSource = new SSHDataSource(this::connect, 3, false);
+        try {
+            assertFalse(dataSource.isCompressed());
+            List<InputStream> outputs = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                outputs.add(dataSource.executeStreaming("sleep 0.2; echo " + i));
+            }
+            for (int i = 0; i < outputs.size(); i++) {
+                assertEquals(i + "\n", read(outputs.get(i)));
+            }
+            assertEquals(3, maxRunningCommands.get());
+
+            List<String> lines = new ArrayList<>();
+            dataSource.executeLines("printf 'a\\nb\\nc\\n'", lines::add);
+            assertEquals(3, lines.size());
+            assertEquals("c", lines.get(2));
+        } finally {
+            dataSource.close();
+        }
+        assertFalse(dataSource.isConnected());
+    }
+
+    @Test public void dataSourceDecompressesOutput() throws Exception {
+        SSHDataSource dataSource = new SSHDataSource(this::connect, 2, true);
+        try {
+            assertTrue(dataSource.isCompressed());
+            // the command has several lines and repetitive output, which compresses well
+            String output = dataSource.execute("i=0\nwhile [ $i -lt 1000 ]; do echo line; i=$((i+1)); done");
+            assertEquals(5000, output.length());
+
+            TransferStatistics statistics = dataSource.getTransferStatistics();
+            assertTrue(statistics.getBytesDelivered() >= 5000);
+            assertTrue(statistics.getBytesReceived() < statistics.getBytesDelivered());
+            assertTrue(statistics.getCompressionRatio() > 1);
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * Set up a new local connection
+     * @return the connection
+     */
+    private CommandConnection connect() {
+        LocalConnection connection = new LocalConnection();
+        connections.add(connection);
+        return connection;
+    }
+
+    /**
+     * Read the whole output of a command
+     * @param output the output
+     * @return the output as a string
+     * @throws IOException when the command failed
+     */
+    private static String read(InputStream output) throws IOException {
+        try (InputStream stream = output) {
+            return new String(ByteStreams.toByteArray(stream), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * A stand-in for an ssh session, that executes the commands with a local shell and counts them
+     */
+    private class LocalConnection implements CommandConnection {
+
+        private volatile boolean connected = true;
+        private volatile boolean closed = false;
+        private final AtomicInteger commands = new AtomicInteger();
+
+        @Override public void execute(String command, OutputStream output) throws IOException {
+            if (!connected) {
+                throw new IOException("The connection was lost");
+            }
+            commands.incrementAndGet();
+            maxRunningCommands.accumulateAndGet(runningCommands.incrementAndGet(), Math::max);
+            try {
+                Process process = new ProcessBuilder("sh", "-c", command).redirectErrorStream(true).start();
+                process.getOutputStream().close();
+                try (InputStream stream = process.getInputStream()) {
+                    ByteStreams.copy(stream, output);
+                }
+                // like an ssh channel, the exit status is not checked
+                process.waitFor();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                runningCommands.decrementAndGet();
+            }
+        }
+
+        @Override public boolean isConnected() {
+            return connected;
+        }
+
+        @Override public void close() {
+            connected = false;
+            closed = true;
+        }
+    }
+}
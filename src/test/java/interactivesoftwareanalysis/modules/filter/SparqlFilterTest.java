@@ -0,0 +1,75 @@
+package interactivesoftwareanalysis.modules.filter;
+
+import com.google.common.eventbus.EventBus;
+import interactivesoftwareanalysis.model.JenaRDFModel;
+import interactivesoftwareanalysis.model.Model;
+import interactivesoftwareanalysis.model.ModelBatch;
+import interactivesoftwareanalysis.modules.ModuleContext;
+import interactivesoftwareanalysis.modules.data.DataItem;
+import interactivesoftwareanalysis.modules.data.DataSourceManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the preparation of the {@link SparqlFilter}, that decides all prepared items with one query
+ */
+public class SparqlFilterTest {
+
+    private static final String NAME_SPACE = "http://interactivesoftwareanalysis/";
+    private static final String QUERY = "ASK {?uri <" + NAME_SPACE + "packageSection> \"libs\"}";
+
+    private Model model;
+    private ModuleContext moduleContext;
+    private List<DataItem> items;
+
+    @Before public void setUp() throws Exception {
+        model = new JenaRDFModel(new EventBus());
+        moduleContext = new ModuleContext(model, new EventBus(), new DataSourceManager());
+        try (ModelBatch batch = model.newBatch()) {
+            for (int i = 0; i < 100; i++) {
+                batch.addResource(uri(i), NAME_SPACE + "package", "package" + i);
+                batch.addAttribute(uri(i), NAME_SPACE + "packageSection", i % 10 == 0 ? "libs" : "admin");
+            }
+        }
+        items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new DataItem("package" + i, model.getResource(uri(i))));
+        }
+    }
+
+    @Test public void preparedFilterDecidesItems() {
+        SparqlFilter filter = new SparqlFilter(QUERY, moduleContext);
+        filter.prepare(items);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 10 == 0, filter.filter(items.get(i)));
+        }
+        assertFalse(filter.filter(new DataItem("without resource", null)));
+    }
+
+    @Test public void preparingForOtherItemsKeepsPreparation() {
+        SparqlFilter filter = new SparqlFilter(QUERY, moduleContext);
+        filter.prepare(items);
+        try (ModelBatch batch = model.newBatch()) {
+            batch.addAttribute(uri(5), NAME_SPACE + "packageSection", "libs");
+        }
+
+        Filter prepared = filter.preparedFor(Collections.singletonList(items.get(5)));
+        assertTrue(prepared.filter(items.get(5)));
+        Filter preparedAnd = new AndFilter(Collections.singletonList(filter)).preparedFor(Collections.singletonList(items.get(5)));
+        assertTrue(preparedAnd.filter(items.get(5)));
+
+        // a running filtering still decides all items with its own preparation
+        assertFalse(filter.filter(items.get(5)));
+        assertTrue(filter.filter(items.get(10)));
+    }
+
+    private static String uri(int i) {
+        return NAME_SPACE + "package" + i;
+    }
+}